@@ -0,0 +1,60 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+import android.location.LocationManager;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Inputs shared by the benchmarks.
+ */
+class BenchmarkLocations {
+    private BenchmarkLocations() {}
+
+    /**
+     * A walk at about 1.5m/s sampled every second, with every field set and some GPS noise, so the filter and
+     * the codec see realistic deltas.
+     */
+    static List<Location> walk(int count) {
+        Random random = new Random(42);
+        List<Location> locations = new ArrayList<>(count);
+        double latitude = 51.5074;
+        double longitude = -0.1278;
+        double bearing = 0;
+        long time = 1500000000000L;
+        for (int i = 0; i < count; i++) {
+            bearing += random.nextGaussian() * 10;
+            latitude += Math.cos(Math.toRadians(bearing)) * 1.5 / 111320;
+            longitude += Math.sin(Math.toRadians(bearing)) * 1.5 / (111320 * Math.cos(Math.toRadians(latitude)));
+
+            Location location = new Location(LocationManager.GPS_PROVIDER);
+            location.setTime(time + i * 1000L);
+            location.setElapsedRealtimeNanos(i * 1000000000L);
+            location.setLatitude(latitude + random.nextGaussian() * 0.00003);
+            location.setLongitude(longitude + random.nextGaussian() * 0.00003);
+            location.setAltitude(20 + random.nextGaussian());
+            location.setAccuracy(4 + random.nextFloat() * 6);
+            location.setVerticalAccuracyMeters(8);
+            location.setBearing((float) ((bearing % 360 + 360) % 360));
+            location.setBearingAccuracyDegrees(15);
+            location.setSpeed(1.5f + (float) random.nextGaussian() * 0.2f);
+            location.setSpeedAccuracyMetersPerSecond(0.5f);
+            locations.add(location);
+        }
+        return locations;
+    }
+
+    /**
+     * A context which drops the emitted events, as keeping them would fill the heap over a run.
+     */
+    static ReactApplicationContext context() {
+        return new ReactApplicationContext() {
+            @Override
+            protected void onEmit(String eventName, Object data) {}
+        };
+    }
+}
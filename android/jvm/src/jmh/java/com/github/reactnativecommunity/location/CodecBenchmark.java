@@ -0,0 +1,45 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding the upload batches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CodecBenchmark {
+    @Param({"50", "500"})
+    int batchSize;
+
+    private List<Location> locations;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        locations = BenchmarkLocations.walk(batchSize);
+        encoded = RNLocationCodec.encode(locations);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return RNLocationCodec.encode(locations);
+    }
+
+    @Benchmark
+    public List<Location> decode() {
+        return RNLocationCodec.decode(encoded);
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.reactnativecommunity.location;
+
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the options passed to configure, which the adaptive sampler and the subscriptions do on every
+ * change of request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConfigurationBenchmark {
+    private File journalFile;
+    private RNLocationJournal journal;
+    private RNLocationDispatcher dispatcher;
+    private RNStandardLocationProvider provider;
+    private ReadableMap dispatcherOptions;
+    private ReadableMap[] providerOptions;
+    private int next = 0;
+
+    @Setup
+    public void setUp() throws IOException {
+        ReactApplicationContext context = BenchmarkLocations.context();
+        journalFile = File.createTempFile("journal", ".bin");
+        journal = new RNLocationJournal(journalFile);
+        dispatcher = new RNLocationDispatcher(context, journal);
+        provider = new RNStandardLocationProvider(context, dispatcher);
+
+        dispatcherOptions = JavaOnlyMap.of(
+                "batchSize", 10,
+                "batchWindow", 0,
+                "smoothing", true,
+                "maxAccuracy", 50,
+                "maxSpeed", 20,
+                "fields", JavaOnlyArray.of("latitude", "longitude", "accuracy", "speed", "timestamp"));
+        // Alternate between two requests so the provider does not take the unchanged options shortcut
+        providerOptions = new ReadableMap[]{
+                JavaOnlyMap.of("desiredAccuracy", JavaOnlyMap.of("android", "highAccuracy"), "distanceFilter", 5, "interval", 1000),
+                JavaOnlyMap.of("desiredAccuracy", JavaOnlyMap.of("android", "balancedPowerAccuracy"), "distanceFilter", 50, "interval", 10000),
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        dispatcher.destroy();
+        journal.close();
+        journalFile.delete();
+    }
+
+    @Benchmark
+    public void configureDispatcher() {
+        dispatcher.configure(dispatcherOptions);
+    }
+
+    @Benchmark
+    public void configureProvider() {
+        provider.configure(null, providerOptions[next], IGNORED_PROMISE);
+        next ^= 1;
+    }
+
+    private static final Promise IGNORED_PROMISE = new Promise() {
+        @Override
+        public void resolve(Object value) {}
+
+        @Override
+        public void reject(String code, String message) {}
+
+        @Override
+        public void reject(String code, Throwable throwable) {}
+
+        @Override
+        public void reject(String code, String message, Throwable throwable) {}
+
+        @Override
+        public void reject(Throwable throwable) {}
+    };
+}
@@ -0,0 +1,56 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting locations into the maps sent to JS, one at a time and as a batch drained from the buffer. The
+ * maps here are Java backed, so this measures our side of the conversion and not the bridge.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConversionBenchmark {
+    private static final int BATCH_SIZE = 50;
+
+    private final RNLocationBuffer buffer = new RNLocationBuffer(BATCH_SIZE);
+    private List<Location> locations;
+    private int coordinateFields;
+
+    @Setup
+    public void setUp() {
+        locations = BenchmarkLocations.walk(BATCH_SIZE);
+        coordinateFields = RNLocationFields.LATITUDE | RNLocationFields.LONGITUDE | RNLocationFields.TIMESTAMP;
+    }
+
+    @Benchmark
+    public WritableMap locationToMap() {
+        return Utils.locationToMap(locations.get(0));
+    }
+
+    @Benchmark
+    public WritableMap locationToMapCoordinates() {
+        return Utils.locationToMap(locations.get(0), coordinateFields);
+    }
+
+    @Benchmark
+    public WritableArray drainBatch() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            buffer.add(locations.get(i));
+        }
+        return buffer.drain();
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole path from the provider handing over a location to the batch being emitted, per location.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DispatcherBenchmark {
+    private static final int TRACK_LENGTH = 1000;
+
+    @Param({"1", "50"})
+    int batchSize;
+
+    @Param({"false", "true"})
+    boolean smoothing;
+
+    private File journalFile;
+    private RNLocationJournal journal;
+    private RNLocationDispatcher dispatcher;
+    private List<Location> locations;
+    private long passes = 0;
+
+    @Setup
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("journal", ".bin");
+        journal = new RNLocationJournal(journalFile);
+        dispatcher = new RNLocationDispatcher(BenchmarkLocations.context(), journal);
+        dispatcher.configure(JavaOnlyMap.of(
+                "batchSize", batchSize,
+                // Only full batches are emitted, so the timer never runs during a measurement
+                "batchWindow", 0,
+                "smoothing", smoothing,
+                "fields", JavaOnlyArray.of("latitude", "longitude", "accuracy", "timestamp")));
+        locations = BenchmarkLocations.walk(TRACK_LENGTH);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dispatcher.destroy();
+        journal.close();
+        journalFile.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRACK_LENGTH)
+    public void dispatch() {
+        // Smoothing updates the locations in place and drops anything older than the last fix, so each pass
+        // gets fresh copies with later times
+        long offset = locations.get(TRACK_LENGTH - 1).getTime() - locations.get(0).getTime() + 1000;
+        for (int i = 0; i < TRACK_LENGTH; i++) {
+            Location location = new Location(locations.get(i));
+            location.setTime(location.getTime() + offset * passes);
+            dispatcher.dispatch(location);
+        }
+        passes++;
+        dispatcher.flushAll();
+    }
+}
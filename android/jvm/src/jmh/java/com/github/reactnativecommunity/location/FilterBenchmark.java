@@ -0,0 +1,60 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtering and smoothing a track, per location.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FilterBenchmark {
+    private static final int TRACK_LENGTH = 1000;
+
+    private final RNLocationFilter filter = new RNLocationFilter();
+    private final RNTrajectorySimplifier simplifier = new RNTrajectorySimplifier();
+    private List<Location> locations;
+
+    @Setup
+    public void setUp() {
+        locations = BenchmarkLocations.walk(TRACK_LENGTH);
+        filter.setSmoothingEnabled(true);
+        filter.setMaxAccuracy(50);
+        filter.setMaxSpeed(10);
+        simplifier.setTolerance(5);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRACK_LENGTH)
+    public void filter(Blackhole blackhole) {
+        // The filter mutates the locations it smooths, so work on copies. The copies are a small part of the
+        // time, but do show up in the allocation rate.
+        filter.reset();
+        for (int i = 0; i < TRACK_LENGTH; i++) {
+            blackhole.consume(filter.process(new Location(locations.get(i))));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRACK_LENGTH)
+    public void simplify(Blackhole blackhole) {
+        simplifier.reset();
+        for (int i = 0; i < TRACK_LENGTH; i++) {
+            blackhole.consume(simplifier.offer(locations.get(i)));
+        }
+        blackhole.consume(simplifier.drain());
+    }
+}
@@ -0,0 +1,113 @@
+package android.content;
+
+import android.os.Handler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stand-in for the framework Context, with in-memory preferences, a temporary files directory and broadcasts
+ * delivered to the receivers registered in this process. Tests override getSystemService to hand out their
+ * own services.
+ */
+public class Context {
+    public static final String LOCATION_SERVICE = "location";
+    public static final String CONNECTIVITY_SERVICE = "connectivity";
+    public static final int MODE_PRIVATE = 0;
+
+    private final Map<String, SharedPreferences> preferences = new HashMap<>();
+    private final List<Registration> receivers = new ArrayList<>();
+    private File filesDir;
+
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    public Object getSystemService(String name) {
+        return null;
+    }
+
+    public synchronized SharedPreferences getSharedPreferences(String name, int mode) {
+        SharedPreferences result = preferences.get(name);
+        if (result == null) {
+            result = new MemorySharedPreferences();
+            preferences.put(name, result);
+        }
+        return result;
+    }
+
+    public synchronized File getFilesDir() {
+        if (filesDir == null) {
+            try {
+                filesDir = Files.createTempDirectory("files").toFile();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return filesDir;
+    }
+
+    public Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter) {
+        return registerReceiver(receiver, filter, null, null);
+    }
+
+    public synchronized Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter, String broadcastPermission, Handler scheduler) {
+        receivers.add(new Registration(receiver, filter, scheduler));
+        return null;
+    }
+
+    public synchronized void unregisterReceiver(BroadcastReceiver receiver) {
+        for (int i = receivers.size() - 1; i >= 0; i--) {
+            if (receivers.get(i).receiver == receiver) {
+                receivers.remove(i);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Receiver not registered: " + receiver);
+    }
+
+    /**
+     * Delivers the intent to every matching receiver, on its scheduler if it gave one or else on the calling
+     * thread.
+     */
+    public void sendBroadcast(final Intent intent) {
+        List<Registration> matching = new ArrayList<>();
+        synchronized (this) {
+            for (Registration registration : receivers) {
+                if (registration.filter.hasAction(intent.getAction())) {
+                    matching.add(registration);
+                }
+            }
+        }
+        for (final Registration registration : matching) {
+            Runnable delivery = new Runnable() {
+                @Override
+                public void run() {
+                    registration.receiver.onReceive(Context.this, intent);
+                }
+            };
+            if (registration.scheduler != null) {
+                registration.scheduler.post(delivery);
+            } else {
+                delivery.run();
+            }
+        }
+    }
+
+    private static class Registration {
+        final BroadcastReceiver receiver;
+        final IntentFilter filter;
+        final Handler scheduler;
+
+        Registration(BroadcastReceiver receiver, IntentFilter filter, Handler scheduler) {
+            this.receiver = receiver;
+            this.filter = filter;
+            this.scheduler = scheduler;
+        }
+    }
+}
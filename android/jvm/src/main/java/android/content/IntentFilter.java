@@ -0,0 +1,22 @@
+package android.content;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class IntentFilter {
+    private final List<String> actions = new ArrayList<>();
+
+    public IntentFilter() {}
+
+    public IntentFilter(String action) {
+        addAction(action);
+    }
+
+    public final void addAction(String action) {
+        actions.add(action);
+    }
+
+    public final boolean hasAction(String action) {
+        return action != null && actions.contains(action);
+    }
+}
@@ -0,0 +1,113 @@
+package android.content;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Backs the stand-in Context preferences, applying edits in memory straight away.
+ */
+class MemorySharedPreferences implements SharedPreferences {
+    private final Map<String, Object> values = new HashMap<>();
+
+    @Override
+    public synchronized Map<String, ?> getAll() {
+        return new HashMap<>(values);
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+        return values.containsKey(key);
+    }
+
+    @Override
+    public synchronized boolean getBoolean(String key, boolean defValue) {
+        Object value = values.get(key);
+        return value != null ? (Boolean) value : defValue;
+    }
+
+    @Override
+    public synchronized int getInt(String key, int defValue) {
+        Object value = values.get(key);
+        return value != null ? (Integer) value : defValue;
+    }
+
+    @Override
+    public synchronized long getLong(String key, long defValue) {
+        Object value = values.get(key);
+        return value != null ? (Long) value : defValue;
+    }
+
+    @Override
+    public synchronized String getString(String key, String defValue) {
+        Object value = values.get(key);
+        return value != null ? (String) value : defValue;
+    }
+
+    @Override
+    public Editor edit() {
+        return new MemoryEditor();
+    }
+
+    private class MemoryEditor implements Editor {
+        private final Map<String, Object> changes = new HashMap<>();
+        private final Set<String> removals = new HashSet<>();
+        private boolean isClearing = false;
+
+        @Override
+        public Editor putBoolean(String key, boolean value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putInt(String key, int value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putLong(String key, long value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor putString(String key, String value) {
+            changes.put(key, value);
+            return this;
+        }
+
+        @Override
+        public Editor remove(String key) {
+            removals.add(key);
+            return this;
+        }
+
+        @Override
+        public Editor clear() {
+            isClearing = true;
+            return this;
+        }
+
+        @Override
+        public boolean commit() {
+            synchronized (MemorySharedPreferences.this) {
+                if (isClearing) {
+                    values.clear();
+                }
+                for (String key : removals) {
+                    values.remove(key);
+                }
+                values.putAll(changes);
+            }
+            return true;
+        }
+
+        @Override
+        public void apply() {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package android.content;
+
+import java.util.Map;
+
+public interface SharedPreferences {
+    Map<String, ?> getAll();
+    boolean contains(String key);
+    boolean getBoolean(String key, boolean defValue);
+    int getInt(String key, int defValue);
+    long getLong(String key, long defValue);
+    String getString(String key, String defValue);
+    Editor edit();
+
+    interface Editor {
+        Editor putBoolean(String key, boolean value);
+        Editor putInt(String key, int value);
+        Editor putLong(String key, long value);
+        Editor putString(String key, String value);
+        Editor remove(String key);
+        Editor clear();
+        boolean commit();
+        void apply();
+    }
+}
@@ -0,0 +1,251 @@
+package android.location;
+
+import android.os.Bundle;
+
+/**
+ * Stand-in for the framework Location, which keeps every field and whether it has been set.
+ */
+public class Location {
+    private static final double EARTH_RADIUS = 6371008.8;
+
+    private String provider;
+    private long time;
+    private long elapsedRealtimeNanos;
+    private double latitude;
+    private double longitude;
+    private double altitude;
+    private float accuracy;
+    private float verticalAccuracy;
+    private float bearing;
+    private float bearingAccuracy;
+    private float speed;
+    private float speedAccuracy;
+    private boolean hasAltitude;
+    private boolean hasAccuracy;
+    private boolean hasVerticalAccuracy;
+    private boolean hasBearing;
+    private boolean hasBearingAccuracy;
+    private boolean hasSpeed;
+    private boolean hasSpeedAccuracy;
+    private boolean isFromMockProvider;
+    private Bundle extras;
+
+    public Location(String provider) {
+        this.provider = provider;
+    }
+
+    public Location(Location location) {
+        set(location);
+    }
+
+    public void set(Location location) {
+        provider = location.provider;
+        time = location.time;
+        elapsedRealtimeNanos = location.elapsedRealtimeNanos;
+        latitude = location.latitude;
+        longitude = location.longitude;
+        altitude = location.altitude;
+        accuracy = location.accuracy;
+        verticalAccuracy = location.verticalAccuracy;
+        bearing = location.bearing;
+        bearingAccuracy = location.bearingAccuracy;
+        speed = location.speed;
+        speedAccuracy = location.speedAccuracy;
+        hasAltitude = location.hasAltitude;
+        hasAccuracy = location.hasAccuracy;
+        hasVerticalAccuracy = location.hasVerticalAccuracy;
+        hasBearing = location.hasBearing;
+        hasBearingAccuracy = location.hasBearingAccuracy;
+        hasSpeed = location.hasSpeed;
+        hasSpeedAccuracy = location.hasSpeedAccuracy;
+        isFromMockProvider = location.isFromMockProvider;
+        extras = location.extras;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    public long getElapsedRealtimeNanos() {
+        return elapsedRealtimeNanos;
+    }
+
+    public void setElapsedRealtimeNanos(long elapsedRealtimeNanos) {
+        this.elapsedRealtimeNanos = elapsedRealtimeNanos;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+
+    public boolean hasAltitude() {
+        return hasAltitude;
+    }
+
+    public double getAltitude() {
+        return altitude;
+    }
+
+    public void setAltitude(double altitude) {
+        this.altitude = altitude;
+        hasAltitude = true;
+    }
+
+    public boolean hasAccuracy() {
+        return hasAccuracy;
+    }
+
+    public float getAccuracy() {
+        return accuracy;
+    }
+
+    public void setAccuracy(float accuracy) {
+        this.accuracy = accuracy;
+        hasAccuracy = true;
+    }
+
+    public boolean hasVerticalAccuracy() {
+        return hasVerticalAccuracy;
+    }
+
+    public float getVerticalAccuracyMeters() {
+        return verticalAccuracy;
+    }
+
+    public void setVerticalAccuracyMeters(float verticalAccuracy) {
+        this.verticalAccuracy = verticalAccuracy;
+        hasVerticalAccuracy = true;
+    }
+
+    public boolean hasBearing() {
+        return hasBearing;
+    }
+
+    public float getBearing() {
+        return bearing;
+    }
+
+    public void setBearing(float bearing) {
+        this.bearing = bearing;
+        hasBearing = true;
+    }
+
+    public boolean hasBearingAccuracy() {
+        return hasBearingAccuracy;
+    }
+
+    public float getBearingAccuracyDegrees() {
+        return bearingAccuracy;
+    }
+
+    public void setBearingAccuracyDegrees(float bearingAccuracy) {
+        this.bearingAccuracy = bearingAccuracy;
+        hasBearingAccuracy = true;
+    }
+
+    public boolean hasSpeed() {
+        return hasSpeed;
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(float speed) {
+        this.speed = speed;
+        hasSpeed = true;
+    }
+
+    public boolean hasSpeedAccuracy() {
+        return hasSpeedAccuracy;
+    }
+
+    public float getSpeedAccuracyMetersPerSecond() {
+        return speedAccuracy;
+    }
+
+    public void setSpeedAccuracyMetersPerSecond(float speedAccuracy) {
+        this.speedAccuracy = speedAccuracy;
+        hasSpeedAccuracy = true;
+    }
+
+    public boolean isFromMockProvider() {
+        return isFromMockProvider;
+    }
+
+    /**
+     * Hidden in the framework, used by tests to create mock locations.
+     */
+    public void setIsFromMockProvider(boolean isFromMockProvider) {
+        this.isFromMockProvider = isFromMockProvider;
+    }
+
+    public Bundle getExtras() {
+        return extras;
+    }
+
+    public void setExtras(Bundle extras) {
+        this.extras = extras;
+    }
+
+    public float distanceTo(Location location) {
+        float[] results = new float[2];
+        distanceBetween(latitude, longitude, location.latitude, location.longitude, results);
+        return results[0];
+    }
+
+    public float bearingTo(Location location) {
+        float[] results = new float[2];
+        distanceBetween(latitude, longitude, location.latitude, location.longitude, results);
+        return results[1];
+    }
+
+    /**
+     * Computes the great circle distance and the initial bearing, which is close enough to the framework's
+     * ellipsoid for tests.
+     */
+    public static void distanceBetween(double startLatitude, double startLongitude, double endLatitude, double endLongitude, float[] results) {
+        double phi1 = Math.toRadians(startLatitude);
+        double phi2 = Math.toRadians(endLatitude);
+        double deltaPhi = phi2 - phi1;
+        double deltaLambda = Math.toRadians(endLongitude - startLongitude);
+
+        double a = Math.sin(deltaPhi / 2) * Math.sin(deltaPhi / 2)
+                + Math.cos(phi1) * Math.cos(phi2) * Math.sin(deltaLambda / 2) * Math.sin(deltaLambda / 2);
+        results[0] = (float) (2 * EARTH_RADIUS * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a)));
+        if (results.length > 1) {
+            double y = Math.sin(deltaLambda) * Math.cos(phi2);
+            double x = Math.cos(phi1) * Math.sin(phi2) - Math.sin(phi1) * Math.cos(phi2) * Math.cos(deltaLambda);
+            results[1] = (float) Math.toDegrees(Math.atan2(y, x));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Location[" + provider + " " + latitude + "," + longitude + " t=" + time + "]";
+    }
+}
@@ -0,0 +1,29 @@
+package android.location;
+
+import android.os.Looper;
+
+/**
+ * Stand-in for the framework LocationManager, with every provider enabled and nothing known. Tests override
+ * the methods they need to observe.
+ */
+public class LocationManager {
+    public static final String GPS_PROVIDER = "gps";
+    public static final String NETWORK_PROVIDER = "network";
+    public static final String PASSIVE_PROVIDER = "passive";
+
+    public boolean isProviderEnabled(String provider) {
+        return true;
+    }
+
+    public Location getLastKnownLocation(String provider) {
+        return null;
+    }
+
+    public void requestLocationUpdates(String provider, long minTime, float minDistance, LocationListener listener) {}
+
+    public void requestLocationUpdates(String provider, long minTime, float minDistance, LocationListener listener, Looper looper) {}
+
+    public void requestSingleUpdate(String provider, LocationListener listener, Looper looper) {}
+
+    public void removeUpdates(LocationListener listener) {}
+}
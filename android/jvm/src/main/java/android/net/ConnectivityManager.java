@@ -0,0 +1,25 @@
+package android.net;
+
+/**
+ * Stand-in for the framework ConnectivityManager, which reports a connected unmetered network unless a test
+ * changes it.
+ */
+public class ConnectivityManager {
+    public static final String CONNECTIVITY_ACTION = "android.net.conn.CONNECTIVITY_CHANGE";
+
+    private volatile NetworkInfo activeNetworkInfo = new NetworkInfo(true);
+    private volatile boolean isMetered = false;
+
+    public NetworkInfo getActiveNetworkInfo() {
+        return activeNetworkInfo;
+    }
+
+    public boolean isActiveNetworkMetered() {
+        return isMetered;
+    }
+
+    public void setActiveNetwork(NetworkInfo networkInfo, boolean isMetered) {
+        this.activeNetworkInfo = networkInfo;
+        this.isMetered = isMetered;
+    }
+}
@@ -0,0 +1,13 @@
+package android.net;
+
+public class NetworkInfo {
+    private final boolean isConnected;
+
+    public NetworkInfo(boolean isConnected) {
+        this.isConnected = isConnected;
+    }
+
+    public boolean isConnected() {
+        return isConnected;
+    }
+}
@@ -0,0 +1,66 @@
+package android.os;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class Bundle {
+    private final Map<String, Object> values = new HashMap<>();
+
+    public Bundle() {}
+
+    public Bundle(Bundle bundle) {
+        values.putAll(bundle.values);
+    }
+
+    public boolean containsKey(String key) {
+        return values.containsKey(key);
+    }
+
+    public Object get(String key) {
+        return values.get(key);
+    }
+
+    public Set<String> keySet() {
+        return values.keySet();
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    public void remove(String key) {
+        values.remove(key);
+    }
+
+    public boolean getBoolean(String key) {
+        return getBoolean(key, false);
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    public void putBoolean(String key, boolean value) {
+        values.put(key, value);
+    }
+
+    public int getInt(String key) {
+        Object value = values.get(key);
+        return value instanceof Integer ? (Integer) value : 0;
+    }
+
+    public void putInt(String key, int value) {
+        values.put(key, value);
+    }
+
+    public String getString(String key) {
+        Object value = values.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    public void putString(String key, String value) {
+        values.put(key, value);
+    }
+}
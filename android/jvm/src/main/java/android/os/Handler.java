@@ -0,0 +1,37 @@
+package android.os;
+
+public class Handler {
+    private final Looper looper;
+
+    public Handler() {
+        this(Looper.myLooper());
+    }
+
+    public Handler(Looper looper) {
+        if (looper == null) {
+            throw new RuntimeException("Can't create handler inside thread that has not called Looper.prepare()");
+        }
+        this.looper = looper;
+    }
+
+    public final Looper getLooper() {
+        return looper;
+    }
+
+    public final boolean post(Runnable runnable) {
+        return looper.enqueue(this, runnable, SystemClock.uptimeMillis());
+    }
+
+    public final boolean postDelayed(Runnable runnable, long delayMillis) {
+        return looper.enqueue(this, runnable, SystemClock.uptimeMillis() + Math.max(0, delayMillis));
+    }
+
+    public final void removeCallbacks(Runnable runnable) {
+        looper.remove(this, runnable);
+    }
+
+    public final void removeCallbacksAndMessages(Object token) {
+        // Only the runnables are modelled, and they are all posted without a token
+        looper.remove(this, null);
+    }
+}
@@ -0,0 +1,53 @@
+package android.os;
+
+public class HandlerThread extends Thread {
+    private Looper looper;
+
+    public HandlerThread(String name) {
+        super(name);
+    }
+
+    public HandlerThread(String name, int priority) {
+        super(name);
+    }
+
+    @Override
+    public void run() {
+        Looper.prepare();
+        synchronized (this) {
+            looper = Looper.myLooper();
+            notifyAll();
+        }
+        Looper.loop();
+    }
+
+    public Looper getLooper() {
+        if (!isAlive()) {
+            return null;
+        }
+        synchronized (this) {
+            while (isAlive() && looper == null) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+        return looper;
+    }
+
+    public boolean quit() {
+        Looper looper = getLooper();
+        if (looper == null) {
+            return false;
+        }
+        looper.quit();
+        return true;
+    }
+
+    public boolean quitSafely() {
+        return quit();
+    }
+}
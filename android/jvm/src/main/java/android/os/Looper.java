@@ -0,0 +1,146 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Stand-in for the framework Looper: a queue of delayed runnables served by the thread which called loop. The
+ * main looper runs on a daemon thread which is started when it is first used.
+ */
+public final class Looper {
+    private static final ThreadLocal<Looper> threadLooper = new ThreadLocal<>();
+    private static Looper mainLooper;
+
+    private final List<Message> queue = new ArrayList<>();
+    private Thread thread;
+    private boolean isQuitting = false;
+    private long sequence = 0;
+
+    private Looper() {}
+
+    public static void prepare() {
+        if (threadLooper.get() != null) {
+            throw new RuntimeException("Only one Looper may be created per thread");
+        }
+        Looper looper = new Looper();
+        looper.thread = Thread.currentThread();
+        threadLooper.set(looper);
+    }
+
+    public static Looper myLooper() {
+        return threadLooper.get();
+    }
+
+    public static synchronized Looper getMainLooper() {
+        if (mainLooper == null) {
+            HandlerThread thread = new HandlerThread("main");
+            thread.setDaemon(true);
+            thread.start();
+            mainLooper = thread.getLooper();
+        }
+        return mainLooper;
+    }
+
+    public static void loop() {
+        Looper looper = myLooper();
+        if (looper == null) {
+            throw new RuntimeException("No Looper; Looper.prepare() wasn't called on this thread.");
+        }
+        while (true) {
+            Runnable runnable = looper.next();
+            if (runnable == null) {
+                return;
+            }
+            runnable.run();
+        }
+    }
+
+    public Thread getThread() {
+        return thread;
+    }
+
+    public boolean isCurrentThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    public synchronized void quit() {
+        isQuitting = true;
+        queue.clear();
+        notifyAll();
+    }
+
+    // Handler
+
+    synchronized boolean enqueue(Object token, Runnable runnable, long when) {
+        if (isQuitting) {
+            return false;
+        }
+        Message message = new Message(token, runnable, when, sequence++);
+        int index = 0;
+        while (index < queue.size() && queue.get(index).compareTo(message) <= 0) {
+            index++;
+        }
+        queue.add(index, message);
+        notifyAll();
+        return true;
+    }
+
+    synchronized void remove(Object token, Runnable runnable) {
+        Iterator<Message> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            Message message = iterator.next();
+            if (message.token == token && (runnable == null || message.runnable == runnable)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    // Helpers
+
+    private synchronized Runnable next() {
+        while (!isQuitting) {
+            if (queue.isEmpty()) {
+                waitFor(0);
+                continue;
+            }
+            long delay = queue.get(0).when - SystemClock.uptimeMillis();
+            if (delay > 0) {
+                waitFor(delay);
+                continue;
+            }
+            return queue.remove(0).runnable;
+        }
+        return null;
+    }
+
+    private void waitFor(long millis) {
+        try {
+            wait(millis);
+        } catch (InterruptedException e) {
+            isQuitting = true;
+        }
+    }
+
+    private static class Message implements Comparable<Message> {
+        final Object token;
+        final Runnable runnable;
+        final long when;
+        final long sequence;
+
+        Message(Object token, Runnable runnable, long when, long sequence) {
+            this.token = token;
+            this.runnable = runnable;
+            this.when = when;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Message other) {
+            if (when != other.when) {
+                return when < other.when ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
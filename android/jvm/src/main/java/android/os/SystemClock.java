@@ -0,0 +1,20 @@
+package android.os;
+
+/**
+ * Stand-in for the framework SystemClock, counting from an arbitrary origin like the real one.
+ */
+public final class SystemClock {
+    private SystemClock() {}
+
+    public static long elapsedRealtime() {
+        return System.nanoTime() / 1000000;
+    }
+
+    public static long elapsedRealtimeNanos() {
+        return System.nanoTime();
+    }
+
+    public static long uptimeMillis() {
+        return System.nanoTime() / 1000000;
+    }
+}
@@ -0,0 +1,14 @@
+package com.facebook.react.bridge;
+
+/**
+ * Stand-in for the bridge Arguments, creating Java backed maps and arrays so no native library is needed.
+ */
+public class Arguments {
+    public static WritableMap createMap() {
+        return new JavaOnlyMap();
+    }
+
+    public static WritableArray createArray() {
+        return new JavaOnlyArray();
+    }
+}
@@ -0,0 +1,175 @@
+package com.facebook.react.bridge;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A map backed by Java objects, which the stand-in Arguments hands out in place of the native maps.
+ */
+public class JavaOnlyMap implements WritableMap {
+    private final Map<String, Object> backingMap = new LinkedHashMap<>();
+
+    public static JavaOnlyMap of(Object... keysAndValues) {
+        JavaOnlyMap map = new JavaOnlyMap();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            Object value = keysAndValues[i + 1];
+            // Numbers cross the bridge as doubles
+            if (value instanceof Number) {
+                value = ((Number) value).doubleValue();
+            }
+            map.backingMap.put((String) keysAndValues[i], value);
+        }
+        return map;
+    }
+
+    @Override
+    public boolean hasKey(String name) {
+        return backingMap.containsKey(name);
+    }
+
+    @Override
+    public boolean isNull(String name) {
+        return backingMap.get(name) == null;
+    }
+
+    @Override
+    public boolean getBoolean(String name) {
+        return (Boolean) backingMap.get(name);
+    }
+
+    @Override
+    public double getDouble(String name) {
+        return ((Number) backingMap.get(name)).doubleValue();
+    }
+
+    @Override
+    public int getInt(String name) {
+        return ((Number) backingMap.get(name)).intValue();
+    }
+
+    @Override
+    public String getString(String name) {
+        return (String) backingMap.get(name);
+    }
+
+    @Override
+    public ReadableArray getArray(String name) {
+        return (ReadableArray) backingMap.get(name);
+    }
+
+    @Override
+    public ReadableMap getMap(String name) {
+        return (ReadableMap) backingMap.get(name);
+    }
+
+    @Override
+    public ReadableType getType(String name) {
+        return JavaOnlyArray.typeOf(backingMap.get(name));
+    }
+
+    @Override
+    public ReadableMapKeySetIterator keySetIterator() {
+        final Iterator<String> iterator = backingMap.keySet().iterator();
+        return new ReadableMapKeySetIterator() {
+            @Override
+            public boolean hasNextKey() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public String nextKey() {
+                return iterator.next();
+            }
+        };
+    }
+
+    @Override
+    public HashMap<String, Object> toHashMap() {
+        HashMap<String, Object> result = new HashMap<>();
+        for (Map.Entry<String, Object> entry : backingMap.entrySet()) {
+            result.put(entry.getKey(), JavaOnlyArray.toJava(entry.getValue()));
+        }
+        return result;
+    }
+
+    @Override
+    public void putNull(String key) {
+        backingMap.put(key, null);
+    }
+
+    @Override
+    public void putBoolean(String key, boolean value) {
+        backingMap.put(key, value);
+    }
+
+    @Override
+    public void putDouble(String key, double value) {
+        backingMap.put(key, value);
+    }
+
+    @Override
+    public void putInt(String key, int value) {
+        backingMap.put(key, (double) value);
+    }
+
+    @Override
+    public void putString(String key, String value) {
+        backingMap.put(key, value);
+    }
+
+    @Override
+    public void putArray(String key, WritableArray value) {
+        backingMap.put(key, value);
+    }
+
+    @Override
+    public void putMap(String key, WritableMap value) {
+        backingMap.put(key, value);
+    }
+
+    @Override
+    public void merge(ReadableMap source) {
+        ReadableMapKeySetIterator iterator = source.keySetIterator();
+        while (iterator.hasNextKey()) {
+            String key = iterator.nextKey();
+            switch (source.getType(key)) {
+                case Null:
+                    putNull(key);
+                    break;
+                case Boolean:
+                    putBoolean(key, source.getBoolean(key));
+                    break;
+                case Number:
+                    putDouble(key, source.getDouble(key));
+                    break;
+                case String:
+                    putString(key, source.getString(key));
+                    break;
+                case Map:
+                case Array:
+                    // Nested values are shared rather than copied, like the native merge
+                    backingMap.put(key, source instanceof JavaOnlyMap
+                            ? ((JavaOnlyMap) source).backingMap.get(key)
+                            : source.getType(key) == ReadableType.Map ? source.getMap(key) : source.getArray(key));
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof JavaOnlyMap && backingMap.equals(((JavaOnlyMap) other).backingMap);
+    }
+
+    @Override
+    public int hashCode() {
+        return backingMap.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return backingMap.toString();
+    }
+}
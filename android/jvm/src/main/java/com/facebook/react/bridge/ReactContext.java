@@ -0,0 +1,51 @@
+package com.facebook.react.bridge;
+
+import android.content.Context;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stand-in for the bridge ReactContext. Calls to JS modules are not sent anywhere, but the events emitted
+ * through them are kept so tests can check what JS would have received.
+ */
+public class ReactContext extends Context {
+    private final List<String> eventNames = new ArrayList<>();
+    private final List<Object> eventData = new ArrayList<>();
+
+    public <T extends JavaScriptModule> T getJSModule(Class<T> moduleInterface) {
+        return moduleInterface.cast(Proxy.newProxyInstance(moduleInterface.getClassLoader(), new Class<?>[]{moduleInterface}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getDeclaringClass() == Object.class) {
+                    return method.getName().equals("equals") ? proxy == args[0] : method.getName().equals("hashCode") ? System.identityHashCode(proxy) : toString();
+                }
+                if (method.getName().equals("emit")) {
+                    onEmit((String) args[0], args[1]);
+                }
+                return null;
+            }
+        }));
+    }
+
+    /**
+     * Returns the data of every event emitted with this name, oldest first.
+     */
+    public synchronized List<Object> getEmittedEvents(String eventName) {
+        List<Object> result = new ArrayList<>();
+        for (int i = 0; i < eventNames.size(); i++) {
+            if (eventNames.get(i).equals(eventName)) {
+                result.add(eventData.get(i));
+            }
+        }
+        return result;
+    }
+
+    protected synchronized void onEmit(String eventName, Object data) {
+        eventNames.add(eventName);
+        eventData.add(data);
+    }
+}
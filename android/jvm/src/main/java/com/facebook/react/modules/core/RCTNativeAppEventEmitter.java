@@ -0,0 +1,9 @@
+package com.facebook.react.modules.core;
+
+import com.facebook.react.bridge.JavaScriptModule;
+
+import javax.annotation.Nullable;
+
+public interface RCTNativeAppEventEmitter extends JavaScriptModule {
+    void emit(String eventName, @Nullable Object data);
+}
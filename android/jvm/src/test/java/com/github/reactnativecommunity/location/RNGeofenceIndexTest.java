@@ -0,0 +1,79 @@
+package com.github.reactnativecommunity.location;
+
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RNGeofenceIndexTest {
+    private final RNGeofenceIndex index = new RNGeofenceIndex();
+
+    @Test
+    public void findsCirclesOnBothSidesOfTheAntimeridian() {
+        index.add(circle("fiji", -16.5, 179.99, 5000));
+
+        assertFound(-16.5, 179.995, "fiji");
+        assertFound(-16.5, -179.99, "fiji");
+        assertFound(-16.5, 180, "fiji");
+        assertFound(-16.5, -179.9);
+    }
+
+    @Test
+    public void findsPolygonsAcrossTheAntimeridian() {
+        index.add(polygon("dateline", -1, 179.99, 1, 179.99, 1, -179.99, -1, -179.99));
+
+        assertFound(0, 179.995, "dateline");
+        assertFound(0, -179.995, "dateline");
+        assertFound(0, 0);
+        assertFound(0, 179.98);
+    }
+
+    @Test
+    public void removesGeofencesFromTheWrappedCells() {
+        index.add(circle("fiji", -16.5, 179.99, 5000));
+        index.remove("fiji");
+
+        assertFound(-16.5, 179.995);
+        assertFound(-16.5, -179.99);
+    }
+
+    @Test
+    public void rejectsPolygonsAroundAPole() {
+        try {
+            polygon("pole", 80, 0, 80, 120, 80, -120, 80, 0, 80, 120, 80, -120);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("pole"));
+        }
+    }
+
+    // Helpers
+
+    private static RNGeofence circle(String id, double latitude, double longitude, double radius) {
+        return RNGeofence.fromReactMap(JavaOnlyMap.of("id", id, "latitude", latitude, "longitude", longitude, "radius", radius));
+    }
+
+    private static RNGeofence polygon(String id, double... coordinates) {
+        JavaOnlyArray points = new JavaOnlyArray();
+        for (int i = 0; i < coordinates.length; i += 2) {
+            points.pushMap(JavaOnlyMap.of("latitude", coordinates[i], "longitude", coordinates[i + 1]));
+        }
+        return RNGeofence.fromReactMap(JavaOnlyMap.of("id", id, "polygon", points));
+    }
+
+    private void assertFound(double latitude, double longitude, String... ids) {
+        List<RNGeofence> results = new ArrayList<>();
+        index.findContaining(latitude, longitude, results);
+        assertEquals(ids.length, results.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], results.get(i).id);
+        }
+    }
+}
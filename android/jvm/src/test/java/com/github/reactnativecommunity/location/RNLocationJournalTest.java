@@ -0,0 +1,194 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+import android.location.LocationManager;
+
+import com.facebook.react.bridge.ReadableArray;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RNLocationJournalTest {
+    private File file;
+    private RNLocationJournal journal;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("journal", ".bin");
+        journal = new RNLocationJournal(file);
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+        file.delete();
+    }
+
+    @Test
+    public void queriesAnInclusiveTimeRange() throws IOException {
+        for (int i = 1; i <= 5; i++) {
+            journal.append(location(i * 1000));
+        }
+
+        assertTimes(journal.query(2000, 4000, 0), 2000, 3000, 4000);
+        assertTimes(journal.query(2000, 4000, 2), 2000, 3000);
+        assertTimes(journal.query(Long.MIN_VALUE, 1500, 0), 1000);
+        assertTimes(journal.query(6000, Long.MAX_VALUE, 0));
+        assertEquals(51.5, journal.query(1000, 1000, 0).getMap(0).getDouble("latitude"), 0);
+    }
+
+    @Test
+    public void truncationRemovesUpToTheGivenTime() throws IOException {
+        for (int i = 1; i <= 5; i++) {
+            journal.append(location(i * 1000));
+        }
+
+        assertEquals(2, journal.truncate(2000));
+        assertEquals(3, journal.size());
+        assertTimes(journal.query(Long.MIN_VALUE, Long.MAX_VALUE, 0), 3000, 4000, 5000);
+        assertEquals(0, journal.truncate(2500));
+    }
+
+    @Test
+    public void growsPastTheFirstChunk() throws IOException {
+        for (int i = 1; i <= 5000; i++) {
+            journal.append(location(i * 1000));
+        }
+
+        assertEquals(5000, journal.size());
+        assertTimes(journal.query(4999000, Long.MAX_VALUE, 0), 4999000, 5000000);
+    }
+
+    @Test
+    public void keepsLocationsWhenReopened() throws IOException {
+        for (int i = 1; i <= 3; i++) {
+            journal.append(location(i * 1000));
+        }
+        journal.close();
+
+        journal = new RNLocationJournal(file);
+        assertEquals(3, journal.size());
+        assertTimes(journal.query(Long.MIN_VALUE, Long.MAX_VALUE, 0), 1000, 2000, 3000);
+    }
+
+    @Test
+    public void startsAgainFromAnUnreadableFile() throws IOException {
+        FileOutputStream output = new FileOutputStream(file);
+        output.write(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+        output.close();
+
+        assertEquals(0, journal.size());
+        journal.append(location(1000));
+        assertTimes(journal.query(Long.MIN_VALUE, Long.MAX_VALUE, 0), 1000);
+    }
+
+    @Test
+    public void truncationAdvancesTheSequence() throws IOException {
+        for (int i = 1; i <= 5; i++) {
+            journal.append(location(i * 1000));
+        }
+        assertEquals(0, journal.getFirstSequence());
+        assertEquals(5, journal.getEndSequence());
+
+        assertEquals(2, journal.truncate(2000));
+        assertEquals(2, journal.getFirstSequence());
+        assertEquals(5, journal.getEndSequence());
+        assertEquals(3000, journal.readLocationsFrom(2, 1).get(0).getTime());
+        assertEquals(5000, journal.readLocationsFrom(4, 0).get(0).getTime());
+
+        // Truncated sequences start from the oldest location left
+        List<Location> locations = journal.readLocationsFrom(0, 0);
+        assertEquals(3, locations.size());
+        assertEquals(3000, locations.get(0).getTime());
+        assertEquals(0, journal.readLocationsFrom(5, 0).size());
+    }
+
+    @Test
+    public void keepsTheSequenceWhenReopened() throws IOException {
+        for (int i = 1; i <= 3; i++) {
+            journal.append(location(i * 1000));
+        }
+        journal.truncate(1000);
+        journal.close();
+
+        journal = new RNLocationJournal(file);
+        assertEquals(1, journal.getFirstSequence());
+        assertEquals(3, journal.getEndSequence());
+        assertEquals(2, journal.sequenceAfter(2000));
+    }
+
+    @Test
+    public void readsJournalsWrittenBeforeSequences() throws IOException {
+        journal.append(location(1000));
+        journal.append(location(2000));
+        journal.close();
+
+        // Older versions left the header padding as zero
+        RandomAccessFile raw = new RandomAccessFile(file, "rw");
+        raw.seek(12);
+        assertEquals(0, raw.readInt());
+        raw.close();
+
+        journal = new RNLocationJournal(file);
+        assertEquals(0, journal.getFirstSequence());
+        assertEquals(2, journal.getEndSequence());
+    }
+
+    @Test
+    public void dropsLocationsAppendedOutOfOrder() throws IOException {
+        assertTrue(journal.append(location(1000)));
+        assertTrue(journal.append(location(3000)));
+        assertFalse(journal.append(location(2000)));
+        assertTrue(journal.append(location(3000)));
+        assertTrue(journal.append(location(4000)));
+
+        assertEquals(4, journal.size());
+        assertEquals(4, journal.getEndSequence());
+        assertTimes(journal.query(2000, 3000, 0), 3000, 3000);
+        assertEquals(1, journal.sequenceAfter(2000));
+        assertEquals(1, journal.truncate(2999));
+        assertTimes(journal.query(Long.MIN_VALUE, Long.MAX_VALUE, 0), 3000, 3000, 4000);
+    }
+
+    @Test
+    public void keepsTheMockFlagOnTheLocation() throws IOException {
+        Location mock = location(1000);
+        mock.setIsFromMockProvider(true);
+        journal.append(mock);
+        journal.append(location(2000));
+
+        List<Location> locations = journal.readLocations(Long.MIN_VALUE, Long.MAX_VALUE, 0);
+        assertTrue(locations.get(0).isFromMockProvider());
+        assertNull(locations.get(0).getExtras());
+        assertFalse(locations.get(1).isFromMockProvider());
+    }
+
+    // Helpers
+
+    private static void assertTimes(ReadableArray locations, long... times) {
+        assertEquals(times.length, locations.size());
+        for (int i = 0; i < times.length; i++) {
+            assertEquals(times[i], (long) locations.getMap(i).getDouble("timestamp"));
+        }
+    }
+
+    private static Location location(long time) {
+        Location location = new Location(LocationManager.GPS_PROVIDER);
+        location.setTime(time);
+        location.setLatitude(51.5);
+        location.setLongitude(-0.1278);
+        return location;
+    }
+}
@@ -0,0 +1,299 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+import android.location.LocationManager;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableMap;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RNLocationUploaderTest {
+    private static final long TIMEOUT = 5000;
+
+    private HttpServer server;
+    private final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Integer> statuses = new LinkedBlockingQueue<>();
+
+    private final ReactApplicationContext context = new ReactApplicationContext();
+    private File journalFile;
+    private RNLocationJournal journal;
+    private RNLocationUploader uploader;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/locations", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.add(new Request(exchange));
+                Integer status = statuses.poll();
+                exchange.sendResponseHeaders(status != null ? status : 200, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+
+        journalFile = File.createTempFile("journal", ".bin");
+        journal = new RNLocationJournal(journalFile);
+    }
+
+    @After
+    public void tearDown() {
+        if (uploader != null) {
+            uploader.destroy();
+        }
+        server.stop(0);
+        journal.close();
+        journalFile.delete();
+    }
+
+    @Test
+    public void uploadsGzippedBatches() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            journal.append(location(1000 + i * 1000, 51.5 + i * 0.0001));
+        }
+
+        start(3);
+
+        Request first = nextRequest();
+        assertEquals("gzip", first.contentEncoding);
+        assertEquals("3", first.count);
+        assertEquals("secret", first.authorization);
+        assertTimes(first.locations, 1000, 2000, 3000);
+        assertEquals(51.5, first.locations.get(0).getLatitude(), 1e-6);
+        assertEquals(51.5002, first.locations.get(2).getLatitude(), 1e-6);
+
+        assertTimes(nextRequest().locations, 4000, 5000);
+        assertNoRequest();
+    }
+
+    @Test
+    public void retriesWithBackoff() throws Exception {
+        journal.append(location(1000, 51.5));
+        statuses.add(503);
+        statuses.add(503);
+        statuses.add(500);
+
+        start(10);
+
+        List<Request> attempts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            attempts.add(nextRequest());
+        }
+        assertNoRequest();
+
+        // The delay doubles up to the maximum, and the jitter takes off at most half of it
+        long[] maxDelays = {100, 200, 400};
+        for (int i = 0; i < maxDelays.length; i++) {
+            long gap = attempts.get(i + 1).receivedAt - attempts.get(i).receivedAt;
+            assertTrue("retry " + i + " came after " + gap + "ms", gap >= maxDelays[i] / 2 - 10);
+        }
+        for (Request attempt : attempts) {
+            assertTimes(attempt.locations, 1000);
+        }
+
+        List<ReadableMap> failures = events("failed");
+        assertEquals(3, failures.size());
+        assertEquals(503, failures.get(0).getInt("status"));
+        assertEquals(500, failures.get(2).getInt("status"));
+        assertTrue(failures.get(2).getDouble("retryIn") <= 400);
+        awaitEvents("acknowledged", 1);
+    }
+
+    @Test
+    public void uploadsLocationsSharingTheLastAcknowledgedTimestamp() throws Exception {
+        journal.append(location(1000, 51.5));
+        journal.append(location(2000, 51.5001));
+        journal.append(location(2000, 51.5002));
+
+        start(2);
+
+        assertTimes(nextRequest().locations, 1000, 2000);
+        Request second = nextRequest();
+        assertTimes(second.locations, 2000);
+        assertEquals(51.5002, second.locations.get(0).getLatitude(), 1e-6);
+    }
+
+    @Test
+    public void resumesAfterRestartAndTruncation() throws Exception {
+        journal.append(location(1000, 51.5));
+        journal.append(location(2000, 51.5001));
+
+        start(10);
+        assertTimes(nextRequest().locations, 1000, 2000);
+        awaitEvents("acknowledged", 1);
+        uploader.destroy();
+
+        journal.truncate(1000);
+        journal.append(location(3000, 51.5002));
+
+        start(10);
+        assertTimes(nextRequest().locations, 3000);
+        assertNoRequest();
+    }
+
+    @Test
+    public void migratesTheTimestampCursor() throws Exception {
+        context.getSharedPreferences("RNLocationUploader", 0).edit().putLong("uploadedUntil", 2000).apply();
+        journal.append(location(1000, 51.5));
+        journal.append(location(2000, 51.5001));
+        journal.append(location(3000, 51.5002));
+
+        start(10);
+        assertTimes(nextRequest().locations, 3000);
+        awaitEvents("acknowledged", 1);
+        assertEquals(3, context.getSharedPreferences("RNLocationUploader", 0).getLong("uploadedSequence", -1));
+    }
+
+    @Test
+    public void startsTheUploadThreadOnlyOnceConfigured() throws Exception {
+        // Wait for the threads of uploaders destroyed by earlier tests to finish
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (isUploadThreadRunning()) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+
+        uploader = new RNLocationUploader(context, journal);
+        uploader.configure(JavaOnlyMap.of("upload", null), true);
+        uploader.flush();
+        assertFalse(isUploadThreadRunning());
+
+        journal.append(location(1000, 51.5));
+        uploader.configure(uploadOptions(10), true);
+        assertTimes(nextRequest().locations, 1000);
+        assertTrue(isUploadThreadRunning());
+    }
+
+    @Test
+    public void warnsWhenUploadingWithoutTheJournal() {
+        uploader = new RNLocationUploader(context, journal);
+        uploader.configure(uploadOptions(10), false);
+
+        List<Object> warnings = context.getEmittedEvents("onWarning");
+        assertEquals(1, warnings.size());
+        assertTrue(((ReadableMap) warnings.get(0)).getString("message").contains("journal"));
+    }
+
+    // Helpers
+
+    private static boolean isUploadThreadRunning() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("RNLocationUploader")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void start(int batchSize) {
+        uploader = new RNLocationUploader(context, journal);
+        uploader.configure(uploadOptions(batchSize), true);
+    }
+
+    private ReadableMap uploadOptions(int batchSize) {
+        return JavaOnlyMap.of("upload", JavaOnlyMap.of(
+                "url", "http://127.0.0.1:" + server.getAddress().getPort() + "/locations",
+                "headers", JavaOnlyMap.of("Authorization", "secret"),
+                "batchSize", batchSize,
+                "interval", 0,
+                "retryDelay", 100,
+                "maxRetryDelay", 400));
+    }
+
+    private static Location location(long time, double latitude) {
+        Location location = new Location(LocationManager.GPS_PROVIDER);
+        location.setTime(time);
+        location.setLatitude(latitude);
+        location.setLongitude(-0.1278);
+        location.setAccuracy(5);
+        return location;
+    }
+
+    private Request nextRequest() throws InterruptedException {
+        Request request = requests.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+        assertNotNull("No upload was made", request);
+        return request;
+    }
+
+    private void assertNoRequest() throws InterruptedException {
+        assertNull(requests.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    private static void assertTimes(List<Location> locations, long... times) {
+        assertEquals(times.length, locations.size());
+        for (int i = 0; i < times.length; i++) {
+            assertEquals(times[i], locations.get(i).getTime());
+        }
+    }
+
+    private List<ReadableMap> events(String type) {
+        List<ReadableMap> results = new ArrayList<>();
+        for (Object event : context.getEmittedEvents("uploadUpdated")) {
+            ReadableMap map = (ReadableMap) event;
+            if (map.getString("type").equals(type)) {
+                results.add(map);
+            }
+        }
+        return results;
+    }
+
+    private void awaitEvents(String type, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (events(type).size() < count) {
+            assertTrue("No " + type + " event was emitted", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static class Request {
+        final long receivedAt = System.currentTimeMillis();
+        final String contentEncoding;
+        final String count;
+        final String authorization;
+        final List<Location> locations;
+
+        Request(HttpExchange exchange) throws IOException {
+            contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            count = exchange.getRequestHeaders().getFirst("X-Location-Count");
+            authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            locations = RNLocationCodec.decode(gunzip(exchange.getRequestBody()));
+        }
+
+        private static byte[] gunzip(InputStream body) throws IOException {
+            InputStream input = new GZIPInputStream(body);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] chunk = new byte[1024];
+            int read;
+            while ((read = input.read(chunk)) != -1) {
+                output.write(chunk, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.reactnativecommunity.location;
+
+import android.content.Context;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Looper;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RNStandardLocationProviderTest {
+    private static final ReadableMap HIGH_ACCURACY = JavaOnlyMap.of("android", "highAccuracy");
+
+    private final FakeLocationManager locationManager = new FakeLocationManager();
+    private final ReactApplicationContext context = new ReactApplicationContext() {
+        @Override
+        public Object getSystemService(String name) {
+            return Context.LOCATION_SERVICE.equals(name) ? locationManager : null;
+        }
+    };
+
+    private File journalFile;
+    private RNLocationJournal journal;
+    private RNLocationDispatcher dispatcher;
+    private RNStandardLocationProvider provider;
+
+    @Before
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("journal", ".bin");
+        journal = new RNLocationJournal(journalFile);
+        dispatcher = new RNLocationDispatcher(context, journal);
+        provider = new RNStandardLocationProvider(context, dispatcher);
+    }
+
+    @After
+    public void tearDown() {
+        provider.stopUpdatingLocation();
+        dispatcher.destroy();
+        journal.close();
+        journalFile.delete();
+    }
+
+    @Test
+    public void partialConfigureKeepsTheActiveRequest() {
+        configure(JavaOnlyMap.of("desiredAccuracy", HIGH_ACCURACY, "interval", 5000, "distanceFilter", 10));
+        provider.startUpdatingLocation();
+        assertRequest(LocationManager.GPS_PROVIDER, 5000, 10);
+
+        configure(JavaOnlyMap.of("journal", true));
+        assertEquals(1, locationManager.requests);
+        assertRequest(LocationManager.GPS_PROVIDER, 5000, 10);
+    }
+
+    @Test
+    public void configureOnlyChangesTheGivenOptions() {
+        configure(JavaOnlyMap.of("desiredAccuracy", HIGH_ACCURACY, "interval", 5000, "distanceFilter", 10));
+        provider.startUpdatingLocation();
+
+        configure(JavaOnlyMap.of("interval", 2000));
+        assertEquals(2, locationManager.requests);
+        assertRequest(LocationManager.GPS_PROVIDER, 2000, 10);
+
+        configure(JavaOnlyMap.of("desiredAccuracy", JavaOnlyMap.of("android", "balancedPowerAccuracy")));
+        assertRequest(LocationManager.NETWORK_PROVIDER, 2000, 10);
+    }
+
+    @Test
+    public void startsWithTheDefaultsBeforeAnyConfigure() {
+        provider.startUpdatingLocation();
+
+        assertRequest(LocationManager.NETWORK_PROVIDER, RNStandardLocationProvider.DEFAULT_INTERVAL, 100);
+    }
+
+    // Helpers
+
+    private void configure(ReadableMap options) {
+        RecordingPromise promise = new RecordingPromise();
+        provider.configure(null, options, promise);
+        assertTrue(promise.isResolved);
+    }
+
+    private void assertRequest(String providerName, long minTime, float minDistance) {
+        assertEquals(providerName, locationManager.provider);
+        assertEquals(minTime, locationManager.minTime);
+        assertEquals(minDistance, locationManager.minDistance, 0);
+    }
+
+    private static class FakeLocationManager extends LocationManager {
+        int requests;
+        String provider;
+        long minTime;
+        float minDistance;
+
+        @Override
+        public void requestLocationUpdates(String provider, long minTime, float minDistance, LocationListener listener, Looper looper) {
+            requests++;
+            this.provider = provider;
+            this.minTime = minTime;
+            this.minDistance = minDistance;
+        }
+    }
+
+    private static class RecordingPromise implements Promise {
+        boolean isResolved;
+
+        @Override
+        public void resolve(Object value) {
+            isResolved = true;
+        }
+
+        @Override
+        public void reject(String code, String message) {}
+
+        @Override
+        public void reject(String code, Throwable throwable) {}
+
+        @Override
+        public void reject(String code, String message, Throwable throwable) {}
+
+        @Override
+        public void reject(Throwable throwable) {}
+    }
+}
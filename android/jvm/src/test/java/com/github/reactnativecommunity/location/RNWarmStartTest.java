@@ -0,0 +1,228 @@
+package com.github.reactnativecommunity.location;
+
+import android.app.Activity;
+import android.content.Context;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Looper;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RNWarmStartTest {
+    private static final long TIMEOUT = 5000;
+    private static final long DEFAULT_INTERVAL = 1000;
+    private static final ReadableMap HIGH_ACCURACY = JavaOnlyMap.of("android", "highAccuracy");
+
+    private final FakeLocationManager locationManager = new FakeLocationManager();
+    private final ReactApplicationContext context = new ReactApplicationContext() {
+        @Override
+        public Object getSystemService(String name) {
+            return Context.LOCATION_SERVICE.equals(name) ? locationManager : null;
+        }
+    };
+    private final FakeProvider provider = new FakeProvider();
+
+    private File journalFile;
+    private RNLocationJournal journal;
+    private RNLocationDispatcher dispatcher;
+    private RNWarmStart warmStart;
+
+    @Before
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("journal", ".bin");
+        journal = new RNLocationJournal(journalFile);
+        dispatcher = new RNLocationDispatcher(context, journal);
+        dispatcher.configure(JavaOnlyMap.of("batchSize", 1, "batchWindow", 0));
+        warmStart = new RNWarmStart(context, dispatcher);
+        dispatcher.addObserver(warmStart);
+
+        warmStart.configure(JavaOnlyMap.of("warmStart", true));
+        dispatcher.setTaggingTiers(warmStart.isEnabled());
+    }
+
+    @After
+    public void tearDown() {
+        warmStart.stop();
+        dispatcher.destroy();
+        journal.close();
+        journalFile.delete();
+    }
+
+    @Test
+    public void coarseRequestUsesTheConfiguredIntervalAndDistanceFilter() {
+        warmStart.start(provider, JavaOnlyMap.of("desiredAccuracy", HIGH_ACCURACY, "interval", 5000, "distanceFilter", 10), DEFAULT_INTERVAL);
+
+        assertEquals(LocationManager.NETWORK_PROVIDER, locationManager.provider);
+        assertEquals(5000, locationManager.minTime);
+        assertEquals(10, locationManager.minDistance, 0);
+        assertEquals(dispatcher.getLooper(), locationManager.looper);
+    }
+
+    @Test
+    public void coarseRequestFallsBackToTheProviderDefaults() {
+        warmStart.start(provider, JavaOnlyMap.of("desiredAccuracy", HIGH_ACCURACY), DEFAULT_INTERVAL);
+
+        assertEquals(DEFAULT_INTERVAL, locationManager.minTime);
+        assertEquals(0, locationManager.minDistance, 0);
+    }
+
+    @Test
+    public void noCoarseRequestWithoutHighAccuracy() {
+        warmStart.start(provider, JavaOnlyMap.of("desiredAccuracy", JavaOnlyMap.of("android", "balancedPowerAccuracy")), DEFAULT_INTERVAL);
+
+        assertNull(locationManager.listener);
+    }
+
+    @Test
+    public void tagsEachLocationWithItsTier() throws InterruptedException {
+        provider.lastKnownLocation = location(System.currentTimeMillis() - 1000);
+        warmStart.start(provider, JavaOnlyMap.of("desiredAccuracy", HIGH_ACCURACY), DEFAULT_INTERVAL);
+        awaitLocations(1);
+
+        locationManager.listener.onLocationChanged(location(System.currentTimeMillis()));
+        dispatcher.dispatch(location(System.currentTimeMillis() + 1));
+
+        List<ReadableMap> locations = awaitLocations(3);
+        assertEquals("lastKnown", locations.get(0).getString("tier"));
+        assertEquals("coarse", locations.get(1).getString("tier"));
+        assertEquals("precise", locations.get(2).getString("tier"));
+    }
+
+    @Test
+    public void skipsStaleLastKnownLocations() throws InterruptedException {
+        provider.lastKnownLocation = location(System.currentTimeMillis() - 10 * 60 * 1000);
+        warmStart.start(provider, JavaOnlyMap.of(), DEFAULT_INTERVAL);
+
+        dispatcher.dispatch(location(System.currentTimeMillis()));
+        List<ReadableMap> locations = awaitLocations(1);
+        assertEquals("precise", locations.get(0).getString("tier"));
+        Thread.sleep(100);
+        assertEquals(1, locations().size());
+    }
+
+    @Test
+    public void stopsTheCoarseRequestOnTheFirstPreciseFix() throws InterruptedException {
+        warmStart.start(provider, JavaOnlyMap.of("desiredAccuracy", HIGH_ACCURACY), DEFAULT_INTERVAL);
+        LocationListener coarseListener = locationManager.listener;
+        assertNotNull(coarseListener);
+
+        // Coarse fixes alone keep the request going
+        coarseListener.onLocationChanged(location(System.currentTimeMillis()));
+        assertFalse(locationManager.removed.contains(coarseListener));
+
+        dispatcher.dispatch(location(System.currentTimeMillis() + 1));
+        assertTrue(locationManager.removed.contains(coarseListener));
+
+        // A coarse fix which was already on its way is dropped
+        coarseListener.onLocationChanged(location(System.currentTimeMillis() + 2));
+        List<ReadableMap> locations = awaitLocations(2);
+        Thread.sleep(100);
+        assertEquals(2, locations().size());
+        assertEquals("precise", locations.get(1).getString("tier"));
+    }
+
+    @Test
+    public void stopRemovesTheCoarseRequest() {
+        warmStart.start(provider, JavaOnlyMap.of("desiredAccuracy", HIGH_ACCURACY), DEFAULT_INTERVAL);
+        warmStart.stop();
+
+        assertTrue(locationManager.removed.contains(locationManager.listener));
+    }
+
+    // Helpers
+
+    private static Location location(long time) {
+        Location location = new Location(LocationManager.NETWORK_PROVIDER);
+        location.setTime(time);
+        location.setLatitude(51.5);
+        location.setLongitude(-0.1278);
+        location.setAccuracy(50);
+        return location;
+    }
+
+    private List<ReadableMap> locations() {
+        List<ReadableMap> results = new ArrayList<>();
+        for (Object event : context.getEmittedEvents("locationUpdated")) {
+            ReadableArray batch = (ReadableArray) event;
+            for (int i = 0; i < batch.size(); i++) {
+                results.add(batch.getMap(i));
+            }
+        }
+        return results;
+    }
+
+    private List<ReadableMap> awaitLocations(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        List<ReadableMap> locations = locations();
+        while (locations.size() < count) {
+            assertTrue("Only " + locations.size() + " locations were sent", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+            locations = locations();
+        }
+        return locations;
+    }
+
+    private static class FakeLocationManager extends LocationManager {
+        String provider;
+        long minTime;
+        float minDistance;
+        LocationListener listener;
+        Looper looper;
+        final List<LocationListener> removed = new ArrayList<>();
+
+        @Override
+        public void requestLocationUpdates(String provider, long minTime, float minDistance, LocationListener listener, Looper looper) {
+            this.provider = provider;
+            this.minTime = minTime;
+            this.minDistance = minDistance;
+            this.listener = listener;
+            this.looper = looper;
+        }
+
+        @Override
+        public void removeUpdates(LocationListener listener) {
+            removed.add(listener);
+        }
+    }
+
+    private static class FakeProvider implements RNLocationProvider {
+        Location lastKnownLocation;
+
+        @Override
+        public void configure(Activity activity, ReadableMap options, Promise promise) {}
+
+        @Override
+        public void startUpdatingLocation() {}
+
+        @Override
+        public void stopUpdatingLocation() {}
+
+        @Override
+        public void getLastKnownLocation(SingleLocationListener listener) {
+            listener.onLocation(lastKnownLocation);
+        }
+
+        @Override
+        public void requestSingleLocation(long timeout, SingleLocationListener listener) {}
+    }
+}
@@ -0,0 +1,252 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableMap;
+
+/**
+ * Retunes the location request from the measured speed of the device. While it is still the interval is
+ * stretched and the priority dropped to low power, and while it is moving fast the interval is shortened
+ * and the priority raised to high accuracy. Otherwise the request is left as configured.
+ *
+ * The speed is smoothed and the modes use separate enter and exit thresholds, and changes to the request
+ * are rate limited, so a noisy fix does not cause the provider to re-register.
+ */
+public class RNAdaptiveSampler implements RNLocationDispatcher.Observer {
+    public interface Listener {
+        /**
+         * Called on the main thread when the request should be updated with getAdjustedOptions().
+         */
+        void onSamplingChanged();
+    }
+
+    private static final int MODE_STILL = 0;
+    private static final int MODE_MOVING = 1;
+    private static final int MODE_FAST = 2;
+
+    // Speeds in meters per second. Exit thresholds sit inside the enter thresholds to avoid flapping.
+    private static final float STILL_ENTER_SPEED = 0.5f;
+    private static final float STILL_EXIT_SPEED = 1.0f;
+    private static final float FAST_ENTER_SPEED = 10f;
+    private static final float FAST_EXIT_SPEED = 7f;
+    private static final float SPEED_SMOOTHING = 0.5f;
+
+    private static final long STILL_MIN_INTERVAL = 60000;
+    private static final long FAST_MIN_INTERVAL = 1000;
+    // Ramping up is allowed sooner than ramping down, as missing the start of a trip is worse
+    private static final long MIN_RAMP_UP_INTERVAL = 10000;
+    private static final long MIN_RAMP_DOWN_INTERVAL = 60000;
+
+    private final ReactApplicationContext context;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private boolean isEnabled = false;
+    private int mode = MODE_MOVING;
+    private long lastTransitionTime = 0;
+
+    // The request as it was configured, which the adjustments are relative to
+    private long requestedInterval = -1;
+    private long requestedFastestInterval = -1;
+    private double requestedDistanceFilter = -1;
+    private String requestedPriority = "balancedPowerAccuracy";
+
+    // Speed estimate
+    private boolean hasSpeed = false;
+    private float smoothedSpeed = 0;
+    private Location previousLocation = null;
+
+    public RNAdaptiveSampler(ReactApplicationContext context, Listener listener) {
+        this.context = context;
+        this.listener = listener;
+    }
+
+    // Public interface
+
+    public synchronized void configure(ReadableMap options) {
+        if (options.hasKey("adaptiveSampling")) {
+            if (options.getType("adaptiveSampling") == ReadableType.Boolean) {
+                isEnabled = options.getBoolean("adaptiveSampling");
+                if (!isEnabled) {
+                    reset();
+                }
+            } else {
+                Utils.emitWarning(context, "adaptiveSampling must be a boolean", "401");
+            }
+        }
+    }
+
+    /**
+     * Records the request the provider is about to be given, and returns the options it should actually be
+     * configured with for the current mode.
+     */
+    public synchronized ReadableMap adjust(ReadableMap options) {
+        if (options.hasKey("interval") && options.getType("interval") == ReadableType.Number) {
+            requestedInterval = (long) options.getDouble("interval");
+        }
+        if (options.hasKey("fastestInterval") && options.getType("fastestInterval") == ReadableType.Number) {
+            requestedFastestInterval = (long) options.getDouble("fastestInterval");
+        }
+        if (options.hasKey("distanceFilter") && options.getType("distanceFilter") == ReadableType.Number) {
+            requestedDistanceFilter = options.getDouble("distanceFilter");
+        }
+        if (options.hasKey("desiredAccuracy") && options.getType("desiredAccuracy") == ReadableType.Map) {
+            ReadableMap desiredAccuracy = options.getMap("desiredAccuracy");
+            if (desiredAccuracy.hasKey("android") && desiredAccuracy.getType("android") == ReadableType.String) {
+                requestedPriority = desiredAccuracy.getString("android");
+            }
+        }
+
+        if (mode == MODE_MOVING) {
+            return options;
+        }
+
+        WritableMap adjusted = getAdjustedOptions();
+        if (options.hasKey("maxWaitTime") && options.getType("maxWaitTime") == ReadableType.Number) {
+            adjusted.putDouble("maxWaitTime", options.getDouble("maxWaitTime"));
+        }
+        return adjusted;
+    }
+
+    /**
+     * The interval, distance filter and priority options for the current mode, in the same format as the
+     * options passed to configure(). The distance filter is passed through unchanged.
+     */
+    public synchronized WritableMap getAdjustedOptions() {
+        long interval = requestedInterval;
+        long fastestInterval = requestedFastestInterval;
+        String priority = requestedPriority;
+        if (mode == MODE_STILL) {
+            if (interval > 0) {
+                interval = Math.max(interval * 4, STILL_MIN_INTERVAL);
+                fastestInterval = interval / 2;
+            }
+            if (priority.equals("highAccuracy") || priority.equals("balancedPowerAccuracy")) {
+                priority = "lowPower";
+            }
+        } else if (mode == MODE_FAST) {
+            if (interval > 0) {
+                interval = Math.max(interval / 2, FAST_MIN_INTERVAL);
+                fastestInterval = fastestInterval > 0 ? Math.min(fastestInterval, interval) : -1;
+            }
+            priority = "highAccuracy";
+        }
+
+        WritableMap options = Arguments.createMap();
+        if (interval > 0) {
+            options.putDouble("interval", interval);
+            // Play Services defaults the fastest interval to a sixth of the interval when it is not set
+            options.putDouble("fastestInterval", fastestInterval > 0 ? fastestInterval : interval / 6);
+        }
+        if (requestedDistanceFilter >= 0) {
+            options.putDouble("distanceFilter", requestedDistanceFilter);
+        }
+        WritableMap desiredAccuracy = Arguments.createMap();
+        desiredAccuracy.putString("android", priority);
+        options.putMap("desiredAccuracy", desiredAccuracy);
+        return options;
+    }
+
+    // Observer
+
+    @Override
+    public synchronized void onLocationDispatched(Location location) {
+        if (!isEnabled) {
+            return;
+        }
+
+        updateSpeed(location);
+        int nextMode = getNextMode();
+        if (nextMode == mode) {
+            return;
+        }
+
+        // Rate limit the changes to the request
+        long now = SystemClock.elapsedRealtime();
+        long minInterval = nextMode > mode ? MIN_RAMP_UP_INTERVAL : MIN_RAMP_DOWN_INTERVAL;
+        if (lastTransitionTime > 0 && now - lastTransitionTime < minInterval) {
+            return;
+        }
+
+        mode = nextMode;
+        lastTransitionTime = now;
+        postSamplingChanged();
+    }
+
+    @Override
+    public void onFlush() {}
+
+    // Helpers
+
+    private void updateSpeed(Location location) {
+        float speed;
+        if (location.hasSpeed()) {
+            speed = location.getSpeed();
+        } else if (previousLocation != null && location.getTime() > previousLocation.getTime()) {
+            double distance = Utils.distanceBetween(
+                    previousLocation.getLatitude(), previousLocation.getLongitude(),
+                    location.getLatitude(), location.getLongitude()
+            );
+            // Movement within the accuracy of the fixes is just noise
+            float noise = Math.max(previousLocation.getAccuracy(), location.getAccuracy());
+            speed = distance <= noise ? 0 : (float) (distance * 1000 / (location.getTime() - previousLocation.getTime()));
+        } else {
+            previousLocation = location;
+            return;
+        }
+        previousLocation = location;
+
+        smoothedSpeed = hasSpeed ? SPEED_SMOOTHING * speed + (1 - SPEED_SMOOTHING) * smoothedSpeed : speed;
+        hasSpeed = true;
+    }
+
+    private int getNextMode() {
+        if (!hasSpeed) {
+            return mode;
+        }
+        switch (mode) {
+            case MODE_STILL:
+                if (smoothedSpeed >= FAST_ENTER_SPEED) {
+                    return MODE_FAST;
+                }
+                return smoothedSpeed > STILL_EXIT_SPEED ? MODE_MOVING : MODE_STILL;
+            case MODE_FAST:
+                if (smoothedSpeed < STILL_ENTER_SPEED) {
+                    return MODE_STILL;
+                }
+                return smoothedSpeed < FAST_EXIT_SPEED ? MODE_MOVING : MODE_FAST;
+            default:
+                if (smoothedSpeed < STILL_ENTER_SPEED) {
+                    return MODE_STILL;
+                }
+                return smoothedSpeed >= FAST_ENTER_SPEED ? MODE_FAST : MODE_MOVING;
+        }
+    }
+
+    private void reset() {
+        hasSpeed = false;
+        smoothedSpeed = 0;
+        previousLocation = null;
+        lastTransitionTime = 0;
+        if (mode != MODE_MOVING) {
+            mode = MODE_MOVING;
+            postSamplingChanged();
+        }
+    }
+
+    private void postSamplingChanged() {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onSamplingChanged();
+            }
+        });
+    }
+}
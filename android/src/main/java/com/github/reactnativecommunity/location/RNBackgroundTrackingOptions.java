@@ -0,0 +1,142 @@
+package com.github.reactnativecommunity.location;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+
+/**
+ * The settings for background tracking. They are kept in shared preferences so that the service and the
+ * updates receiver can read them after the process has been restarted without a React context.
+ */
+public class RNBackgroundTrackingOptions {
+    private static final String PREFERENCES_NAME = "RNLocationBackgroundTracking";
+    private static final String[] PRIORITIES = { "noPower", "lowPower", "balancedPowerAccuracy", "highAccuracy" };
+
+    public static final long DEFAULT_INTERVAL = 60000;
+    public static final float DEFAULT_DISTANCE_FILTER = 0;
+    public static final String DEFAULT_DESIRED_ACCURACY = "balancedPowerAccuracy";
+    public static final int DEFAULT_HEADLESS_TASK_BATCH_SIZE = 10;
+
+    public boolean isEnabled = false;
+    public long interval = DEFAULT_INTERVAL;
+    public float distanceFilter = DEFAULT_DISTANCE_FILTER;
+    public String desiredAccuracy = DEFAULT_DESIRED_ACCURACY;
+    public String notificationTitle = null;
+    public String notificationText = null;
+    public String notificationIcon = null;
+    public boolean isHeadlessTaskEnabled = false;
+    public int headlessTaskBatchSize = DEFAULT_HEADLESS_TASK_BATCH_SIZE;
+
+    // Public interface
+
+    /**
+     * Parses the options from JS, throwing an IllegalArgumentException if they are not valid.
+     */
+    public static RNBackgroundTrackingOptions fromReactMap(ReadableMap map) {
+        RNBackgroundTrackingOptions options = new RNBackgroundTrackingOptions();
+        options.isEnabled = true;
+        if (map.hasKey("interval")) {
+            options.interval = (long) getNumber(map, "interval");
+        }
+        if (map.hasKey("distanceFilter")) {
+            options.distanceFilter = (float) getNumber(map, "distanceFilter");
+        }
+        if (map.hasKey("desiredAccuracy")) {
+            if (map.getType("desiredAccuracy") != ReadableType.Map) {
+                throw new IllegalArgumentException("desiredAccuracy must be an object");
+            }
+            ReadableMap desiredAccuracy = map.getMap("desiredAccuracy");
+            if (desiredAccuracy.hasKey("android")) {
+                options.desiredAccuracy = getString(desiredAccuracy, "android");
+                if (!isKnownPriority(options.desiredAccuracy)) {
+                    throw new IllegalArgumentException("desiredAccuracy.android was passed an unknown value: " + options.desiredAccuracy);
+                }
+            }
+        }
+        if (map.hasKey("notification")) {
+            if (map.getType("notification") != ReadableType.Map) {
+                throw new IllegalArgumentException("notification must be an object");
+            }
+            ReadableMap notification = map.getMap("notification");
+            if (notification.hasKey("title")) {
+                options.notificationTitle = getString(notification, "title");
+            }
+            if (notification.hasKey("text")) {
+                options.notificationText = getString(notification, "text");
+            }
+            if (notification.hasKey("icon")) {
+                options.notificationIcon = getString(notification, "icon");
+            }
+        }
+        if (map.hasKey("headlessTask")) {
+            if (map.getType("headlessTask") != ReadableType.Boolean) {
+                throw new IllegalArgumentException("headlessTask must be a boolean");
+            }
+            options.isHeadlessTaskEnabled = map.getBoolean("headlessTask");
+        }
+        if (map.hasKey("headlessTaskBatchSize")) {
+            options.headlessTaskBatchSize = Math.max(1, (int) getNumber(map, "headlessTaskBatchSize"));
+        }
+        return options;
+    }
+
+    public static RNBackgroundTrackingOptions load(Context context) {
+        SharedPreferences preferences = getPreferences(context);
+        RNBackgroundTrackingOptions options = new RNBackgroundTrackingOptions();
+        options.isEnabled = preferences.getBoolean("isEnabled", false);
+        options.interval = preferences.getLong("interval", DEFAULT_INTERVAL);
+        options.distanceFilter = preferences.getFloat("distanceFilter", DEFAULT_DISTANCE_FILTER);
+        options.desiredAccuracy = preferences.getString("desiredAccuracy", DEFAULT_DESIRED_ACCURACY);
+        options.notificationTitle = preferences.getString("notificationTitle", null);
+        options.notificationText = preferences.getString("notificationText", null);
+        options.notificationIcon = preferences.getString("notificationIcon", null);
+        options.isHeadlessTaskEnabled = preferences.getBoolean("isHeadlessTaskEnabled", false);
+        options.headlessTaskBatchSize = preferences.getInt("headlessTaskBatchSize", DEFAULT_HEADLESS_TASK_BATCH_SIZE);
+        return options;
+    }
+
+    public void save(Context context) {
+        getPreferences(context).edit()
+                .putBoolean("isEnabled", isEnabled)
+                .putLong("interval", interval)
+                .putFloat("distanceFilter", distanceFilter)
+                .putString("desiredAccuracy", desiredAccuracy)
+                .putString("notificationTitle", notificationTitle)
+                .putString("notificationText", notificationText)
+                .putString("notificationIcon", notificationIcon)
+                .putBoolean("isHeadlessTaskEnabled", isHeadlessTaskEnabled)
+                .putInt("headlessTaskBatchSize", headlessTaskBatchSize)
+                .apply();
+    }
+
+    public static SharedPreferences getPreferences(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+
+    // Helpers
+
+    private static double getNumber(ReadableMap map, String key) {
+        if (map.getType(key) != ReadableType.Number) {
+            throw new IllegalArgumentException(key + " must be a number");
+        }
+        return map.getDouble(key);
+    }
+
+    private static String getString(ReadableMap map, String key) {
+        if (map.getType(key) != ReadableType.String) {
+            throw new IllegalArgumentException(key + " must be a string");
+        }
+        return map.getString(key);
+    }
+
+    private static boolean isKnownPriority(String priority) {
+        for (String knownPriority : PRIORITIES) {
+            if (knownPriority.equals(priority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
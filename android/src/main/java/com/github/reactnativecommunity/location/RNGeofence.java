@@ -0,0 +1,212 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableMap;
+
+/**
+ * A circular or polygonal region which is monitored for enter, exit and dwell transitions.
+ *
+ * A geofence which crosses the antimeridian keeps its longitudes continuous, so its bounding box may reach
+ * past -180 or 180 degrees. Points are shifted by a full turn onto the side of the box before they are tested.
+ */
+public class RNGeofence {
+    public static final String TRANSITION_ENTER = "enter";
+    public static final String TRANSITION_EXIT = "exit";
+    public static final String TRANSITION_DWELL = "dwell";
+
+    private static final double METERS_PER_DEGREE = 111320;
+
+    public final String id;
+    public final long dwellTime;
+
+    // Circle, only valid when the polygon is null
+    public final double latitude;
+    public final double longitude;
+    public final float radius;
+
+    // Polygon vertices
+    private final double[] polygonLatitudes;
+    private final double[] polygonLongitudes;
+
+    // Bounding box, with longitudes continuous across the antimeridian
+    public final double minLatitude;
+    public final double maxLatitude;
+    public final double minLongitude;
+    public final double maxLongitude;
+
+    private RNGeofence(String id, long dwellTime, double latitude, double longitude, float radius) {
+        this.id = id;
+        this.dwellTime = dwellTime;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radius = radius;
+        this.polygonLatitudes = null;
+        this.polygonLongitudes = null;
+
+        double latitudeDelta = radius / METERS_PER_DEGREE;
+        double longitudeDelta = radius / (METERS_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+        this.minLatitude = latitude - latitudeDelta;
+        this.maxLatitude = latitude + latitudeDelta;
+        if (longitudeDelta >= 180) {
+            // Close enough to a pole to cover every longitude
+            this.minLongitude = -180;
+            this.maxLongitude = 180;
+        } else {
+            this.minLongitude = longitude - longitudeDelta;
+            this.maxLongitude = longitude + longitudeDelta;
+        }
+    }
+
+    private RNGeofence(String id, long dwellTime, double[] polygonLatitudes, double[] polygonLongitudes) {
+        this.id = id;
+        this.dwellTime = dwellTime;
+        this.latitude = 0;
+        this.longitude = 0;
+        this.radius = 0;
+        this.polygonLatitudes = polygonLatitudes;
+        this.polygonLongitudes = polygonLongitudes;
+
+        // Each edge takes the shorter way around, so one which crosses the antimeridian is unwrapped to keep the
+        // longitudes continuous
+        for (int i = 1; i < polygonLongitudes.length; i++) {
+            polygonLongitudes[i] = wrapNear(polygonLongitudes[i], polygonLongitudes[i - 1]);
+        }
+
+        double minLatitude = Double.MAX_VALUE;
+        double maxLatitude = -Double.MAX_VALUE;
+        double minLongitude = Double.MAX_VALUE;
+        double maxLongitude = -Double.MAX_VALUE;
+        for (int i = 0; i < polygonLatitudes.length; i++) {
+            minLatitude = Math.min(minLatitude, polygonLatitudes[i]);
+            maxLatitude = Math.max(maxLatitude, polygonLatitudes[i]);
+            minLongitude = Math.min(minLongitude, polygonLongitudes[i]);
+            maxLongitude = Math.max(maxLongitude, polygonLongitudes[i]);
+        }
+        this.minLatitude = minLatitude;
+        this.maxLatitude = maxLatitude;
+        this.minLongitude = minLongitude;
+        this.maxLongitude = maxLongitude;
+    }
+
+    // Public interface
+
+    public boolean isCircle() {
+        return polygonLatitudes == null;
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        if (longitude < minLongitude) {
+            longitude += 360;
+        } else if (longitude > maxLongitude) {
+            longitude -= 360;
+        }
+        if (latitude < minLatitude || latitude > maxLatitude || longitude < minLongitude || longitude > maxLongitude) {
+            return false;
+        }
+
+        if (isCircle()) {
+            return Utils.distanceBetween(this.latitude, this.longitude, latitude, longitude) <= radius;
+        }
+
+        // Ray casting, treating latitude and longitude as planar coordinates
+        boolean inside = false;
+        int count = polygonLatitudes.length;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            double latI = polygonLatitudes[i];
+            double latJ = polygonLatitudes[j];
+            if ((latI > latitude) != (latJ > latitude)) {
+                double crossing = (polygonLongitudes[j] - polygonLongitudes[i]) * (latitude - latI) / (latJ - latI) + polygonLongitudes[i];
+                if (longitude < crossing) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Parses a geofence from JS, throwing an IllegalArgumentException if the map is not valid.
+     */
+    public static RNGeofence fromReactMap(ReadableMap map) {
+        if (!map.hasKey("id") || map.getType("id") != ReadableType.String) {
+            throw new IllegalArgumentException("Geofence id must be a string");
+        }
+        String id = map.getString("id");
+
+        long dwellTime = 0;
+        if (map.hasKey("dwellTime")) {
+            if (map.getType("dwellTime") != ReadableType.Number) {
+                throw new IllegalArgumentException("Geofence " + id + " dwellTime must be a number");
+            }
+            dwellTime = (long) map.getDouble("dwellTime");
+        }
+
+        // Polygon
+        if (map.hasKey("polygon")) {
+            if (map.getType("polygon") != ReadableType.Array) {
+                throw new IllegalArgumentException("Geofence " + id + " polygon must be an array");
+            }
+            ReadableArray polygon = map.getArray("polygon");
+            if (polygon.size() < 3) {
+                throw new IllegalArgumentException("Geofence " + id + " polygon must have at least 3 points");
+            }
+            double[] latitudes = new double[polygon.size()];
+            double[] longitudes = new double[polygon.size()];
+            for (int i = 0; i < polygon.size(); i++) {
+                ReadableMap point = polygon.getMap(i);
+                if (!isNumber(point, "latitude") || !isNumber(point, "longitude")) {
+                    throw new IllegalArgumentException("Geofence " + id + " polygon points must have a numeric latitude and longitude");
+                }
+                latitudes[i] = point.getDouble("latitude");
+                longitudes[i] = point.getDouble("longitude");
+            }
+            RNGeofence geofence = new RNGeofence(id, dwellTime, latitudes, longitudes);
+            if (geofence.maxLongitude - geofence.minLongitude >= 360) {
+                throw new IllegalArgumentException("Geofence " + id + " polygon must not go all the way around a pole");
+            }
+            return geofence;
+        }
+
+        // Circle
+        if (!isNumber(map, "latitude") || !isNumber(map, "longitude") || !isNumber(map, "radius")) {
+            throw new IllegalArgumentException("Geofence " + id + " must have either a polygon or a numeric latitude, longitude and radius");
+        }
+        return new RNGeofence(id, dwellTime, map.getDouble("latitude"), map.getDouble("longitude"), (float) map.getDouble("radius"));
+    }
+
+    public static WritableMap transitionToMap(String id, String transition, Location location) {
+        WritableMap map = Arguments.createMap();
+        map.putString("id", id);
+        map.putString("transition", transition);
+        if (location != null) {
+            map.putMap("location", Utils.locationToMap(location));
+        } else {
+            map.putNull("location");
+        }
+        return map;
+    }
+
+    // Helpers
+
+    private static boolean isNumber(ReadableMap map, String key) {
+        return map.hasKey(key) && map.getType(key) == ReadableType.Number;
+    }
+
+    /**
+     * Shifts a longitude by whole turns to within half a turn of the reference.
+     */
+    private static double wrapNear(double longitude, double reference) {
+        while (longitude - reference > 180) {
+            longitude -= 360;
+        }
+        while (longitude - reference < -180) {
+            longitude += 360;
+        }
+        return longitude;
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.reactnativecommunity.location;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spatial index of geofences on a fixed latitude/longitude grid. Each geofence is added to every cell its
+ * bounding box overlaps, so finding the candidates for a point is a single lookup rather than a scan of
+ * every geofence. Geofences which would cover too many cells are kept in a separate list which is always
+ * checked.
+ *
+ * Longitude cells wrap around, so a bounding box which reaches past the antimeridian covers the cells on the
+ * other side of it.
+ *
+ * This class is not thread safe, callers are expected to synchronize access to it.
+ */
+public class RNGeofenceIndex {
+    // Roughly 1.1km at the equator
+    private static final double CELL_SIZE_DEGREES = 0.01;
+    private static final int LONGITUDE_CELLS = 36000;
+    private static final int MAX_CELLS_PER_GEOFENCE = 1024;
+
+    private final Map<Long, List<RNGeofence>> cells = new HashMap<>();
+    private final List<RNGeofence> largeGeofences = new ArrayList<>();
+    private final Map<String, RNGeofence> geofences = new HashMap<>();
+
+    // Public interface
+
+    public int size() {
+        return geofences.size();
+    }
+
+    public RNGeofence get(String id) {
+        return geofences.get(id);
+    }
+
+    public Collection<RNGeofence> all() {
+        return Collections.unmodifiableCollection(geofences.values());
+    }
+
+    public void add(RNGeofence geofence) {
+        remove(geofence.id);
+        geofences.put(geofence.id, geofence);
+
+        int minLatitudeCell = cell(geofence.minLatitude);
+        int maxLatitudeCell = cell(geofence.maxLatitude);
+        int minLongitudeCell = cell(geofence.minLongitude);
+        int maxLongitudeCell = cell(geofence.maxLongitude);
+        long cellCount = (long) (maxLatitudeCell - minLatitudeCell + 1) * (maxLongitudeCell - minLongitudeCell + 1);
+        if (cellCount > MAX_CELLS_PER_GEOFENCE) {
+            largeGeofences.add(geofence);
+            return;
+        }
+
+        for (int latitudeCell = minLatitudeCell; latitudeCell <= maxLatitudeCell; latitudeCell++) {
+            for (int longitudeCell = minLongitudeCell; longitudeCell <= maxLongitudeCell; longitudeCell++) {
+                long key = key(latitudeCell, longitudeCell);
+                List<RNGeofence> cellGeofences = cells.get(key);
+                if (cellGeofences == null) {
+                    cellGeofences = new ArrayList<>();
+                    cells.put(key, cellGeofences);
+                }
+                cellGeofences.add(geofence);
+            }
+        }
+    }
+
+    public void remove(String id) {
+        RNGeofence geofence = geofences.remove(id);
+        if (geofence == null) {
+            return;
+        }
+        if (largeGeofences.remove(geofence)) {
+            return;
+        }
+
+        for (int latitudeCell = cell(geofence.minLatitude); latitudeCell <= cell(geofence.maxLatitude); latitudeCell++) {
+            for (int longitudeCell = cell(geofence.minLongitude); longitudeCell <= cell(geofence.maxLongitude); longitudeCell++) {
+                long key = key(latitudeCell, longitudeCell);
+                List<RNGeofence> cellGeofences = cells.get(key);
+                if (cellGeofences != null) {
+                    cellGeofences.remove(geofence);
+                    if (cellGeofences.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        cells.clear();
+        largeGeofences.clear();
+        geofences.clear();
+    }
+
+    /**
+     * Adds every geofence which contains the given point to the results list.
+     */
+    public void findContaining(double latitude, double longitude, List<RNGeofence> results) {
+        List<RNGeofence> cellGeofences = cells.get(key(cell(latitude), cell(longitude)));
+        if (cellGeofences != null) {
+            for (int i = 0; i < cellGeofences.size(); i++) {
+                RNGeofence geofence = cellGeofences.get(i);
+                if (geofence.contains(latitude, longitude)) {
+                    results.add(geofence);
+                }
+            }
+        }
+        for (int i = 0; i < largeGeofences.size(); i++) {
+            RNGeofence geofence = largeGeofences.get(i);
+            if (geofence.contains(latitude, longitude)) {
+                results.add(geofence);
+            }
+        }
+    }
+
+    // Helpers
+
+    private static int cell(double degrees) {
+        return (int) Math.floor(degrees / CELL_SIZE_DEGREES);
+    }
+
+    private static long key(int latitudeCell, int longitudeCell) {
+        // 180 and -180 are the same meridian, so wrap onto the cells from -180
+        int wrappedCell = ((longitudeCell + LONGITUDE_CELLS / 2) % LONGITUDE_CELLS + LONGITUDE_CELLS) % LONGITUDE_CELLS - LONGITUDE_CELLS / 2;
+        return ((long) latitudeCell << 32) | (wrappedCell & 0xffffffffL);
+    }
+}
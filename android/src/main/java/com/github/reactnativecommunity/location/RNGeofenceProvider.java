@@ -0,0 +1,11 @@
+package com.github.reactnativecommunity.location;
+
+import com.facebook.react.bridge.Promise;
+
+import java.util.List;
+
+public interface RNGeofenceProvider {
+    void addGeofences(final List<RNGeofence> geofences, final Promise promise);
+    void removeGeofences(final List<String> ids, final Promise promise);
+    void removeAllGeofences(final Promise promise);
+}
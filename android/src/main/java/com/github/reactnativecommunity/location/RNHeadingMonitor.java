@@ -0,0 +1,163 @@
+package com.github.reactnativecommunity.location;
+
+import android.content.Context;
+import android.hardware.GeomagneticField;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.location.Location;
+import android.os.Handler;
+import android.os.SystemClock;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * Heading updates from the rotation vector sensor, which fuses the magnetometer, accelerometer and gyroscope
+ * in hardware where it can. Sensor events arrive far more often than a heading is useful, so a heading is only
+ * sent to JS once it has changed by at least the heading filter, and at most once every MIN_INTERVAL.
+ *
+ * The heading is corrected from magnetic to true north with the declination at the last dispatched location,
+ * when there is one, to match the true heading reported on iOS.
+ */
+public class RNHeadingMonitor {
+    private static final long MIN_INTERVAL = 100;
+    // Sensor noise is around a degree, so smaller changes are not worth sending even without a filter
+    private static final float MIN_HEADING_FILTER = 1;
+
+    private final ReactApplicationContext context;
+    private final RNLocationDispatcher dispatcher;
+    private final Handler handler;
+    private final float[] rotationMatrix = new float[9];
+    private final float[] orientation = new float[3];
+
+    private float headingFilter = 0;
+    private boolean isUpdating = false;
+    private float declination = 0;
+    // Read without the lock, so the last location can be fetched before taking it
+    private volatile boolean hasDeclination = false;
+    private float lastSentHeading = -1;
+    // Read by the predictor while it holds the dispatcher lock, so it must not need our lock
+    private volatile float latestHeading = -1;
+    private long lastSentTime = 0;
+
+    public RNHeadingMonitor(ReactApplicationContext context, RNLocationDispatcher dispatcher) {
+        this.context = context;
+        this.dispatcher = dispatcher;
+        this.handler = new Handler(dispatcher.getLooper());
+    }
+
+    // Public interface
+
+    public synchronized void configure(ReadableMap options) {
+        if (options.hasKey("headingFilter")) {
+            if (options.getType("headingFilter") == ReadableType.Number) {
+                headingFilter = (float) Math.max(0, options.getDouble("headingFilter"));
+            } else {
+                Utils.emitWarning(context, "headingFilter must be a number", "401");
+            }
+        }
+    }
+
+    public synchronized void start() {
+        if (isUpdating) {
+            return;
+        }
+        SensorManager sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        Sensor sensor = sensorManager != null ? sensorManager.getDefaultSensor(Sensor.TYPE_ROTATION_VECTOR) : null;
+        if (sensor == null) {
+            Utils.emitWarning(context, "This device has no rotation vector sensor, so heading updates are not available.", "503");
+            return;
+        }
+
+        sensorManager.registerListener(sensorListener, sensor, SensorManager.SENSOR_DELAY_UI, handler);
+        isUpdating = true;
+        lastSentHeading = -1;
+        lastSentTime = 0;
+        hasDeclination = false;
+    }
+
+    public synchronized void stop() {
+        if (!isUpdating) {
+            return;
+        }
+        SensorManager sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        if (sensorManager != null) {
+            sensorManager.unregisterListener(sensorListener);
+        }
+        isUpdating = false;
+        latestHeading = -1;
+    }
+
+    /**
+     * The most recent heading in degrees, before any filtering, or -1 when heading updates are not running.
+     */
+    public float getLatestHeading() {
+        return latestHeading;
+    }
+
+    // Helpers
+
+    private synchronized void processRotation(float[] rotationVector, @Nullable Location lastLocation) {
+        if (!isUpdating) {
+            return;
+        }
+        SensorManager.getRotationMatrixFromVector(rotationMatrix, rotationVector);
+        SensorManager.getOrientation(rotationMatrix, orientation);
+        float heading = (float) Math.toDegrees(orientation[0]) + getDeclination(lastLocation);
+        heading = (heading % 360 + 360) % 360;
+        latestHeading = heading;
+
+        long now = SystemClock.elapsedRealtime();
+        if (now - lastSentTime < MIN_INTERVAL) {
+            return;
+        }
+
+        if (lastSentHeading >= 0) {
+            float change = Math.abs(heading - lastSentHeading);
+            if (Math.min(change, 360 - change) < Math.max(headingFilter, MIN_HEADING_FILTER)) {
+                return;
+            }
+        }
+        lastSentHeading = heading;
+        lastSentTime = now;
+
+        WritableMap event = Arguments.createMap();
+        event.putDouble("heading", heading);
+        Utils.emitEvent(context, "headingUpdated", event);
+    }
+
+    private float getDeclination(@Nullable Location location) {
+        if (!hasDeclination) {
+            if (location != null) {
+                declination = new GeomagneticField(
+                        (float) location.getLatitude(),
+                        (float) location.getLongitude(),
+                        (float) location.getAltitude(),
+                        location.getTime()
+                ).getDeclination();
+                hasDeclination = true;
+            }
+        }
+        return declination;
+    }
+
+    private final SensorEventListener sensorListener = new SensorEventListener() {
+        @Override
+        public void onSensorChanged(SensorEvent event) {
+            // The dispatcher calls its observers under its own lock, and the predictor reads the heading from one,
+            // so the last location is fetched before taking our lock to keep the locks in the same order
+            Location lastLocation = hasDeclination ? null : dispatcher.getLastLocation();
+            processRotation(event.values, lastLocation);
+        }
+
+        @Override
+        public void onAccuracyChanged(Sensor sensor, int accuracy) {}
+    };
+}
@@ -0,0 +1,220 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+import android.os.Build;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+/**
+ * Fixed capacity ring buffer of locations stored in preallocated primitive arrays. Adding a location
+ * copies its fields into the arrays without allocating, and the bridge objects are only created when
+ * the buffer is drained. Once full, the oldest location is overwritten.
+ *
+ * Each location keeps the RNLocationFields mask it was added with, and only those fields are read from it
+ * and put in its map, so changing the mask does not affect the locations which are already buffered.
+ *
+ * This class is not thread safe, callers are expected to synchronize access to it.
+ */
+public class RNLocationBuffer {
+    // Offsets into the double array
+    private static final int LATITUDE = 0;
+    private static final int LONGITUDE = 1;
+    private static final int ALTITUDE = 2;
+    private static final int DOUBLE_FIELDS = 3;
+
+    // Offsets into the float array
+    private static final int ACCURACY = 0;
+    private static final int ALTITUDE_ACCURACY = 1;
+    private static final int COURSE = 2;
+    private static final int COURSE_ACCURACY = 3;
+    private static final int SPEED = 4;
+    private static final int SPEED_ACCURACY = 5;
+    private static final int FLOAT_FIELDS = 6;
+
+    private final int capacity;
+    private final double[] doubles;
+    private final float[] floats;
+    private final long[] timestamps;
+    private final boolean[] fromMockProvider;
+    private final int[] fields;
+    private final byte[] tiers;
+    // System.nanoTime() when each location was added, used to measure how long it waited to be sent
+    private final long[] arrivalTimes;
+
+    // The index of the oldest location and the number of locations held
+    private int start = 0;
+    private int size = 0;
+
+    public RNLocationBuffer(int capacity) {
+        this.capacity = capacity;
+        this.doubles = new double[capacity * DOUBLE_FIELDS];
+        this.floats = new float[capacity * FLOAT_FIELDS];
+        this.timestamps = new long[capacity];
+        this.fromMockProvider = new boolean[capacity];
+        this.fields = new int[capacity];
+        this.tiers = new byte[capacity];
+        this.arrivalTimes = new long[capacity];
+    }
+
+    // Public interface
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    public void add(Location location) {
+        add(location, RNLocationFields.ALL);
+    }
+
+    public void add(Location location, int fields) {
+        add(location, fields, RNLocationDispatcher.TIER_NONE);
+    }
+
+    /**
+     * Adds a location along with its RNLocationDispatcher tier, which is only put in its map if it is not TIER_NONE.
+     */
+    public void add(Location location, int fields, int tier) {
+        int slot = (start + size) % capacity;
+        if (size == capacity) {
+            // Overwrite the oldest location
+            start = (start + 1) % capacity;
+        } else {
+            size++;
+        }
+
+        int d = slot * DOUBLE_FIELDS;
+        if ((fields & RNLocationFields.LATITUDE) != 0) {
+            doubles[d + LATITUDE] = location.getLatitude();
+        }
+        if ((fields & RNLocationFields.LONGITUDE) != 0) {
+            doubles[d + LONGITUDE] = location.getLongitude();
+        }
+        if ((fields & RNLocationFields.ALTITUDE) != 0) {
+            doubles[d + ALTITUDE] = location.getAltitude();
+        }
+
+        int f = slot * FLOAT_FIELDS;
+        if ((fields & RNLocationFields.ACCURACY) != 0) {
+            floats[f + ACCURACY] = location.getAccuracy();
+        }
+        if ((fields & RNLocationFields.COURSE) != 0) {
+            floats[f + COURSE] = location.getBearing();
+        }
+        if ((fields & RNLocationFields.SPEED) != 0) {
+            floats[f + SPEED] = location.getSpeed();
+        }
+        boolean hasAccuracies = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O;
+        if ((fields & RNLocationFields.ALTITUDE_ACCURACY) != 0) {
+            floats[f + ALTITUDE_ACCURACY] = hasAccuracies ? location.getVerticalAccuracyMeters() : 0;
+        }
+        if ((fields & RNLocationFields.COURSE_ACCURACY) != 0) {
+            floats[f + COURSE_ACCURACY] = hasAccuracies ? location.getBearingAccuracyDegrees() : 0;
+        }
+        if ((fields & RNLocationFields.SPEED_ACCURACY) != 0) {
+            floats[f + SPEED_ACCURACY] = hasAccuracies ? location.getSpeedAccuracyMetersPerSecond() : 0;
+        }
+
+        timestamps[slot] = location.getTime();
+        fromMockProvider[slot] = (fields & RNLocationFields.FROM_MOCK_PROVIDER) != 0 && location.isFromMockProvider();
+        this.fields[slot] = fields;
+        tiers[slot] = (byte) tier;
+        arrivalTimes[slot] = System.nanoTime();
+    }
+
+    /**
+     * The System.nanoTime() at which the location at the given index, counting from the oldest, was added.
+     */
+    public long getArrivalTime(int index) {
+        return arrivalTimes[(start + index) % capacity];
+    }
+
+    /**
+     * Converts every buffered location, oldest first, into an array of maps and empties the buffer.
+     */
+    public WritableArray drain() {
+        WritableArray results = Arguments.createArray();
+        for (int i = 0; i < size; i++) {
+            results.pushMap(toMap((start + i) % capacity));
+        }
+        clear();
+        return results;
+    }
+
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    // Helpers
+
+    private WritableMap toMap(int slot) {
+        WritableMap map = Arguments.createMap();
+        int d = slot * DOUBLE_FIELDS;
+        int f = slot * FLOAT_FIELDS;
+
+        int mask = fields[slot];
+        if ((mask & RNLocationFields.LATITUDE) != 0) {
+            map.putDouble("latitude", doubles[d + LATITUDE]);
+        }
+        if ((mask & RNLocationFields.LONGITUDE) != 0) {
+            map.putDouble("longitude", doubles[d + LONGITUDE]);
+        }
+        if ((mask & RNLocationFields.ACCURACY) != 0) {
+            map.putDouble("accuracy", floats[f + ACCURACY]);
+        }
+        if ((mask & RNLocationFields.ALTITUDE) != 0) {
+            map.putDouble("altitude", doubles[d + ALTITUDE]);
+        }
+        if ((mask & RNLocationFields.ALTITUDE_ACCURACY) != 0) {
+            map.putDouble("altitudeAccuracy", floats[f + ALTITUDE_ACCURACY]);
+        }
+        if ((mask & RNLocationFields.COURSE) != 0) {
+            map.putDouble("course", floats[f + COURSE]);
+        }
+        if ((mask & RNLocationFields.COURSE_ACCURACY) != 0) {
+            map.putDouble("courseAccuracy", floats[f + COURSE_ACCURACY]);
+        }
+        if ((mask & RNLocationFields.SPEED) != 0) {
+            map.putDouble("speed", floats[f + SPEED]);
+        }
+        if ((mask & RNLocationFields.SPEED_ACCURACY) != 0) {
+            map.putDouble("speedAccuracy", floats[f + SPEED_ACCURACY]);
+        }
+        if ((mask & RNLocationFields.TIMESTAMP) != 0) {
+            map.putDouble("timestamp", timestamps[slot]);
+        }
+        if ((mask & RNLocationFields.FROM_MOCK_PROVIDER) != 0) {
+            map.putBoolean("fromMockProvider", fromMockProvider[slot]);
+        }
+        if ((mask & RNLocationFields.TIER) != 0 && tiers[slot] != RNLocationDispatcher.TIER_NONE) {
+            map.putString("tier", tierName(tiers[slot]));
+        }
+
+        return map;
+    }
+
+    private static String tierName(int tier) {
+        switch (tier) {
+            case RNLocationDispatcher.TIER_LAST_KNOWN:
+                return "lastKnown";
+            case RNLocationDispatcher.TIER_COARSE:
+                return "coarse";
+            default:
+                return "precise";
+        }
+    }
+}
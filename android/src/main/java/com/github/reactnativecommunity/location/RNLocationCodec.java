@@ -0,0 +1,262 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+import android.os.Build;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Compact binary encoding of a sequence of locations. Fields are stored as fixed point integers, each one as
+ * the zigzag varint of its difference from the same field of the previous location. Along a track most of the
+ * differences fit in one or two bytes. The optional fields are only written when the location has them,
+ * which is recorded in a presence bitmask per location.
+ *
+ * The layout is the version and the count as varints, followed by each location as its bitmask, then the
+ * timestamp, latitude and longitude, then every optional field it has in the order of the bits below.
+ *
+ * The same encoding is implemented in src/lib/codec.ts, and the two must be kept in step.
+ */
+public class RNLocationCodec {
+    public static final int VERSION = 1;
+    private static final String PROVIDER_NAME = "compact";
+    // The setter for whether a location came from a mock provider is only public from API 31, as setMock
+    private static final @Nullable Method SET_MOCK_METHOD = findSetMockMethod();
+
+    // Presence bitmask
+    private static final int HAS_ACCURACY = 1;
+    private static final int HAS_ALTITUDE = 1 << 1;
+    private static final int HAS_ALTITUDE_ACCURACY = 1 << 2;
+    private static final int HAS_COURSE = 1 << 3;
+    private static final int HAS_COURSE_ACCURACY = 1 << 4;
+    private static final int HAS_SPEED = 1 << 5;
+    private static final int HAS_SPEED_ACCURACY = 1 << 6;
+    private static final int FROM_MOCK_PROVIDER = 1 << 7;
+
+    // Fixed point scales, giving around a centimeter for coordinates and distances
+    private static final double COORDINATE_SCALE = 1e7;
+    private static final double METERS_SCALE = 100;
+    private static final double DEGREES_SCALE = 10;
+
+    // Indexes of the previous values of the optional fields
+    private static final int ACCURACY = 0;
+    private static final int ALTITUDE = 1;
+    private static final int ALTITUDE_ACCURACY = 2;
+    private static final int COURSE = 3;
+    private static final int COURSE_ACCURACY = 4;
+    private static final int SPEED = 5;
+    private static final int SPEED_ACCURACY = 6;
+    private static final int OPTIONAL_FIELD_COUNT = 7;
+
+    private RNLocationCodec() {}
+
+    // Public interface
+
+    public static byte[] encode(List<Location> locations) {
+        // Most locations along a track take under 16 bytes
+        ByteArrayOutputStream output = new ByteArrayOutputStream(16 + locations.size() * 16);
+        writeVarint(output, VERSION);
+        writeVarint(output, locations.size());
+
+        long previousTime = 0;
+        long previousLatitude = 0;
+        long previousLongitude = 0;
+        long[] previous = new long[OPTIONAL_FIELD_COUNT];
+        long[] values = new long[OPTIONAL_FIELD_COUNT];
+        for (Location location : locations) {
+            int mask = 0;
+            if (location.hasAccuracy()) {
+                mask |= HAS_ACCURACY;
+                values[ACCURACY] = Math.round(location.getAccuracy() * METERS_SCALE);
+            }
+            if (location.hasAltitude()) {
+                mask |= HAS_ALTITUDE;
+                values[ALTITUDE] = Math.round(location.getAltitude() * METERS_SCALE);
+            }
+            if (location.hasBearing()) {
+                mask |= HAS_COURSE;
+                values[COURSE] = Math.round(location.getBearing() * DEGREES_SCALE);
+            }
+            if (location.hasSpeed()) {
+                mask |= HAS_SPEED;
+                values[SPEED] = Math.round(location.getSpeed() * METERS_SCALE);
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                if (location.hasVerticalAccuracy()) {
+                    mask |= HAS_ALTITUDE_ACCURACY;
+                    values[ALTITUDE_ACCURACY] = Math.round(location.getVerticalAccuracyMeters() * METERS_SCALE);
+                }
+                if (location.hasBearingAccuracy()) {
+                    mask |= HAS_COURSE_ACCURACY;
+                    values[COURSE_ACCURACY] = Math.round(location.getBearingAccuracyDegrees() * DEGREES_SCALE);
+                }
+                if (location.hasSpeedAccuracy()) {
+                    mask |= HAS_SPEED_ACCURACY;
+                    values[SPEED_ACCURACY] = Math.round(location.getSpeedAccuracyMetersPerSecond() * METERS_SCALE);
+                }
+            }
+            if (location.isFromMockProvider()) {
+                mask |= FROM_MOCK_PROVIDER;
+            }
+            writeVarint(output, mask);
+
+            long time = location.getTime();
+            long latitude = Math.round(location.getLatitude() * COORDINATE_SCALE);
+            long longitude = Math.round(location.getLongitude() * COORDINATE_SCALE);
+            writeVarint(output, zigzag(time - previousTime));
+            writeVarint(output, zigzag(latitude - previousLatitude));
+            writeVarint(output, zigzag(longitude - previousLongitude));
+            previousTime = time;
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+
+            for (int field = 0; field < OPTIONAL_FIELD_COUNT; field++) {
+                if ((mask & (1 << field)) != 0) {
+                    writeVarint(output, zigzag(values[field] - previous[field]));
+                    previous[field] = values[field];
+                }
+            }
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Decodes locations encoded with encode(), throwing an IllegalArgumentException if the data is not valid.
+     */
+    public static List<Location> decode(byte[] data) {
+        Reader reader = new Reader(data);
+        long version = reader.readVarint();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported compact location version: " + version);
+        }
+        long count = reader.readVarint();
+        // Every location takes at least four bytes, which guards the allocation against corrupt counts
+        if (count > data.length / 4) {
+            throw new IllegalArgumentException("The compact location data is truncated");
+        }
+
+        List<Location> locations = new ArrayList<>((int) count);
+        long time = 0;
+        long latitude = 0;
+        long longitude = 0;
+        long[] values = new long[OPTIONAL_FIELD_COUNT];
+        for (int i = 0; i < count; i++) {
+            int mask = (int) reader.readVarint();
+            time += unzigzag(reader.readVarint());
+            latitude += unzigzag(reader.readVarint());
+            longitude += unzigzag(reader.readVarint());
+            for (int field = 0; field < OPTIONAL_FIELD_COUNT; field++) {
+                if ((mask & (1 << field)) != 0) {
+                    values[field] += unzigzag(reader.readVarint());
+                }
+            }
+
+            Location location = new Location(PROVIDER_NAME);
+            location.setTime(time);
+            location.setLatitude(latitude / COORDINATE_SCALE);
+            location.setLongitude(longitude / COORDINATE_SCALE);
+            if ((mask & HAS_ACCURACY) != 0) {
+                location.setAccuracy((float) (values[ACCURACY] / METERS_SCALE));
+            }
+            if ((mask & HAS_ALTITUDE) != 0) {
+                location.setAltitude(values[ALTITUDE] / METERS_SCALE);
+            }
+            if ((mask & HAS_COURSE) != 0) {
+                location.setBearing((float) (values[COURSE] / DEGREES_SCALE));
+            }
+            if ((mask & HAS_SPEED) != 0) {
+                location.setSpeed((float) (values[SPEED] / METERS_SCALE));
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                if ((mask & HAS_ALTITUDE_ACCURACY) != 0) {
+                    location.setVerticalAccuracyMeters((float) (values[ALTITUDE_ACCURACY] / METERS_SCALE));
+                }
+                if ((mask & HAS_COURSE_ACCURACY) != 0) {
+                    location.setBearingAccuracyDegrees((float) (values[COURSE_ACCURACY] / DEGREES_SCALE));
+                }
+                if ((mask & HAS_SPEED_ACCURACY) != 0) {
+                    location.setSpeedAccuracyMetersPerSecond((float) (values[SPEED_ACCURACY] / METERS_SCALE));
+                }
+            }
+            if ((mask & FROM_MOCK_PROVIDER) != 0) {
+                setFromMockProvider(location);
+            }
+            locations.add(location);
+        }
+        return locations;
+    }
+
+    /**
+     * Marks a rebuilt location as coming from a mock provider, so that Location.isFromMockProvider() reports it
+     * like it did for the original. Where the setter cannot be found the flag is left unset.
+     */
+    public static void setFromMockProvider(Location location) {
+        if (SET_MOCK_METHOD == null) {
+            return;
+        }
+        try {
+            SET_MOCK_METHOD.invoke(location, true);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            // Leave the flag unset
+        }
+    }
+
+    // Helpers
+
+    @Nullable
+    private static Method findSetMockMethod() {
+        for (String name : new String[]{"setMock", "setIsFromMockProvider"}) {
+            try {
+                return Location.class.getMethod(name, boolean.class);
+            } catch (NoSuchMethodException e) {
+                // Try the older name
+            }
+        }
+        return null;
+    }
+
+    private static class Reader {
+        private final byte[] data;
+        private int position = 0;
+
+        private Reader(byte[] data) {
+            this.data = data;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= data.length) {
+                    throw new IllegalArgumentException("The compact location data is truncated");
+                }
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("The compact location data has a malformed varint");
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream output, long value) {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+}
@@ -0,0 +1,410 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sits between the location providers and the JS bridge. Locations are buffered here and sent to JS
+ * as a single "locationUpdated" event once either the batch size or the batch window is reached.
+ * When journaling is enabled, every location is also appended to the journal as it arrives.
+ *
+ * Locations are first passed through the filter, which can reject outliers and smooth the track, so the
+ * rejected locations are never seen by observers or sent to JS.
+ *
+ * When simplification is enabled, only the locations which are needed to keep the track within the
+ * tolerance are journaled and sent to JS. Observers still see every location.
+ *
+ * The dispatcher owns the pipeline stats, which the providers also record into.
+ *
+ * The dispatcher also owns the worker thread that location callbacks are delivered on, so that filtering,
+ * conversion and emitting to JS stay off the main thread. Providers should register their callbacks with
+ * getLooper(), and the thread is stopped by destroy().
+ */
+public class RNLocationDispatcher {
+    /**
+     * Notified of every location as it arrives, before it is batched, and whenever the batch is flushed.
+     */
+    public interface Observer {
+        void onLocationDispatched(Location location);
+        void onFlush();
+    }
+
+    // How a location was acquired, which is sent to JS while warm start is enabled
+    public static final int TIER_NONE = 0;
+    public static final int TIER_LAST_KNOWN = 1;
+    public static final int TIER_COARSE = 2;
+    public static final int TIER_PRECISE = 3;
+
+    private static final int DEFAULT_BATCH_SIZE = 1;
+    private static final long DEFAULT_BATCH_WINDOW = 0;
+    private static final int BUFFER_CAPACITY = 512;
+
+    private final ReactApplicationContext context;
+    private final RNLocationJournal journal;
+    private final HandlerThread thread;
+    private final Handler handler;
+    private final RNLocationBuffer pendingLocations = new RNLocationBuffer(BUFFER_CAPACITY);
+    private final List<Observer> observers = new ArrayList<>();
+    private final RNLocationFilter filter = new RNLocationFilter();
+    private final RNTrajectorySimplifier simplifier = new RNTrajectorySimplifier();
+    private final RNLocationStats stats;
+    private Location lastLocation = null;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private long batchWindow = DEFAULT_BATCH_WINDOW;
+    private boolean isJournalEnabled = false;
+    private boolean isEmittingLocationUpdates = true;
+    private boolean isFlushScheduled = false;
+    // Read by the observers which convert locations themselves, without taking the dispatcher lock
+    private volatile int fields = RNLocationFields.ALL;
+    private volatile boolean isTaggingTiers = false;
+    // The tier of the locations being buffered
+    private int currentTier = TIER_PRECISE;
+    // Counts every dispatched location, so batches keep their cadence when simplification drops some
+    private int dispatchedCount = 0;
+
+    public RNLocationDispatcher(ReactApplicationContext context, RNLocationJournal journal) {
+        this.context = context;
+        this.journal = journal;
+        this.stats = new RNLocationStats(context);
+        this.thread = new HandlerThread("RNLocationDispatcher");
+        this.thread.start();
+        this.handler = new Handler(thread.getLooper());
+    }
+
+    // Public interface
+
+    public synchronized void configure(ReadableMap options) {
+        // Batch size
+        if (options.hasKey("batchSize")) {
+            if (options.getType("batchSize") == ReadableType.Number) {
+                // The batch can never be larger than the buffer holding it
+                batchSize = Math.min(BUFFER_CAPACITY, Math.max(1, options.getInt("batchSize")));
+            } else {
+                Utils.emitWarning(context, "batchSize must be a number", "401");
+            }
+        }
+
+        // Batch window
+        if (options.hasKey("batchWindow")) {
+            if (options.getType("batchWindow") == ReadableType.Number) {
+                batchWindow = Math.max(0, (long) options.getDouble("batchWindow"));
+            } else {
+                Utils.emitWarning(context, "batchWindow must be a number", "401");
+            }
+        }
+
+        // Journal
+        if (options.hasKey("journal")) {
+            if (options.getType("journal") == ReadableType.Boolean) {
+                isJournalEnabled = options.getBoolean("journal");
+            } else {
+                Utils.emitWarning(context, "journal must be a boolean", "401");
+            }
+        }
+
+        // Fields
+        if (options.hasKey("fields")) {
+            if (options.getType("fields") == ReadableType.Null) {
+                fields = RNLocationFields.ALL;
+            } else if (options.getType("fields") == ReadableType.Array) {
+                try {
+                    fields = RNLocationFields.parse(options.getArray("fields"));
+                } catch (IllegalArgumentException e) {
+                    Utils.emitWarning(context, e.getMessage(), "401");
+                }
+            } else {
+                Utils.emitWarning(context, "fields must be an array", "401");
+            }
+        }
+
+        // Filtering
+        if (options.hasKey("smoothing")) {
+            if (options.getType("smoothing") == ReadableType.Boolean) {
+                filter.setSmoothingEnabled(options.getBoolean("smoothing"));
+            } else {
+                Utils.emitWarning(context, "smoothing must be a boolean", "401");
+            }
+        }
+        if (options.hasKey("maxAccuracy")) {
+            if (options.getType("maxAccuracy") == ReadableType.Number) {
+                filter.setMaxAccuracy((float) options.getDouble("maxAccuracy"));
+            } else {
+                Utils.emitWarning(context, "maxAccuracy must be a number", "401");
+            }
+        }
+        if (options.hasKey("maxSpeed")) {
+            if (options.getType("maxSpeed") == ReadableType.Number) {
+                filter.setMaxSpeed((float) options.getDouble("maxSpeed"));
+            } else {
+                Utils.emitWarning(context, "maxSpeed must be a number", "401");
+            }
+        }
+
+        // Simplification tolerance
+        if (options.hasKey("simplificationTolerance")) {
+            if (options.getType("simplificationTolerance") == ReadableType.Number) {
+                float tolerance = (float) options.getDouble("simplificationTolerance");
+                if (tolerance != simplifier.getTolerance()) {
+                    // The held location belongs to the old track
+                    keepHeldLocation();
+                    simplifier.setTolerance(tolerance);
+                }
+            } else {
+                Utils.emitWarning(context, "simplificationTolerance must be a number", "401");
+            }
+        }
+
+        // Stats
+        if (options.hasKey("statsInterval")) {
+            if (options.getType("statsInterval") == ReadableType.Number) {
+                stats.setReportInterval((long) options.getDouble("statsInterval"));
+            } else {
+                Utils.emitWarning(context, "statsInterval must be a number", "401");
+            }
+        }
+
+        // Apply the new thresholds to anything we are already holding on to
+        if (dispatchedCount >= batchSize) {
+            flush();
+        } else if (dispatchedCount > 0) {
+            scheduleFlush();
+        }
+    }
+
+    public synchronized boolean isJournalEnabled() {
+        return isJournalEnabled;
+    }
+
+    /**
+     * The most recent location which was dispatched, or null if there has not been one yet.
+     */
+    public synchronized Location getLastLocation() {
+        return lastLocation;
+    }
+
+    /**
+     * The RNLocationFields mask of the fields which are sent to JS for each location.
+     */
+    public int getFields() {
+        return fields;
+    }
+
+    /**
+     * Sets whether each location sent to JS is tagged with its tier.
+     */
+    public void setTaggingTiers(boolean isTaggingTiers) {
+        this.isTaggingTiers = isTaggingTiers;
+    }
+
+    /**
+     * The tier of the location which is being passed to the observers, for use from onLocationDispatched.
+     */
+    public synchronized int getCurrentTier() {
+        return currentTier;
+    }
+
+    /**
+     * The looper of the worker thread which location callbacks should be delivered on.
+     */
+    public Looper getLooper() {
+        return thread.getLooper();
+    }
+
+    /**
+     * Stops the worker thread. Anything still buffered is dropped, so call flushAll() first to send it.
+     */
+    public void destroy() {
+        synchronized (this) {
+            cancelScheduledFlush();
+        }
+        thread.quit();
+    }
+
+    /**
+     * The stats are thread safe, so they can be read and recorded into without holding the dispatcher lock.
+     */
+    public RNLocationStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Sets whether flushed batches are sent to JS as "locationUpdated" events. Observers are always notified.
+     */
+    public synchronized void setEmittingLocationUpdates(boolean isEmittingLocationUpdates) {
+        this.isEmittingLocationUpdates = isEmittingLocationUpdates;
+    }
+
+    public synchronized void addObserver(Observer observer) {
+        observers.add(observer);
+    }
+
+    public synchronized void removeObserver(Observer observer) {
+        observers.remove(observer);
+    }
+
+    public synchronized void dispatch(Location location) {
+        dispatch(location, TIER_PRECISE);
+    }
+
+    /**
+     * Dispatches a location which did not come from the configured request, such as a cached or coarse fix.
+     */
+    public synchronized void dispatch(Location location, int tier) {
+        long start = System.nanoTime();
+        currentTier = tier;
+        buffer(location);
+        currentTier = TIER_PRECISE;
+        stats.processingTime.recordNanos(System.nanoTime() - start);
+        flushIfNeeded();
+    }
+
+    public synchronized void dispatch(List<Location> locations) {
+        long start = System.nanoTime();
+        for (Location location : locations) {
+            buffer(location);
+        }
+        stats.processingTime.recordNanos(System.nanoTime() - start);
+        flushIfNeeded();
+    }
+
+    public synchronized void flush() {
+        cancelScheduledFlush();
+        if (dispatchedCount == 0 && pendingLocations.isEmpty()) {
+            return;
+        }
+        dispatchedCount = 0;
+
+        // Convert the buffered locations and emit the event, unless they were all simplified away
+        if (isEmittingLocationUpdates && !pendingLocations.isEmpty()) {
+            long start = System.nanoTime();
+            int size = pendingLocations.size();
+            for (int i = 0; i < size; i++) {
+                stats.deliveryLatency.recordNanos(start - pendingLocations.getArrivalTime(i));
+            }
+            Utils.emitEvent(context, "locationUpdated", pendingLocations.drain());
+            stats.emitTime.recordNanos(System.nanoTime() - start);
+            stats.locationsEmitted.addAndGet(size);
+            stats.batchesEmitted.incrementAndGet();
+        } else {
+            pendingLocations.clear();
+        }
+
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).onFlush();
+        }
+    }
+
+    /**
+     * Flushes everything, including the location held back by simplification. Used when updates stop, as
+     * there will not be another location to decide whether it is needed.
+     */
+    public synchronized void flushAll() {
+        keepHeldLocation();
+        flush();
+    }
+
+    // Helpers
+
+    private void buffer(Location location) {
+        stats.locationsReceived.incrementAndGet();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1 && location.getElapsedRealtimeNanos() > 0) {
+            stats.receiveLatency.recordNanos(SystemClock.elapsedRealtimeNanos() - location.getElapsedRealtimeNanos());
+        }
+
+        if (filter.isEnabled() && !filter.process(location)) {
+            stats.locationsRejected.incrementAndGet();
+            return;
+        }
+
+        if (lastLocation == null || location.getTime() >= lastLocation.getTime()) {
+            lastLocation = location;
+        }
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).onLocationDispatched(location);
+        }
+        dispatchedCount++;
+
+        if (simplifier.isEnabled()) {
+            Location kept = simplifier.offer(location);
+            if (kept != null) {
+                keep(kept);
+            }
+        } else {
+            keep(location);
+        }
+    }
+
+    private void keepHeldLocation() {
+        Location held = simplifier.drain();
+        if (held != null) {
+            keep(held);
+        }
+    }
+
+    private void keep(Location location) {
+        if (isJournalEnabled) {
+            try {
+                if (journal.append(location)) {
+                    stats.locationsJournaled.incrementAndGet();
+                }
+            } catch (IOException e) {
+                // Stop journaling rather than warning about every location
+                isJournalEnabled = false;
+                Utils.emitWarning(context, "Could not write to the location journal, journaling has been disabled. Detail: " + e.getLocalizedMessage(), "500");
+            }
+        }
+
+        // Never overwrite locations which have not been sent yet
+        if (pendingLocations.isFull()) {
+            flush();
+        }
+        pendingLocations.add(location, fields, isTaggingTiers ? currentTier : TIER_NONE);
+    }
+
+    private void flushIfNeeded() {
+        if (dispatchedCount >= batchSize) {
+            flush();
+        } else {
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (isFlushScheduled || batchWindow <= 0) {
+            return;
+        }
+        handler.postDelayed(flushRunnable, batchWindow);
+        isFlushScheduled = true;
+    }
+
+    private void cancelScheduledFlush() {
+        if (!isFlushScheduled) {
+            return;
+        }
+        handler.removeCallbacks(flushRunnable);
+        isFlushScheduled = false;
+    }
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (RNLocationDispatcher.this) {
+                isFlushScheduled = false;
+                flush();
+            }
+        }
+    };
+}
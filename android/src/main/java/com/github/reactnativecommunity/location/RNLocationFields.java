@@ -0,0 +1,78 @@
+package com.github.reactnativecommunity.location;
+
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableType;
+
+/**
+ * The fields of a location which are sent to JS, as a bitmask. The fields option is compiled into a mask
+ * once when it is configured, so converting each location only has to test bits, and fields which were not
+ * asked for are neither read from the Location nor put in the map.
+ */
+public class RNLocationFields {
+    public static final int LATITUDE = 1;
+    public static final int LONGITUDE = 1 << 1;
+    public static final int ACCURACY = 1 << 2;
+    public static final int ALTITUDE = 1 << 3;
+    public static final int ALTITUDE_ACCURACY = 1 << 4;
+    public static final int COURSE = 1 << 5;
+    public static final int COURSE_ACCURACY = 1 << 6;
+    public static final int SPEED = 1 << 7;
+    public static final int SPEED_ACCURACY = 1 << 8;
+    public static final int TIMESTAMP = 1 << 9;
+    public static final int FROM_MOCK_PROVIDER = 1 << 10;
+    public static final int TIER = 1 << 11;
+    public static final int ALL = (1 << 12) - 1;
+
+    // The names used in JS, in the order of the bits
+    private static final String[] NAMES = {
+            "latitude",
+            "longitude",
+            "accuracy",
+            "altitude",
+            "altitudeAccuracy",
+            "course",
+            "courseAccuracy",
+            "speed",
+            "speedAccuracy",
+            "timestamp",
+            "fromMockProvider",
+            "tier"
+    };
+
+    private RNLocationFields() {}
+
+    // Public interface
+
+    /**
+     * Compiles an array of field names into a mask, throwing an IllegalArgumentException if any of them are
+     * not valid.
+     */
+    public static int parse(ReadableArray fields) {
+        int mask = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.getType(i) != ReadableType.String) {
+                throw new IllegalArgumentException("fields must be an array of strings");
+            }
+            int field = indexOf(fields.getString(i));
+            if (field < 0) {
+                throw new IllegalArgumentException("fields was passed an unknown value: " + fields.getString(i));
+            }
+            mask |= 1 << field;
+        }
+        if (mask == 0) {
+            throw new IllegalArgumentException("fields must not be empty");
+        }
+        return mask;
+    }
+
+    // Helpers
+
+    private static int indexOf(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+
+/**
+ * Filters locations before they reach the rest of the pipeline. Fixes which are less accurate than
+ * maxAccuracy, or which imply moving faster than maxSpeed from the last accepted fix, are rejected. When
+ * smoothing is enabled, the accepted fixes are run through a constant velocity Kalman filter and their
+ * position and accuracy are replaced with the filtered estimate.
+ *
+ * The filter keeps its state in primitive fields and updates the given location in place, so it does not
+ * allocate per location. This class is not thread safe, callers are expected to synchronize access to it.
+ */
+public class RNLocationFilter {
+    private static final double METERS_PER_DEGREE = Math.toRadians(1) * 6371008.8;
+    // Variance of the acceleration in (m/s^2)^2, which controls how quickly the filter follows changes in velocity
+    private static final double ACCELERATION_VARIANCE = 4;
+    // After a gap this long the previous velocity says nothing useful, so the filter starts again
+    private static final long MAX_GAP = 60000;
+    // Give up on the last accepted fix after this many rejections in a row, in case it was the outlier
+    private static final int MAX_CONSECUTIVE_REJECTIONS = 3;
+    private static final float DEFAULT_ACCURACY = 50;
+    // The velocity is unknown at the first fix, so start with an uncertainty of around 10m/s
+    private static final double INITIAL_VELOCITY_VARIANCE = 100;
+
+    private boolean isSmoothingEnabled = false;
+    private float maxAccuracy = 0;
+    private float maxSpeed = 0;
+
+    // Last accepted fix
+    private boolean hasLastFix = false;
+    private long lastTime;
+    private double lastLatitude;
+    private double lastLongitude;
+    private float lastAccuracy;
+    private int consecutiveRejections = 0;
+
+    // Kalman state, one position/velocity pair per axis. Positions are in degrees, velocities in m/s.
+    private boolean hasEstimate = false;
+    private long estimateTime;
+    private double latitude;
+    private double longitude;
+    private double northVelocity;
+    private double eastVelocity;
+    // Covariance, shared by both axes as they see the same noise
+    private double positionVariance;
+    private double covariance;
+    private double velocityVariance;
+
+    // Public interface
+
+    public boolean isEnabled() {
+        return isSmoothingEnabled || maxAccuracy > 0 || maxSpeed > 0;
+    }
+
+    public void setSmoothingEnabled(boolean isSmoothingEnabled) {
+        this.isSmoothingEnabled = isSmoothingEnabled;
+        hasEstimate = false;
+    }
+
+    /**
+     * Fixes with an accuracy radius larger than this in meters are rejected. 0 turns the check off.
+     */
+    public void setMaxAccuracy(float maxAccuracy) {
+        this.maxAccuracy = Math.max(0, maxAccuracy);
+    }
+
+    /**
+     * Fixes which imply a speed faster than this in m/s from the last accepted fix are rejected. 0 turns the check off.
+     */
+    public void setMaxSpeed(float maxSpeed) {
+        this.maxSpeed = Math.max(0, maxSpeed);
+    }
+
+    public void reset() {
+        hasLastFix = false;
+        hasEstimate = false;
+        consecutiveRejections = 0;
+    }
+
+    /**
+     * Returns false if the location should be dropped. Otherwise, if smoothing is enabled, the location is
+     * updated in place with the filtered position.
+     */
+    public boolean process(Location location) {
+        float accuracy = location.hasAccuracy() ? location.getAccuracy() : DEFAULT_ACCURACY;
+        if (maxAccuracy > 0 && accuracy > maxAccuracy) {
+            return false;
+        }
+        if (!accept(location, accuracy)) {
+            return false;
+        }
+        if (isSmoothingEnabled) {
+            smooth(location, accuracy);
+        }
+        return true;
+    }
+
+    // Helpers
+
+    private boolean accept(Location location, float accuracy) {
+        long time = location.getTime();
+        if (hasLastFix && time <= lastTime) {
+            // Out of order or repeated
+            return false;
+        }
+
+        if (hasLastFix && maxSpeed > 0 && consecutiveRejections < MAX_CONSECUTIVE_REJECTIONS) {
+            // Allow for the uncertainty in both fixes before deciding the jump is impossible
+            double distance = Utils.distanceBetween(lastLatitude, lastLongitude, location.getLatitude(), location.getLongitude());
+            double uncertainDistance = Math.max(0, distance - accuracy - lastAccuracy);
+            if (uncertainDistance * 1000 / (time - lastTime) > maxSpeed) {
+                consecutiveRejections++;
+                return false;
+            }
+        }
+
+        if (consecutiveRejections >= MAX_CONSECUTIVE_REJECTIONS) {
+            // The fixes agree with each other rather than the old one, so start again from here
+            hasEstimate = false;
+        }
+        consecutiveRejections = 0;
+        hasLastFix = true;
+        lastTime = time;
+        lastLatitude = location.getLatitude();
+        lastLongitude = location.getLongitude();
+        lastAccuracy = accuracy;
+        return true;
+    }
+
+    private void smooth(Location location, float accuracy) {
+        long time = location.getTime();
+        double measurementVariance = (double) accuracy * accuracy;
+        if (!hasEstimate || time - estimateTime > MAX_GAP) {
+            hasEstimate = true;
+            estimateTime = time;
+            latitude = location.getLatitude();
+            longitude = location.getLongitude();
+            northVelocity = 0;
+            eastVelocity = 0;
+            positionVariance = measurementVariance;
+            covariance = 0;
+            velocityVariance = INITIAL_VELOCITY_VARIANCE;
+            return;
+        }
+
+        // Predict
+        double dt = (time - estimateTime) / 1000.0;
+        double metersPerDegreeLongitude = METERS_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(latitude)));
+        latitude += northVelocity * dt / METERS_PER_DEGREE;
+        longitude += eastVelocity * dt / metersPerDegreeLongitude;
+        positionVariance += dt * (2 * covariance + dt * velocityVariance) + ACCELERATION_VARIANCE * dt * dt * dt * dt / 4;
+        covariance += dt * velocityVariance + ACCELERATION_VARIANCE * dt * dt * dt / 2;
+        velocityVariance += ACCELERATION_VARIANCE * dt * dt;
+
+        // Update
+        double northInnovation = (location.getLatitude() - latitude) * METERS_PER_DEGREE;
+        double eastInnovation = (location.getLongitude() - longitude) * metersPerDegreeLongitude;
+        double innovationVariance = positionVariance + measurementVariance;
+        double positionGain = positionVariance / innovationVariance;
+        double velocityGain = covariance / innovationVariance;
+        latitude += positionGain * northInnovation / METERS_PER_DEGREE;
+        longitude += positionGain * eastInnovation / metersPerDegreeLongitude;
+        northVelocity += velocityGain * northInnovation;
+        eastVelocity += velocityGain * eastInnovation;
+        velocityVariance -= velocityGain * covariance;
+        covariance *= 1 - positionGain;
+        positionVariance *= 1 - positionGain;
+        estimateTime = time;
+
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        location.setAccuracy((float) Math.sqrt(positionVariance));
+    }
+}
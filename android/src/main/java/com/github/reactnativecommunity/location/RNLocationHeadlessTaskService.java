@@ -0,0 +1,52 @@
+package com.github.reactnativecommunity.location;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.util.Log;
+
+import com.facebook.react.HeadlessJsTaskService;
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.jstasks.HeadlessJsTaskConfig;
+
+import javax.annotation.Nullable;
+
+/**
+ * Runs the JS task registered with RNLocation.registerBackgroundTask for a batch of background locations.
+ * Only the time range of the batch is passed, the locations themselves are read back from the journal.
+ */
+public class RNLocationHeadlessTaskService extends HeadlessJsTaskService {
+    public static final String TASK_NAME = "RNLocationBackgroundTask";
+    private static final String TAG = "RNLocationHeadlessTask";
+    private static final long TASK_TIMEOUT = 60000;
+
+    // Public interface
+
+    public static void start(Context context, long from, long to, int count) {
+        Bundle extras = new Bundle();
+        extras.putDouble("from", from);
+        extras.putDouble("to", to);
+        extras.putInt("count", count);
+
+        Intent intent = new Intent(context, RNLocationHeadlessTaskService.class);
+        intent.putExtras(extras);
+        try {
+            context.startService(intent);
+            HeadlessJsTaskService.acquireWakeLockNow(context);
+        } catch (IllegalStateException e) {
+            // Background start restrictions apply if the tracking service is no longer in the foreground
+            Log.w(TAG, "Could not start the background location task", e);
+        }
+    }
+
+    // HeadlessJsTaskService
+
+    @Override
+    protected @Nullable HeadlessJsTaskConfig getTaskConfig(Intent intent) {
+        Bundle extras = intent.getExtras();
+        if (extras == null) {
+            return null;
+        }
+        return new HeadlessJsTaskConfig(TASK_NAME, Arguments.fromBundle(extras), TASK_TIMEOUT, true);
+    }
+}
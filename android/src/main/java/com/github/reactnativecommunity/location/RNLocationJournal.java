@@ -0,0 +1,485 @@
+package com.github.reactnativecommunity.location;
+
+import android.content.Context;
+import android.location.Location;
+import android.os.Build;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persistent, append only store of locations backed by a memory mapped file of fixed size records.
+ * Appending only writes into the mapped region, so it is cheap enough to do on the location callback.
+ *
+ * Records are kept in time order, which lets queries and truncation binary search on the timestamp. A
+ * location older than the newest record is dropped rather than appended, as it would break the search.
+ *
+ * Every record also has a sequence number, counting the records ever appended. This is stored as the
+ * sequence of the first record, which truncation advances, so a reader can keep its place across
+ * truncations and across records which share a timestamp.
+ *
+ * The module and the background tracking receiver share a single instance per process, as two mappings of
+ * the same file would each keep their own record count.
+ */
+public class RNLocationJournal {
+    private static final String FILE_NAME = "RNLocationJournal.bin";
+    private static final String PROVIDER_NAME = "journal";
+    private static RNLocationJournal instance = null;
+
+    private static final int MAGIC = 0x524e4c4a; // "RNLJ"
+    private static final int VERSION = 1;
+
+    // Header layout
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_COUNT = 8;
+    // Unsigned. Journals written before this was added have zero here, which is correct for them.
+    private static final int HEADER_FIRST_SEQUENCE = 12;
+    private static final int HEADER_SIZE = 16;
+
+    // Record layout
+    private static final int RECORD_TIMESTAMP = 0;
+    private static final int RECORD_LATITUDE = 8;
+    private static final int RECORD_LONGITUDE = 16;
+    private static final int RECORD_ALTITUDE = 24;
+    private static final int RECORD_ACCURACY = 32;
+    private static final int RECORD_ALTITUDE_ACCURACY = 36;
+    private static final int RECORD_COURSE = 40;
+    private static final int RECORD_COURSE_ACCURACY = 44;
+    private static final int RECORD_SPEED = 48;
+    private static final int RECORD_SPEED_ACCURACY = 52;
+    private static final int RECORD_FLAGS = 56;
+    private static final int RECORD_SIZE = 64;
+
+    // Record flags. Records written before the presence bits were added have every field present.
+    private static final int FLAG_FROM_MOCK_PROVIDER = 1;
+    private static final int FLAG_HAS_ALTITUDE = 1 << 1;
+    private static final int FLAG_HAS_ACCURACY = 1 << 2;
+    private static final int FLAG_HAS_ALTITUDE_ACCURACY = 1 << 3;
+    private static final int FLAG_HAS_COURSE = 1 << 4;
+    private static final int FLAG_HAS_COURSE_ACCURACY = 1 << 5;
+    private static final int FLAG_HAS_SPEED = 1 << 6;
+    private static final int FLAG_HAS_SPEED_ACCURACY = 1 << 7;
+    private static final int FLAG_HAS_PRESENCE = 1 << 8;
+
+    // Columns layout, which must match the decoder in src/lib/columns.ts
+    private static final int COLUMNS_VERSION = 1;
+    private static final int COLUMNS_HEADER_SIZE = 8;
+    private static final int COLUMNS_BYTES_PER_LOCATION = 4 * 8 + 6 * 4 + 1;
+
+    // The file grows by this many records at a time
+    private static final int RECORDS_PER_CHUNK = 4096;
+
+    private final File file;
+    private RandomAccessFile randomAccessFile;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity = 0;
+    private int count = 0;
+    private long firstSequence = 0;
+
+    public RNLocationJournal(File file) {
+        this.file = file;
+    }
+
+    public static synchronized RNLocationJournal getInstance(Context context) {
+        if (instance == null) {
+            instance = new RNLocationJournal(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+        }
+        return instance;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    // Public interface
+
+    /**
+     * Reads every location from a journal file without changing it, such as one copied from another device
+     * for replay. Throws an IllegalArgumentException if the file is not a journal.
+     */
+    public static List<Location> readFile(File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = input.getChannel();
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IllegalArgumentException("The file is not a location journal: " + file.getPath());
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(HEADER_MAGIC) != MAGIC) {
+                throw new IllegalArgumentException("The file is not a location journal: " + file.getPath());
+            }
+            if (buffer.getInt(HEADER_VERSION) != VERSION) {
+                throw new IllegalArgumentException("Unsupported location journal version: " + buffer.getInt(HEADER_VERSION));
+            }
+
+            int storedRecords = (int) ((fileSize - HEADER_SIZE) / RECORD_SIZE);
+            int count = Math.max(0, Math.min(buffer.getInt(HEADER_COUNT), storedRecords));
+            List<Location> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                results.add(recordToLocation(buffer, HEADER_SIZE + i * RECORD_SIZE));
+            }
+            return results;
+        } finally {
+            input.close();
+        }
+    }
+
+    public synchronized int size() throws IOException {
+        open();
+        return count;
+    }
+
+    /**
+     * Returns the sequence number of the oldest location still in the journal.
+     */
+    public synchronized long getFirstSequence() throws IOException {
+        open();
+        return firstSequence;
+    }
+
+    /**
+     * Returns the sequence number the next location appended will get.
+     */
+    public synchronized long getEndSequence() throws IOException {
+        open();
+        return firstSequence + count;
+    }
+
+    /**
+     * Returns the sequence number of the first location with a timestamp after the given time.
+     */
+    public synchronized long sequenceAfter(long timestamp) throws IOException {
+        open();
+        return firstSequence + firstIndexAfter(timestamp);
+    }
+
+    /**
+     * Appends a location, unless it is older than the newest one in the journal. Returns whether it was appended.
+     */
+    public synchronized boolean append(Location location) throws IOException {
+        open();
+        if (count > 0 && location.getTime() < buffer.getLong(HEADER_SIZE + (count - 1) * RECORD_SIZE + RECORD_TIMESTAMP)) {
+            return false;
+        }
+        if (count == capacity) {
+            map(capacity + RECORDS_PER_CHUNK);
+        }
+
+        int offset = HEADER_SIZE + count * RECORD_SIZE;
+        buffer.putLong(offset + RECORD_TIMESTAMP, location.getTime());
+        buffer.putDouble(offset + RECORD_LATITUDE, location.getLatitude());
+        buffer.putDouble(offset + RECORD_LONGITUDE, location.getLongitude());
+        buffer.putDouble(offset + RECORD_ALTITUDE, location.getAltitude());
+        buffer.putFloat(offset + RECORD_ACCURACY, location.getAccuracy());
+        buffer.putFloat(offset + RECORD_COURSE, location.getBearing());
+        buffer.putFloat(offset + RECORD_SPEED, location.getSpeed());
+        int flags = FLAG_HAS_PRESENCE;
+        if (location.hasAltitude()) {
+            flags |= FLAG_HAS_ALTITUDE;
+        }
+        if (location.hasAccuracy()) {
+            flags |= FLAG_HAS_ACCURACY;
+        }
+        if (location.hasBearing()) {
+            flags |= FLAG_HAS_COURSE;
+        }
+        if (location.hasSpeed()) {
+            flags |= FLAG_HAS_SPEED;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            buffer.putFloat(offset + RECORD_ALTITUDE_ACCURACY, location.getVerticalAccuracyMeters());
+            buffer.putFloat(offset + RECORD_COURSE_ACCURACY, location.getBearingAccuracyDegrees());
+            buffer.putFloat(offset + RECORD_SPEED_ACCURACY, location.getSpeedAccuracyMetersPerSecond());
+            if (location.hasVerticalAccuracy()) {
+                flags |= FLAG_HAS_ALTITUDE_ACCURACY;
+            }
+            if (location.hasBearingAccuracy()) {
+                flags |= FLAG_HAS_COURSE_ACCURACY;
+            }
+            if (location.hasSpeedAccuracy()) {
+                flags |= FLAG_HAS_SPEED_ACCURACY;
+            }
+        } else {
+            buffer.putFloat(offset + RECORD_ALTITUDE_ACCURACY, 0);
+            buffer.putFloat(offset + RECORD_COURSE_ACCURACY, 0);
+            buffer.putFloat(offset + RECORD_SPEED_ACCURACY, 0);
+        }
+        if (location.isFromMockProvider()) {
+            flags |= FLAG_FROM_MOCK_PROVIDER;
+        }
+        buffer.putInt(offset + RECORD_FLAGS, flags);
+
+        // Only publish the record once it has been fully written
+        count++;
+        buffer.putInt(HEADER_COUNT, count);
+        return true;
+    }
+
+    /**
+     * Returns the locations with a timestamp between from and to (both inclusive), oldest first.
+     */
+    public synchronized WritableArray query(long from, long to, int limit) throws IOException {
+        open();
+        WritableArray results = Arguments.createArray();
+        int start = from > Long.MIN_VALUE ? firstIndexAfter(from - 1) : 0;
+        int end = limit > 0 ? Math.min(count, start + limit) : count;
+        for (int i = start; i < end; i++) {
+            int offset = HEADER_SIZE + i * RECORD_SIZE;
+            if (buffer.getLong(offset + RECORD_TIMESTAMP) > to) {
+                break;
+            }
+            results.pushMap(recordToMap(offset));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the locations with a timestamp between from and to (both inclusive), oldest first, packed into
+     * little endian columns. This avoids creating a map per location, which is slow for large queries.
+     *
+     * The layout is a header of the version and the count as 32 bit integers, followed by one column per
+     * field: timestamp, latitude, longitude and altitude as 64 bit floats, then accuracy, altitudeAccuracy,
+     * course, courseAccuracy, speed and speedAccuracy as 32 bit floats, then fromMockProvider as bytes.
+     * Each column starts on a multiple of its element size, so it can be read as a typed array.
+     */
+    public synchronized byte[] queryColumns(long from, long to, int limit) throws IOException {
+        open();
+        int start = from > Long.MIN_VALUE ? firstIndexAfter(from - 1) : 0;
+        int end = firstIndexAfter(to);
+        if (limit > 0) {
+            end = Math.min(end, start + limit);
+        }
+        int size = Math.max(0, end - start);
+
+        ByteBuffer columns = ByteBuffer.allocate(COLUMNS_HEADER_SIZE + size * COLUMNS_BYTES_PER_LOCATION);
+        columns.order(ByteOrder.LITTLE_ENDIAN);
+        columns.putInt(COLUMNS_VERSION);
+        columns.putInt(size);
+        for (int i = start; i < end; i++) {
+            columns.putDouble(buffer.getLong(HEADER_SIZE + i * RECORD_SIZE + RECORD_TIMESTAMP));
+        }
+        putDoubleColumn(columns, start, end, RECORD_LATITUDE);
+        putDoubleColumn(columns, start, end, RECORD_LONGITUDE);
+        putDoubleColumn(columns, start, end, RECORD_ALTITUDE);
+        putFloatColumn(columns, start, end, RECORD_ACCURACY);
+        putFloatColumn(columns, start, end, RECORD_ALTITUDE_ACCURACY);
+        putFloatColumn(columns, start, end, RECORD_COURSE);
+        putFloatColumn(columns, start, end, RECORD_COURSE_ACCURACY);
+        putFloatColumn(columns, start, end, RECORD_SPEED);
+        putFloatColumn(columns, start, end, RECORD_SPEED_ACCURACY);
+        for (int i = start; i < end; i++) {
+            boolean isFromMockProvider = (buffer.getInt(HEADER_SIZE + i * RECORD_SIZE + RECORD_FLAGS) & FLAG_FROM_MOCK_PROVIDER) != 0;
+            columns.put((byte) (isFromMockProvider ? 1 : 0));
+        }
+        return columns.array();
+    }
+
+    /**
+     * Returns the locations with a timestamp between from and to (both inclusive) as Location objects,
+     * oldest first. Used to replay a journal through a location provider.
+     */
+    public synchronized List<Location> readLocations(long from, long to, int limit) throws IOException {
+        open();
+        List<Location> results = new ArrayList<>();
+        int start = from > Long.MIN_VALUE ? firstIndexAfter(from - 1) : 0;
+        int end = limit > 0 ? Math.min(count, start + limit) : count;
+        for (int i = start; i < end; i++) {
+            int offset = HEADER_SIZE + i * RECORD_SIZE;
+            if (buffer.getLong(offset + RECORD_TIMESTAMP) > to) {
+                break;
+            }
+            results.add(recordToLocation(buffer, offset));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the locations from the given sequence number onwards, in the order they were appended. Starts
+     * from the oldest location if the given one has been truncated.
+     */
+    public synchronized List<Location> readLocationsFrom(long sequence, int limit) throws IOException {
+        open();
+        List<Location> results = new ArrayList<>();
+        int start = (int) Math.min(count, Math.max(0, sequence - firstSequence));
+        int end = limit > 0 ? Math.min(count, start + limit) : count;
+        for (int i = start; i < end; i++) {
+            results.add(recordToLocation(buffer, HEADER_SIZE + i * RECORD_SIZE));
+        }
+        return results;
+    }
+
+    /**
+     * Removes every location with a timestamp at or before the given time and returns how many were removed.
+     */
+    public synchronized int truncate(long before) throws IOException {
+        open();
+        int removed = firstIndexAfter(before);
+        if (removed == 0) {
+            return 0;
+        }
+
+        // Move the remaining records to the start of the file
+        int remaining = count - removed;
+        for (int i = 0; i < remaining * RECORD_SIZE; i += 8) {
+            buffer.putLong(HEADER_SIZE + i, buffer.getLong(HEADER_SIZE + removed * RECORD_SIZE + i));
+        }
+        count = remaining;
+        firstSequence += removed;
+        buffer.putInt(HEADER_FIRST_SEQUENCE, (int) firstSequence);
+        buffer.putInt(HEADER_COUNT, count);
+        return removed;
+    }
+
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        buffer.force();
+        try {
+            channel.close();
+            randomAccessFile.close();
+        } catch (IOException e) {
+            // Ignore the error, there is nothing we can do about it
+        }
+        buffer = null;
+        channel = null;
+        randomAccessFile = null;
+    }
+
+    // Helpers
+
+    private void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+
+        long fileSize = channel.size();
+        int existingRecords = fileSize > HEADER_SIZE ? (int) ((fileSize - HEADER_SIZE) / RECORD_SIZE) : 0;
+        map(Math.max(existingRecords, RECORDS_PER_CHUNK));
+
+        if (buffer.getInt(HEADER_MAGIC) == MAGIC && buffer.getInt(HEADER_VERSION) == VERSION) {
+            count = Math.min(buffer.getInt(HEADER_COUNT), capacity);
+            firstSequence = buffer.getInt(HEADER_FIRST_SEQUENCE) & 0xffffffffL;
+        } else {
+            // This is a new or unreadable journal, so start again from scratch
+            buffer.putInt(HEADER_MAGIC, MAGIC);
+            buffer.putInt(HEADER_VERSION, VERSION);
+            buffer.putInt(HEADER_COUNT, 0);
+            buffer.putInt(HEADER_FIRST_SEQUENCE, 0);
+            count = 0;
+            firstSequence = 0;
+        }
+    }
+
+    private void map(int records) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) records * RECORD_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        capacity = records;
+    }
+
+    private int firstIndexAfter(long timestamp) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(HEADER_SIZE + mid * RECORD_SIZE + RECORD_TIMESTAMP) <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void putDoubleColumn(ByteBuffer columns, int start, int end, int field) {
+        for (int i = start; i < end; i++) {
+            columns.putDouble(buffer.getDouble(HEADER_SIZE + i * RECORD_SIZE + field));
+        }
+    }
+
+    private void putFloatColumn(ByteBuffer columns, int start, int end, int field) {
+        for (int i = start; i < end; i++) {
+            columns.putFloat(buffer.getFloat(HEADER_SIZE + i * RECORD_SIZE + field));
+        }
+    }
+
+    /**
+     * Rebuilds a location with only the fields it was recorded with, so that it encodes the same way as the
+     * original did.
+     */
+    private static Location recordToLocation(ByteBuffer buffer, int offset) {
+        int flags = buffer.getInt(offset + RECORD_FLAGS);
+        if ((flags & FLAG_HAS_PRESENCE) == 0) {
+            flags |= FLAG_HAS_ALTITUDE | FLAG_HAS_ACCURACY | FLAG_HAS_ALTITUDE_ACCURACY | FLAG_HAS_COURSE
+                    | FLAG_HAS_COURSE_ACCURACY | FLAG_HAS_SPEED | FLAG_HAS_SPEED_ACCURACY;
+        }
+
+        Location location = new Location(PROVIDER_NAME);
+        location.setTime(buffer.getLong(offset + RECORD_TIMESTAMP));
+        location.setLatitude(buffer.getDouble(offset + RECORD_LATITUDE));
+        location.setLongitude(buffer.getDouble(offset + RECORD_LONGITUDE));
+        if ((flags & FLAG_HAS_ALTITUDE) != 0) {
+            location.setAltitude(buffer.getDouble(offset + RECORD_ALTITUDE));
+        }
+        if ((flags & FLAG_HAS_ACCURACY) != 0) {
+            location.setAccuracy(buffer.getFloat(offset + RECORD_ACCURACY));
+        }
+        if ((flags & FLAG_HAS_COURSE) != 0) {
+            location.setBearing(buffer.getFloat(offset + RECORD_COURSE));
+        }
+        if ((flags & FLAG_HAS_SPEED) != 0) {
+            location.setSpeed(buffer.getFloat(offset + RECORD_SPEED));
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            if ((flags & FLAG_HAS_ALTITUDE_ACCURACY) != 0) {
+                location.setVerticalAccuracyMeters(buffer.getFloat(offset + RECORD_ALTITUDE_ACCURACY));
+            }
+            if ((flags & FLAG_HAS_COURSE_ACCURACY) != 0) {
+                location.setBearingAccuracyDegrees(buffer.getFloat(offset + RECORD_COURSE_ACCURACY));
+            }
+            if ((flags & FLAG_HAS_SPEED_ACCURACY) != 0) {
+                location.setSpeedAccuracyMetersPerSecond(buffer.getFloat(offset + RECORD_SPEED_ACCURACY));
+            }
+        }
+        if ((flags & FLAG_FROM_MOCK_PROVIDER) != 0) {
+            RNLocationCodec.setFromMockProvider(location);
+        }
+        return location;
+    }
+
+    private WritableMap recordToMap(int offset) {
+        WritableMap map = Arguments.createMap();
+
+        map.putDouble("latitude", buffer.getDouble(offset + RECORD_LATITUDE));
+        map.putDouble("longitude", buffer.getDouble(offset + RECORD_LONGITUDE));
+        map.putDouble("accuracy", buffer.getFloat(offset + RECORD_ACCURACY));
+        map.putDouble("altitude", buffer.getDouble(offset + RECORD_ALTITUDE));
+        map.putDouble("altitudeAccuracy", buffer.getFloat(offset + RECORD_ALTITUDE_ACCURACY));
+        map.putDouble("course", buffer.getFloat(offset + RECORD_COURSE));
+        map.putDouble("courseAccuracy", buffer.getFloat(offset + RECORD_COURSE_ACCURACY));
+        map.putDouble("speed", buffer.getFloat(offset + RECORD_SPEED));
+        map.putDouble("speedAccuracy", buffer.getFloat(offset + RECORD_SPEED_ACCURACY));
+        map.putDouble("timestamp", buffer.getLong(offset + RECORD_TIMESTAMP));
+        map.putBoolean("fromMockProvider", (buffer.getInt(offset + RECORD_FLAGS) & FLAG_FROM_MOCK_PROVIDER) != 0);
+
+        return map;
+    }
+}
@@ -2,26 +2,111 @@ package com.github.reactnativecommunity.location;
 
 import android.app.Activity;
 import android.content.Intent;
+import android.location.Location;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Base64;
 
 import com.facebook.react.bridge.ActivityEventListener;
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.BaseActivityEventListener;
+import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.LifecycleEventListener;
 import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.PromiseImpl;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.module.annotations.ReactModule;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+import javax.annotation.Nullable;
+
+
+/**
+ * The location provider is driven by a small state machine, so that it is only ever started and stopped in
+ * one place. Every transition happens in updateProviderState() while holding the module lock, as the React
+ * methods, the host lifecycle and the motion and sampling listeners all arrive on different threads.
+ */
 @ReactModule(name = RNLocationModule.NAME)
 public class RNLocationModule extends ReactContextBaseJavaModule {
     public static final String NAME = "RNLocation";
 
+    private enum State {
+        // Nothing needs locations and the provider is stopped
+        IDLE,
+        // Locations are needed, and the provider is started once its pending options have been applied
+        CONFIGURING,
+        // The provider is running
+        TRACKING,
+        // Locations are needed, but the provider is stopped while the device is still or the host is in the background
+        PAUSED
+    }
+
+    // Calls to configure within this many milliseconds of each other only reconfigure the provider once
+    private static final long CONFIGURE_COALESCE_WINDOW = 50;
+
+    private static final Map<String, RNLocationProvider.Factory> customProviderFactories = new HashMap<>();
+
+    private final RNLocationJournal journal;
+    private final RNLocationDispatcher dispatcher;
+    private final RNStandardGeofenceProvider geofenceEngine;
+    private final RNLocationSubscriptions subscriptions;
+    private final RNAdaptiveSampler sampler;
+    private final RNSignificantLocationMonitor significantLocationMonitor;
+    private final RNHeadingMonitor headingMonitor;
+    private @Nullable RNMotionGate motionGate;
+    private final RNLocationPredictor predictor;
+    private final RNWarmStart warmStart;
+    private final RNLocationUploader uploader;
+    private final Handler handler = new Handler(Looper.getMainLooper());
     private RNLocationProvider locationProvider;
+    private @Nullable String locationProviderName;
+    // Provider options waiting for the coalescing window to pass, along with the promises for them
+    private @Nullable WritableMap pendingProviderOptions;
+    private final List<Promise> pendingProviderPromises = new ArrayList<>();
+    // Whether the pending options include a configure call from JS, which may ask the user to change settings
+    private boolean isPendingConfigureFromJs = false;
+    // Every option the provider has been configured with, so the request can be carried over to a new provider
+    private final WritableMap providerOptions = Arguments.createMap();
+    private RNGeofenceProvider geofenceProvider;
+
+    private State state = State.IDLE;
+    private boolean isUpdatingLocation = false;
+    private boolean isUpdatingHeading = false;
+    private boolean isHostPaused = false;
+    private boolean pauseInBackground = false;
 
     public RNLocationModule(ReactApplicationContext reactContext) {
         super(reactContext);
+        journal = RNLocationJournal.getInstance(reactContext);
+        dispatcher = new RNLocationDispatcher(reactContext, journal);
+        geofenceEngine = new RNStandardGeofenceProvider(reactContext);
+        dispatcher.addObserver(geofenceEngine);
+        subscriptions = new RNLocationSubscriptions(reactContext);
+        dispatcher.addObserver(subscriptions);
+        sampler = new RNAdaptiveSampler(reactContext, samplerListener);
+        dispatcher.addObserver(sampler);
+        significantLocationMonitor = new RNSignificantLocationMonitor(reactContext, dispatcher);
+        headingMonitor = new RNHeadingMonitor(reactContext, dispatcher);
+        predictor = new RNLocationPredictor(reactContext, dispatcher, headingMonitor);
+        dispatcher.addObserver(predictor);
+        warmStart = new RNWarmStart(reactContext, dispatcher);
+        dispatcher.addObserver(warmStart);
+        uploader = new RNLocationUploader(reactContext, journal);
+        dispatcher.addObserver(uploader);
+        dispatcher.setEmittingLocationUpdates(false);
         reactContext.addActivityEventListener(activityEventListener);
+        reactContext.addLifecycleEventListener(lifecycleEventListener);
     }
 
     @Override
@@ -29,14 +114,58 @@ public class RNLocationModule extends ReactContextBaseJavaModule {
         return NAME;
     }
 
+    @Override
+    public void onCatalystInstanceDestroy() {
+        getReactApplicationContext().removeLifecycleEventListener(lifecycleEventListener);
+
+        // Stop the callbacks before the dispatcher thread they are delivered on
+        synchronized (this) {
+            if (locationProvider != null && state == State.TRACKING) {
+                locationProvider.stopUpdatingLocation();
+            }
+            state = State.IDLE;
+            if (motionGate != null) {
+                motionGate.stop();
+            }
+        }
+        significantLocationMonitor.stop();
+        headingMonitor.stop();
+        predictor.stop();
+        warmStart.stop();
+        handler.removeCallbacks(flushProviderConfigurationRunnable);
+        dispatcher.getStats().setReportInterval(0);
+        dispatcher.destroy();
+        uploader.destroy();
+    }
+
+    /**
+     * Registers a custom location provider which can then be selected from JS by passing its name as the
+     * androidProvider option to configure. This should be called before the React Native host is created,
+     * for example in Application.onCreate.
+     */
+    public static void registerLocationProvider(String name, RNLocationProvider.Factory factory) {
+        switch (name) {
+            case "auto":
+            case "playServices":
+            case "standard":
+            case "replay":
+                throw new IllegalArgumentException("The provider name " + name + " is reserved");
+        }
+        synchronized (customProviderFactories) {
+            customProviderFactories.put(name, factory);
+        }
+    }
+
     // React interface
 
     @ReactMethod
     @SuppressWarnings("unused")
-    public void configure(ReadableMap options, final Promise promise) {
-        // Update the location provider if we are given one
-        if (options.hasKey("androidProvider")) {
-            String providerName = options.getString("androidProvider");
+    public synchronized void configure(ReadableMap options, final Promise promise) {
+        // Update the location provider if we are given a different one
+        RNLocationProvider previousProvider = locationProvider;
+        String providerName = options.hasKey("androidProvider") ? options.getString("androidProvider") : null;
+        if (providerName != null && !providerName.equals(locationProviderName)) {
+            locationProviderName = providerName;
             switch (providerName) {
                 case "auto":
                     locationProvider = createDefaultLocationProvider();
@@ -47,48 +176,571 @@ public class RNLocationModule extends ReactContextBaseJavaModule {
                 case "standard":
                     locationProvider = createStandardLocationProvider();
                     break;
+                case "replay":
+                    locationProvider = new RNReplayLocationProvider(getReactApplicationContext(), dispatcher);
+                    break;
                 default:
-                    Utils.emitWarning(getReactApplicationContext(), "androidProvider was passed an unknown value: " + providerName, "401");
+                    RNLocationProvider customProvider = createCustomLocationProvider(providerName);
+                    if (customProvider != null) {
+                        locationProvider = customProvider;
+                    } else {
+                        Utils.emitWarning(getReactApplicationContext(), "androidProvider was passed an unknown value: " + providerName, "401");
+                        locationProviderName = null;
+                        if (locationProvider == null) {
+                            locationProvider = createDefaultLocationProvider();
+                        }
+                    }
             }
         } else if (locationProvider == null) {
             // Otherwise ensure we have a provider and create a default if not
             locationProvider = createDefaultLocationProvider();
         }
+        if (previousProvider != null && previousProvider != locationProvider) {
+            handOverProvider(previousProvider);
+        }
+
+        // Pausing in the background
+        if (options.hasKey("pauseInBackground")) {
+            if (options.getType("pauseInBackground") == ReadableType.Boolean) {
+                pauseInBackground = options.getBoolean("pauseInBackground");
+            } else {
+                Utils.emitWarning(getReactApplicationContext(), "pauseInBackground must be a boolean", "401");
+            }
+        }
+
+        // Update the batching thresholds and adaptive sampling
+        dispatcher.configure(options);
+        sampler.configure(options);
+        headingMonitor.configure(options);
+        configureMotionGate(options);
+        predictor.configure(options);
+        uploader.configure(options, dispatcher.isJournalEnabled());
+        warmStart.configure(options);
+        dispatcher.setTaggingTiers(warmStart.isEnabled());
 
         // Pass the options to the location provider
-        locationProvider.configure(getCurrentActivity(), options, promise);
+        isPendingConfigureFromJs = true;
+        subscriptions.setBaseOptions(options);
+        if (subscriptions.isEmpty()) {
+            configureProvider(options, promise);
+        } else {
+            // Named subscriptions may need a more expensive request than the one we were just given
+            WritableMap mergedOptions = Arguments.createMap();
+            mergedOptions.merge(options);
+            mergedOptions.merge(subscriptions.getMergedOptions(getDefaultInterval()));
+            configureProvider(mergedOptions, promise);
+        }
+        updateProviderState();
+        updateHeadingState();
     }
 
     @ReactMethod
     @SuppressWarnings("unused")
-    public void startUpdatingLocation() {
-        // Ensure we have a provider
-        if (locationProvider == null) {
-            locationProvider = createDefaultLocationProvider();
+    public synchronized void startUpdatingLocation() {
+        ensureLocationProvider();
+
+        isUpdatingLocation = true;
+        dispatcher.setEmittingLocationUpdates(true);
+        subscriptions.setBaseActive(true);
+
+        // Named subscriptions may need a more expensive request than the default updates
+        if (!subscriptions.isEmpty()) {
+            configureProvider(subscriptions.getMergedOptions(getDefaultInterval()), new PromiseImpl(null, null));
+        }
+        updateProviderState();
+        updateHeadingState();
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public synchronized void stopUpdatingLocation() {
+        ensureLocationProvider();
+
+        // The provider keeps running if there are named subscriptions which still need locations
+        isUpdatingLocation = false;
+        updateProviderState();
+
+        // Send anything which is still waiting to be batched
+        dispatcher.flushAll();
+
+        dispatcher.setEmittingLocationUpdates(false);
+        subscriptions.setBaseActive(false);
+
+        // Drop back to the cheapest request the named subscriptions need
+        if (!subscriptions.isEmpty()) {
+            configureProvider(subscriptions.getMergedOptions(getDefaultInterval()), new PromiseImpl(null, null));
+        }
+        updateHeadingState();
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void startMonitoringSignificantLocationChanges() {
+        significantLocationMonitor.start();
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void stopMonitoringSignificantLocationChanges() {
+        significantLocationMonitor.stop();
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public synchronized void startUpdatingHeading() {
+        isUpdatingHeading = true;
+        updateHeadingState();
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public synchronized void stopUpdatingHeading() {
+        isUpdatingHeading = false;
+        updateHeadingState();
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public synchronized void addLocationSubscription(String id, ReadableMap options, final Promise promise) {
+        try {
+            subscriptions.add(id, options);
+        } catch (IllegalArgumentException e) {
+            promise.reject("401", e.getMessage());
+            return;
+        }
+        ensureLocationProvider();
+
+        // Switch to the merged request and make sure it is running
+        configureProvider(subscriptions.getMergedOptions(getDefaultInterval()), promise);
+        updateProviderState();
+        updateHeadingState();
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public synchronized void removeLocationSubscription(String id, final Promise promise) {
+        if (!subscriptions.remove(id) || locationProvider == null) {
+            promise.resolve(null);
+            return;
+        }
+
+        // Drop back to the request the remaining listeners need, or to the default one once none are left
+        configureProvider(subscriptions.getMergedOptions(getDefaultInterval()), promise);
+        updateProviderState();
+        updateHeadingState();
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void getLatestLocation(ReadableMap options, final Promise promise) {
+        final long maxAge = options.hasKey("maxAge") ? (long) options.getDouble("maxAge") : Long.MAX_VALUE;
+        final float minAccuracy = options.hasKey("minAccuracy") ? (float) options.getDouble("minAccuracy") : Float.MAX_VALUE;
+        final long timeout = options.hasKey("timeout") ? (long) options.getDouble("timeout") : 0;
+
+        final RNLocationProvider provider;
+        synchronized (this) {
+            ensureLocationProvider();
+            flushProviderConfiguration();
+            provider = locationProvider;
+        }
+
+        // Try the last location we sent to JS first
+        Location cachedLocation = dispatcher.getLastLocation();
+        if (isAcceptableLocation(cachedLocation, maxAge, minAccuracy)) {
+            promise.resolve(Utils.locationToMap(cachedLocation));
+            return;
+        }
+
+        // Then the last location the OS knows about, and finally a fresh location
+        provider.getLastKnownLocation(new RNLocationProvider.SingleLocationListener() {
+            @Override
+            public void onLocation(Location lastKnownLocation) {
+                if (isAcceptableLocation(lastKnownLocation, maxAge, minAccuracy)) {
+                    promise.resolve(Utils.locationToMap(lastKnownLocation));
+                    return;
+                }
+
+                provider.requestSingleLocation(timeout, new RNLocationProvider.SingleLocationListener() {
+                    @Override
+                    public void onLocation(Location location) {
+                        promise.resolve(location != null ? Utils.locationToMap(location) : null);
+                    }
+                });
+            }
+        });
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void getJournaledLocations(ReadableMap options, final Promise promise) {
+        long from = options.hasKey("from") ? (long) options.getDouble("from") : 0;
+        long to = options.hasKey("to") ? (long) options.getDouble("to") : Long.MAX_VALUE;
+        int limit = options.hasKey("limit") ? options.getInt("limit") : 0;
+
+        try {
+            promise.resolve(journal.query(from, to, limit));
+        } catch (IOException e) {
+            promise.reject("500", "Error reading the location journal", e);
+        }
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void getJournaledLocationColumns(ReadableMap options, final Promise promise) {
+        long from = options.hasKey("from") ? (long) options.getDouble("from") : 0;
+        long to = options.hasKey("to") ? (long) options.getDouble("to") : Long.MAX_VALUE;
+        int limit = options.hasKey("limit") ? options.getInt("limit") : 0;
+
+        try {
+            promise.resolve(Base64.encodeToString(journal.queryColumns(from, to, limit), Base64.NO_WRAP));
+        } catch (IOException e) {
+            promise.reject("500", "Error reading the location journal", e);
+        }
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void getJournaledLocationsCompact(ReadableMap options, final Promise promise) {
+        long from = options.hasKey("from") ? (long) options.getDouble("from") : 0;
+        long to = options.hasKey("to") ? (long) options.getDouble("to") : Long.MAX_VALUE;
+        int limit = options.hasKey("limit") ? options.getInt("limit") : 0;
+
+        try {
+            promise.resolve(Base64.encodeToString(RNLocationCodec.encode(journal.readLocations(from, to, limit)), Base64.NO_WRAP));
+        } catch (IOException e) {
+            promise.reject("500", "Error reading the location journal", e);
+        }
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void truncateJournal(double before, final Promise promise) {
+        try {
+            promise.resolve(journal.truncate((long) before));
+        } catch (IOException e) {
+            promise.reject("500", "Error truncating the location journal", e);
+        }
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void flushUploads(final Promise promise) {
+        uploader.flush();
+        promise.resolve(null);
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void getStats(final Promise promise) {
+        promise.resolve(dispatcher.getStats().toMap());
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void resetStats(final Promise promise) {
+        dispatcher.getStats().reset();
+        promise.resolve(null);
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void startBackgroundTracking(ReadableMap options, final Promise promise) {
+        RNBackgroundTrackingOptions trackingOptions;
+        try {
+            trackingOptions = RNBackgroundTrackingOptions.fromReactMap(options);
+        } catch (IllegalArgumentException e) {
+            promise.reject("401", e.getMessage());
+            return;
         }
 
-        // Call the provider
-        locationProvider.startUpdatingLocation();
+        ReactApplicationContext context = getReactApplicationContext();
+        if (!RNLocationService.hasLocationPermission(context)) {
+            promise.reject("403", "Attempted to start background tracking without location permissions");
+            return;
+        }
+
+        RNLocationService.start(context, trackingOptions);
+        promise.resolve(null);
     }
 
     @ReactMethod
     @SuppressWarnings("unused")
-    public void stopUpdatingLocation() {
-        // Ensure we have a provider
+    public void stopBackgroundTracking(final Promise promise) {
+        RNLocationService.stop(getReactApplicationContext());
+        promise.resolve(null);
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void isBackgroundTracking(final Promise promise) {
+        promise.resolve(RNLocationService.isRunning());
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void addGeofences(ReadableArray geofenceMaps, final Promise promise) {
+        List<RNGeofence> geofences = new ArrayList<>();
+        try {
+            for (int i = 0; i < geofenceMaps.size(); i++) {
+                geofences.add(RNGeofence.fromReactMap(geofenceMaps.getMap(i)));
+            }
+        } catch (IllegalArgumentException e) {
+            promise.reject("401", e.getMessage());
+            return;
+        }
+
+        getGeofenceProvider().addGeofences(geofences, promise);
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void removeGeofences(ReadableArray idArray, final Promise promise) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < idArray.size(); i++) {
+            ids.add(idArray.getString(i));
+        }
+
+        getGeofenceProvider().removeGeofences(ids, promise);
+    }
+
+    @ReactMethod
+    @SuppressWarnings("unused")
+    public void removeAllGeofences(final Promise promise) {
+        getGeofenceProvider().removeAllGeofences(promise);
+    }
+
+    // Helpers
+
+    /**
+     * Passes the options to the motion gate, creating it the first time any of its options are given. Most apps
+     * never pause when still, so they do not pay for the gate observing every location.
+     */
+    private void configureMotionGate(ReadableMap options) {
+        if (motionGate == null) {
+            if (!options.hasKey("pauseWhenStill") && !options.hasKey("stillTimeout") && !options.hasKey("stillRadius")) {
+                return;
+            }
+            motionGate = new RNMotionGate(getReactApplicationContext(), dispatcher, motionListener);
+            dispatcher.addObserver(motionGate);
+        }
+        motionGate.configure(options);
+    }
+
+    /**
+     * Moves to the state the provider should be in, starting or stopping it when it enters or leaves TRACKING.
+     * Called whenever anything it depends on changes.
+     */
+    private synchronized void updateProviderState() {
+        boolean isNeeded = isUpdatingLocation || !subscriptions.isEmpty();
+        boolean isPausedInBackground = isHostPaused && pauseInBackground;
+
+        // Only watch for stillness while the provider could be running
+        if (motionGate != null) {
+            if (isNeeded && !isPausedInBackground) {
+                motionGate.start();
+            } else {
+                motionGate.stop();
+            }
+        }
+
+        State newState;
+        if (!isNeeded) {
+            newState = State.IDLE;
+        } else if (isPausedInBackground || (motionGate != null && motionGate.isStill())) {
+            newState = State.PAUSED;
+        } else if (state != State.TRACKING && pendingProviderOptions != null) {
+            // Start with the new options rather than starting and then changing the request
+            newState = State.CONFIGURING;
+        } else {
+            newState = State.TRACKING;
+        }
+        if (newState == state) {
+            return;
+        }
+
+        if (state == State.TRACKING) {
+            locationProvider.stopUpdatingLocation();
+            warmStart.stop();
+            predictor.stop();
+            dispatcher.flushAll();
+        } else if (newState == State.TRACKING) {
+            locationProvider.startUpdatingLocation();
+            warmStart.start(locationProvider, providerOptions, getDefaultInterval());
+        }
+        state = newState;
+    }
+
+    /**
+     * Heading updates only drive what is on screen, so they are stopped while the host is in the background,
+     * unless location updates are still running and pauseInBackground is off.
+     */
+    private synchronized void updateHeadingState() {
+        boolean isPausedInBackground = isHostPaused && (pauseInBackground || state == State.IDLE);
+        if (isUpdatingHeading && !isPausedInBackground) {
+            headingMonitor.start();
+        } else {
+            headingMonitor.stop();
+        }
+    }
+
+    /**
+     * Stops the provider being replaced and carries everything it was configured with across to the new one,
+     * which starts from its defaults. Options which are still pending take precedence, as they are newer.
+     */
+    private void handOverProvider(RNLocationProvider previousProvider) {
+        if (state == State.TRACKING) {
+            previousProvider.stopUpdatingLocation();
+            warmStart.stop();
+            state = State.CONFIGURING;
+        }
+
+        WritableMap options = Arguments.createMap();
+        options.merge(providerOptions);
+        if (pendingProviderOptions != null) {
+            options.merge(pendingProviderOptions);
+        }
+        pendingProviderOptions = options;
+        handler.removeCallbacks(flushProviderConfigurationRunnable);
+        handler.postDelayed(flushProviderConfigurationRunnable, CONFIGURE_COALESCE_WINDOW);
+    }
+
+    /**
+     * The interval the provider uses when none is given, for the merged subscription options.
+     */
+    private long getDefaultInterval() {
+        return locationProvider instanceof RNPlayServicesLocationProvider
+                ? RNPlayServicesLocationProvider.DEFAULT_INTERVAL
+                : RNStandardLocationProvider.DEFAULT_INTERVAL;
+    }
+
+    private synchronized void ensureLocationProvider() {
         if (locationProvider == null) {
             locationProvider = createDefaultLocationProvider();
         }
+    }
 
-        // Call the provider
-        locationProvider.stopUpdatingLocation();
+    /**
+     * Configures the location provider, adjusting the request for the current adaptive sampling mode. Apps
+     * tend to call configure several times in a row, so the options are merged and only passed on once no
+     * more have arrived for CONFIGURE_COALESCE_WINDOW, or as soon as the provider is next used.
+     */
+    private synchronized void configureProvider(ReadableMap options, Promise promise) {
+        if (pendingProviderOptions == null) {
+            pendingProviderOptions = Arguments.createMap();
+        }
+        pendingProviderOptions.merge(options);
+        pendingProviderPromises.add(promise);
+        handler.removeCallbacks(flushProviderConfigurationRunnable);
+        handler.postDelayed(flushProviderConfigurationRunnable, CONFIGURE_COALESCE_WINDOW);
     }
 
-    // Helpers
+    private synchronized void flushProviderConfiguration() {
+        handler.removeCallbacks(flushProviderConfigurationRunnable);
+        if (pendingProviderOptions == null || locationProvider == null) {
+            return;
+        }
+        ReadableMap options = pendingProviderOptions;
+        final List<Promise> promises = new ArrayList<>(pendingProviderPromises);
+        Activity activity = isPendingConfigureFromJs ? getCurrentActivity() : null;
+        pendingProviderOptions = null;
+        pendingProviderPromises.clear();
+        isPendingConfigureFromJs = false;
+        providerOptions.merge(options);
+
+        // Settle every merged call with the result of the single configure
+        Promise promise = new PromiseImpl(new Callback() {
+            @Override
+            public void invoke(Object... args) {
+                for (Promise promise : promises) {
+                    promise.resolve(args.length > 0 ? args[0] : null);
+                }
+            }
+        }, new Callback() {
+            @Override
+            public void invoke(Object... args) {
+                ReadableMap error = args.length > 0 && args[0] instanceof ReadableMap ? (ReadableMap) args[0] : null;
+                String code = error != null && error.hasKey("code") ? error.getString("code") : "500";
+                String message = error != null && error.hasKey("message") ? error.getString("message") : "Error configuring react-native-location";
+                for (Promise promise : promises) {
+                    promise.reject(code, message);
+                }
+            }
+        });
+        locationProvider.configure(activity, sampler.adjust(options), promise);
+
+        // Start the provider if it was waiting on these options
+        updateProviderState();
+    }
+
+    private final Runnable flushProviderConfigurationRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flushProviderConfiguration();
+        }
+    };
+
+    private final RNAdaptiveSampler.Listener samplerListener = new RNAdaptiveSampler.Listener() {
+        @Override
+        public void onSamplingChanged() {
+            synchronized (RNLocationModule.this) {
+                if (locationProvider != null) {
+                    flushProviderConfiguration();
+                    locationProvider.configure(null, sampler.getAdjustedOptions(), new PromiseImpl(null, null));
+                }
+            }
+        }
+    };
+
+    private final RNMotionGate.Listener motionListener = new RNMotionGate.Listener() {
+        @Override
+        public void onMotionChanged(boolean isStill) {
+            // The state is worked out from the motion gate again, which skips notifications that were overtaken
+            // while they were being posted
+            synchronized (RNLocationModule.this) {
+                if (locationProvider != null) {
+                    updateProviderState();
+                }
+            }
+        }
+    };
+
+    private final LifecycleEventListener lifecycleEventListener = new LifecycleEventListener() {
+        @Override
+        public void onHostResume() {
+            synchronized (RNLocationModule.this) {
+                isHostPaused = false;
+                if (locationProvider != null) {
+                    updateProviderState();
+                }
+                updateHeadingState();
+            }
+        }
+
+        @Override
+        public void onHostPause() {
+            synchronized (RNLocationModule.this) {
+                isHostPaused = true;
+                if (locationProvider != null) {
+                    updateProviderState();
+                }
+                updateHeadingState();
+            }
+        }
+
+        @Override
+        public void onHostDestroy() {
+            onHostPause();
+        }
+    };
 
     private ActivityEventListener activityEventListener = new BaseActivityEventListener() {
         public void onActivityResult(Activity activity, int requestCode, int resultCode, Intent data) {
-            if (locationProvider instanceof RNPlayServicesLocationProvider) {
-                ((RNPlayServicesLocationProvider) locationProvider).onActivityResult(requestCode, resultCode, data);
+            RNLocationProvider provider;
+            synchronized (RNLocationModule.this) {
+                provider = locationProvider;
+            }
+            if (provider instanceof RNPlayServicesLocationProvider) {
+                ((RNPlayServicesLocationProvider) provider).onActivityResult(requestCode, resultCode, data);
             }
         }
     };
@@ -102,11 +754,38 @@ public class RNLocationModule extends ReactContextBaseJavaModule {
         }
     }
 
+    private static boolean isAcceptableLocation(Location location, long maxAge, float minAccuracy) {
+        return location != null
+                && System.currentTimeMillis() - location.getTime() <= maxAge
+                && location.getAccuracy() <= minAccuracy;
+    }
+
+    private synchronized RNGeofenceProvider getGeofenceProvider() {
+        if (geofenceProvider == null) {
+            // Play Services can monitor geofences without location updates, so prefer it when it is available
+            if (Utils.hasFusedLocationProvider()) {
+                geofenceProvider = new RNPlayServicesGeofenceProvider(getReactApplicationContext(), geofenceEngine);
+            } else {
+                geofenceProvider = geofenceEngine;
+            }
+        }
+        return geofenceProvider;
+    }
+
+    @Nullable
+    private RNLocationProvider createCustomLocationProvider(String name) {
+        RNLocationProvider.Factory factory;
+        synchronized (customProviderFactories) {
+            factory = customProviderFactories.get(name);
+        }
+        return factory != null ? factory.create(getReactApplicationContext(), dispatcher) : null;
+    }
+
     private RNPlayServicesLocationProvider createPlayServicesLocationProvider() {
-        return new RNPlayServicesLocationProvider(getCurrentActivity(), getReactApplicationContext());
+        return new RNPlayServicesLocationProvider(getCurrentActivity(), getReactApplicationContext(), dispatcher);
     }
 
     private RNStandardLocationProvider createStandardLocationProvider() {
-        return new RNStandardLocationProvider(getReactApplicationContext());
+        return new RNStandardLocationProvider(getReactApplicationContext(), dispatcher);
     }
 }
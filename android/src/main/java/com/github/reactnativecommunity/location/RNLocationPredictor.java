@@ -0,0 +1,210 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+import android.os.Handler;
+import android.os.SystemClock;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableArray;
+
+import javax.annotation.Nullable;
+
+/**
+ * Dead reckoning between location fixes, so a map can be animated smoothly while the provider runs at a
+ * low rate. After each fix the position is stepped forward at predictionRate using the speed and bearing of
+ * the fix. The bearing can be corrected with how far the heading sensor has turned since the fix.
+ *
+ * Each "predictedLocationUpdated" event holds the positions for the next predictionBatchInterval, with
+ * timestamps in the near future, so JS can play them back without sending every frame over the bridge. A new
+ * fix sends a fresh batch straight away, starting from the fix. Predictions stop when the device is slower
+ * than MIN_SPEED, and when no fix has arrived for a while.
+ */
+public class RNLocationPredictor implements RNLocationDispatcher.Observer {
+    private static final double MAX_RATE = 60;
+    private static final long DEFAULT_BATCH_INTERVAL = 250;
+    // Below walking pace the bearing is mostly noise
+    private static final float MIN_SPEED = 0.5f;
+    // Predict for twice the time between fixes, within these bounds
+    private static final long MIN_PREDICTION_TIME = 3000;
+    private static final long MAX_PREDICTION_TIME = 30000;
+    // How quickly the accuracy of a prediction is assumed to get worse, as a fraction of the distance travelled
+    private static final float ACCURACY_LOSS = 0.1f;
+    private static final double EARTH_RADIUS_METERS = 6371008.8;
+
+    private final ReactApplicationContext context;
+    private final RNLocationDispatcher dispatcher;
+    private final RNHeadingMonitor headingMonitor;
+    private final Handler handler;
+
+    private double rate = 0;
+    private long batchInterval = DEFAULT_BATCH_INTERVAL;
+    private boolean usesHeading = false;
+
+    private @Nullable Location fix = null;
+    // Elapsed realtime of the fix, and the time since the fix before it
+    private long fixElapsed = 0;
+    private long fixGap = 0;
+    private float headingAtFix = -1;
+    // The position reached so far, stepped forward from the fix
+    private double predictedLatitude;
+    private double predictedLongitude;
+    private long predictedElapsed;
+    private float predictedDistance;
+    private long nextStepElapsed;
+
+    public RNLocationPredictor(ReactApplicationContext context, RNLocationDispatcher dispatcher, RNHeadingMonitor headingMonitor) {
+        this.context = context;
+        this.dispatcher = dispatcher;
+        this.headingMonitor = headingMonitor;
+        this.handler = new Handler(dispatcher.getLooper());
+    }
+
+    // Public interface
+
+    public synchronized void configure(ReadableMap options) {
+        if (options.hasKey("predictionRate")) {
+            if (options.getType("predictionRate") == ReadableType.Number) {
+                rate = Math.min(MAX_RATE, Math.max(0, options.getDouble("predictionRate")));
+                if (rate == 0) {
+                    stop();
+                }
+            } else {
+                Utils.emitWarning(context, "predictionRate must be a number", "401");
+            }
+        }
+        if (options.hasKey("predictionBatchInterval")) {
+            if (options.getType("predictionBatchInterval") == ReadableType.Number) {
+                batchInterval = Math.max(0, (long) options.getDouble("predictionBatchInterval"));
+            } else {
+                Utils.emitWarning(context, "predictionBatchInterval must be a number", "401");
+            }
+        }
+        if (options.hasKey("predictionUsesHeading")) {
+            if (options.getType("predictionUsesHeading") == ReadableType.Boolean) {
+                usesHeading = options.getBoolean("predictionUsesHeading");
+            } else {
+                Utils.emitWarning(context, "predictionUsesHeading must be a boolean", "401");
+            }
+        }
+    }
+
+    /**
+     * Stops predicting until the next fix, called when location updates are stopped.
+     */
+    public synchronized void stop() {
+        handler.removeCallbacks(predictRunnable);
+        fix = null;
+    }
+
+    // Observer
+
+    @Override
+    public synchronized void onLocationDispatched(Location location) {
+        if (rate <= 0) {
+            return;
+        }
+        // Fixes from a batch can arrive out of order, and an older fix would move the prediction backwards
+        if (fix != null && location.getTime() <= fix.getTime()) {
+            return;
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        long elapsed = now - Math.max(0, System.currentTimeMillis() - location.getTime());
+        fixGap = fix != null ? elapsed - fixElapsed : 0;
+        fix = location;
+        fixElapsed = elapsed;
+        headingAtFix = usesHeading ? headingMonitor.getLatestHeading() : -1;
+        predictedLatitude = location.getLatitude();
+        predictedLongitude = location.getLongitude();
+        predictedElapsed = elapsed;
+        predictedDistance = 0;
+        nextStepElapsed = now;
+
+        handler.removeCallbacks(predictRunnable);
+        predict();
+    }
+
+    @Override
+    public void onFlush() {}
+
+    // Helpers
+
+    private final Runnable predictRunnable = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (RNLocationPredictor.this) {
+                predict();
+            }
+        }
+    };
+
+    private void predict() {
+        if (fix == null || rate <= 0 || !fix.hasSpeed() || !fix.hasBearing() || fix.getSpeed() < MIN_SPEED) {
+            return;
+        }
+        long predictionTime = Math.min(MAX_PREDICTION_TIME, Math.max(MIN_PREDICTION_TIME, fixGap * 2));
+        long end = Math.min(SystemClock.elapsedRealtime() + batchInterval, fixElapsed + predictionTime);
+        if (nextStepElapsed > end) {
+            return;
+        }
+
+        float bearing = getBearing();
+        int fields = dispatcher.getFields();
+        double step = 1000 / rate;
+        WritableArray results = Arguments.createArray();
+        while (nextStepElapsed <= end) {
+            advanceTo(nextStepElapsed, bearing);
+            results.pushMap(Utils.locationToMap(createPrediction(bearing), fields));
+            nextStepElapsed += Math.max(1, Math.round(step));
+        }
+        Utils.emitEvent(context, "predictedLocationUpdated", results);
+
+        if (nextStepElapsed <= fixElapsed + predictionTime) {
+            handler.postDelayed(predictRunnable, Math.max(0, nextStepElapsed - SystemClock.elapsedRealtime()));
+        }
+    }
+
+    /**
+     * The bearing of the fix, turned by as much as the heading sensor has turned since the fix. Only the
+     * change in heading is used, as the device is rarely pointing in the direction of travel.
+     */
+    private float getBearing() {
+        float bearing = fix.getBearing();
+        if (usesHeading && headingAtFix >= 0) {
+            float heading = headingMonitor.getLatestHeading();
+            if (heading >= 0) {
+                bearing += heading - headingAtFix;
+            }
+        }
+        return (bearing % 360 + 360) % 360;
+    }
+
+    /**
+     * Steps the predicted position forward along the bearing. The steps are short enough for the earth to be
+     * treated as flat.
+     */
+    private void advanceTo(long elapsed, float bearing) {
+        if (elapsed <= predictedElapsed) {
+            return;
+        }
+        double distance = fix.getSpeed() * (elapsed - predictedElapsed) / 1000.0;
+        double bearingRadians = Math.toRadians(bearing);
+        predictedLatitude += Math.toDegrees(distance * Math.cos(bearingRadians) / EARTH_RADIUS_METERS);
+        predictedLongitude += Math.toDegrees(distance * Math.sin(bearingRadians) / (EARTH_RADIUS_METERS * Math.cos(Math.toRadians(predictedLatitude))));
+        predictedElapsed = elapsed;
+        predictedDistance += distance;
+    }
+
+    private Location createPrediction(float bearing) {
+        Location prediction = new Location(fix);
+        prediction.setLatitude(predictedLatitude);
+        prediction.setLongitude(predictedLongitude);
+        prediction.setBearing(bearing);
+        prediction.setTime(fix.getTime() + (predictedElapsed - fixElapsed));
+        prediction.setAccuracy(fix.getAccuracy() + predictedDistance * ACCURACY_LOSS);
+        return prediction;
+    }
+}
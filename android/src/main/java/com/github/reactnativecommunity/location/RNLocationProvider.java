@@ -1,13 +1,36 @@
 package com.github.reactnativecommunity.location;
 
 import android.app.Activity;
-import android.content.Intent;
+import android.location.Location;
 
 import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReadableMap;
 
+import javax.annotation.Nullable;
+
 public interface RNLocationProvider {
-    void configure(final Activity activity, final ReadableMap options, final Promise promise);
+    interface SingleLocationListener {
+        void onLocation(@Nullable Location location);
+    }
+
+    /**
+     * Creates a custom provider registered with RNLocationModule.registerLocationProvider. Providers hand their
+     * locations to the dispatcher, which takes care of filtering, batching and sending them to JS. Location
+     * callbacks should be registered with the dispatcher looper to keep that work off the main thread.
+     */
+    interface Factory {
+        RNLocationProvider create(ReactApplicationContext context, RNLocationDispatcher dispatcher);
+    }
+
+    /**
+     * The activity is only given when the options come from a configure call made by JS while the app is in the
+     * foreground. It is null for the reconfigures made by adaptive sampling and subscriptions, which must not
+     * show any UI.
+     */
+    void configure(@Nullable final Activity activity, final ReadableMap options, final Promise promise);
     void startUpdatingLocation();
     void stopUpdatingLocation();
+    void getLastKnownLocation(final SingleLocationListener listener);
+    void requestSingleLocation(final long timeout, final SingleLocationListener listener);
 }
@@ -0,0 +1,216 @@
+package com.github.reactnativecommunity.location;
+
+import android.Manifest;
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.location.LocationManager;
+import android.os.Build;
+import android.os.IBinder;
+import android.support.v4.app.ActivityCompat;
+import android.support.v4.app.NotificationCompat;
+import android.support.v4.content.ContextCompat;
+import android.util.Log;
+
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationServices;
+
+/**
+ * Foreground service which keeps location updates running while the app is in the background. The updates
+ * are requested with a PendingIntent rather than a callback, so they are delivered to
+ * RNLocationUpdatesReceiver and written to the journal without needing a React context or JS runtime.
+ *
+ * The service only exists to keep the process in the foreground and to show the required notification.
+ */
+public class RNLocationService extends Service {
+    private static final String TAG = "RNLocationService";
+    private static final String NOTIFICATION_CHANNEL_ID = "RNLocationBackgroundTracking";
+    private static final String NOTIFICATION_CHANNEL_NAME = "Location tracking";
+    private static final int NOTIFICATION_ID = 1236;
+    private static final int REQUEST_LOCATION_UPDATES = 1237;
+    private static final int REQUEST_OPEN_APP = 1238;
+    // PendingIntent.FLAG_MUTABLE and API 31 which added it, as we compile against an older SDK.
+    // The location result is added to the intent extras.
+    private static final int FLAG_MUTABLE = 1 << 25;
+    private static final int FLAG_MUTABLE_SDK = 31;
+
+    private static boolean isRunning = false;
+
+    // Public interface
+
+    /**
+     * Saves the options and starts the service. They are kept until stop is called so the service can
+     * resume tracking if the system restarts it.
+     */
+    public static void start(Context context, RNBackgroundTrackingOptions options) {
+        options.save(context);
+        ContextCompat.startForegroundService(context, new Intent(context, RNLocationService.class));
+    }
+
+    public static void stop(Context context) {
+        RNBackgroundTrackingOptions options = RNBackgroundTrackingOptions.load(context);
+        options.isEnabled = false;
+        options.save(context);
+
+        // The updates may still be registered if the process was killed without the service being restarted
+        removeLocationUpdates(context);
+        context.stopService(new Intent(context, RNLocationService.class));
+    }
+
+    public static synchronized boolean isRunning() {
+        return isRunning;
+    }
+
+    // Service
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        RNBackgroundTrackingOptions options = RNBackgroundTrackingOptions.load(this);
+        if (!options.isEnabled) {
+            stopSelf();
+            return START_NOT_STICKY;
+        }
+
+        startForeground(NOTIFICATION_ID, createNotification(options));
+        if (!requestLocationUpdates(options)) {
+            stopForeground(true);
+            stopSelf();
+            return START_NOT_STICKY;
+        }
+
+        setRunning(true);
+        return START_STICKY;
+    }
+
+    @Override
+    public void onDestroy() {
+        setRunning(false);
+        removeLocationUpdates(this);
+        super.onDestroy();
+    }
+
+    @Override
+    public IBinder onBind(Intent intent) {
+        return null;
+    }
+
+    // Helpers
+
+    private static synchronized void setRunning(boolean isRunning) {
+        RNLocationService.isRunning = isRunning;
+    }
+
+    private boolean requestLocationUpdates(RNBackgroundTrackingOptions options) {
+        if (!hasLocationPermission(this)) {
+            Log.w(TAG, "Attempted to start background tracking without location permissions");
+            return false;
+        }
+
+        PendingIntent pendingIntent = getPendingIntent(this);
+        try {
+            if (Utils.hasFusedLocationProvider()) {
+                LocationRequest locationRequest = new LocationRequest()
+                        .setInterval(options.interval)
+                        .setFastestInterval(options.interval / 2)
+                        .setSmallestDisplacement(options.distanceFilter)
+                        .setPriority(getPriority(options.desiredAccuracy));
+                LocationServices.getFusedLocationProviderClient(this).requestLocationUpdates(locationRequest, pendingIntent);
+            } else {
+                LocationManager locationManager = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
+                String provider = options.desiredAccuracy.equals("highAccuracy")
+                        ? LocationManager.GPS_PROVIDER
+                        : LocationManager.NETWORK_PROVIDER;
+                if (!locationManager.isProviderEnabled(provider)) {
+                    provider = LocationManager.PASSIVE_PROVIDER;
+                }
+                locationManager.requestLocationUpdates(provider, options.interval, options.distanceFilter, pendingIntent);
+            }
+        } catch (SecurityException e) {
+            Log.w(TAG, "Background tracking is not allowed to request location updates", e);
+            return false;
+        }
+        return true;
+    }
+
+    private static void removeLocationUpdates(Context context) {
+        PendingIntent pendingIntent = getPendingIntent(context);
+        if (Utils.hasFusedLocationProvider()) {
+            LocationServices.getFusedLocationProviderClient(context).removeLocationUpdates(pendingIntent);
+        } else {
+            LocationManager locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+            locationManager.removeUpdates(pendingIntent);
+        }
+    }
+
+    private static PendingIntent getPendingIntent(Context context) {
+        int flags = PendingIntent.FLAG_UPDATE_CURRENT;
+        if (Build.VERSION.SDK_INT >= FLAG_MUTABLE_SDK) {
+            flags |= FLAG_MUTABLE;
+        }
+        Intent intent = new Intent(context, RNLocationUpdatesReceiver.class)
+                .setAction(RNLocationUpdatesReceiver.ACTION_LOCATION_UPDATES);
+        return PendingIntent.getBroadcast(context, REQUEST_LOCATION_UPDATES, intent, flags);
+    }
+
+    private Notification createNotification(RNBackgroundTrackingOptions options) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(NOTIFICATION_CHANNEL_ID, NOTIFICATION_CHANNEL_NAME, NotificationManager.IMPORTANCE_LOW);
+            channel.setShowBadge(false);
+            NotificationManager notificationManager = (NotificationManager) getSystemService(Context.NOTIFICATION_SERVICE);
+            notificationManager.createNotificationChannel(channel);
+        }
+
+        int icon = getApplicationInfo().icon;
+        if (options.notificationIcon != null) {
+            int namedIcon = getResources().getIdentifier(options.notificationIcon, "drawable", getPackageName());
+            if (namedIcon != 0) {
+                icon = namedIcon;
+            }
+        }
+
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(this, NOTIFICATION_CHANNEL_ID)
+                .setContentTitle(options.notificationTitle != null ? options.notificationTitle : NOTIFICATION_CHANNEL_NAME)
+                .setSmallIcon(icon)
+                .setOngoing(true)
+                .setShowWhen(false)
+                .setPriority(NotificationCompat.PRIORITY_LOW);
+        if (options.notificationText != null) {
+            builder.setContentText(options.notificationText);
+        }
+
+        Intent launchIntent = getPackageManager().getLaunchIntentForPackage(getPackageName());
+        if (launchIntent != null) {
+            // Android 12 requires the mutability to be given, and nothing needs to fill in this intent
+            int flags = PendingIntent.FLAG_UPDATE_CURRENT;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                flags |= PendingIntent.FLAG_IMMUTABLE;
+            }
+            builder.setContentIntent(PendingIntent.getActivity(this, REQUEST_OPEN_APP, launchIntent, flags));
+        }
+        return builder.build();
+    }
+
+    private static int getPriority(String desiredAccuracy) {
+        switch (desiredAccuracy) {
+            case "highAccuracy":
+                return LocationRequest.PRIORITY_HIGH_ACCURACY;
+            case "lowPower":
+                return LocationRequest.PRIORITY_LOW_POWER;
+            case "noPower":
+                return LocationRequest.PRIORITY_NO_POWER;
+            default:
+                return LocationRequest.PRIORITY_BALANCED_POWER_ACCURACY;
+        }
+    }
+
+    public static boolean hasLocationPermission(Context context) {
+        int finePermission = ActivityCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION);
+        int coarsePermission = ActivityCompat.checkSelfPermission(context, Manifest.permission.ACCESS_COARSE_LOCATION);
+        return finePermission == PackageManager.PERMISSION_GRANTED || coarsePermission == PackageManager.PERMISSION_GRANTED;
+    }
+}
@@ -0,0 +1,185 @@
+package com.github.reactnativecommunity.location;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters and latency histograms for the location pipeline, used to tune the interval and batching settings.
+ * Recording only increments atomics, so it is cheap enough to do for every location on any thread. The
+ * values are read with getStats() and can also be sent to JS periodically as a "statsUpdated" event.
+ */
+public class RNLocationStats {
+    /**
+     * Histogram of durations with fixed power of two buckets. Bucket 0 counts durations under 1us and
+     * bucket i counts durations from 2^(i-1)us up to 2^i us, so percentiles are accurate to within a factor
+     * of two, which is enough to see where the time goes.
+     */
+    public static class Histogram {
+        // 2^39us is over 6 days, anything longer goes in the last bucket
+        private static final int BUCKET_COUNT = 40;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        public void recordNanos(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            int bucket = Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets.incrementAndGet(bucket);
+            total.addAndGet(micros);
+
+            long currentMax = max.get();
+            while (micros > currentMax && !max.compareAndSet(currentMax, micros)) {
+                currentMax = max.get();
+            }
+        }
+
+        public void reset() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets.set(i, 0);
+            }
+            total.set(0);
+            max.set(0);
+        }
+
+        /**
+         * The durations are in milliseconds. The snapshot is not atomic, so a value recorded while it is being
+         * taken may only be partly included.
+         */
+        public WritableMap toMap() {
+            long[] snapshot = new long[BUCKET_COUNT];
+            long snapshotCount = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                snapshot[i] = buckets.get(i);
+                snapshotCount += snapshot[i];
+            }
+            long maxMicros = max.get();
+
+            WritableMap map = Arguments.createMap();
+            map.putDouble("count", snapshotCount);
+            map.putDouble("mean", snapshotCount > 0 ? total.get() / 1000.0 / snapshotCount : 0);
+            map.putDouble("max", maxMicros / 1000.0);
+            map.putDouble("p50", percentile(snapshot, snapshotCount, 0.5, maxMicros) / 1000.0);
+            map.putDouble("p90", percentile(snapshot, snapshotCount, 0.9, maxMicros) / 1000.0);
+            map.putDouble("p99", percentile(snapshot, snapshotCount, 0.99, maxMicros) / 1000.0);
+            return map;
+        }
+
+        /**
+         * Returns the upper bound of the bucket holding the percentile, capped at the largest value recorded.
+         */
+        private static long percentile(long[] snapshot, long snapshotCount, double percentile, long maxMicros) {
+            if (snapshotCount == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(snapshotCount * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return Math.min(maxMicros, 1L << i);
+                }
+            }
+            return maxMicros;
+        }
+    }
+
+    private final ReactApplicationContext context;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private volatile long since = System.currentTimeMillis();
+    private long reportInterval = 0;
+
+    // Counters
+    public final AtomicLong locationsReceived = new AtomicLong();
+    public final AtomicLong locationsDroppedWhileStopped = new AtomicLong();
+    public final AtomicLong locationsRejected = new AtomicLong();
+    public final AtomicLong locationsEmitted = new AtomicLong();
+    public final AtomicLong locationsJournaled = new AtomicLong();
+    public final AtomicLong batchesEmitted = new AtomicLong();
+    public final AtomicLong providerRegistrations = new AtomicLong();
+
+    // Histograms
+    // How old each location was when it reached the dispatcher
+    public final Histogram receiveLatency = new Histogram();
+    // Time spent filtering, notifying observers, simplifying and journaling each call to dispatch
+    public final Histogram processingTime = new Histogram();
+    // Time from each location reaching the dispatcher to its batch being sent to JS
+    public final Histogram deliveryLatency = new Histogram();
+    // Time spent converting and sending each batch to JS
+    public final Histogram emitTime = new Histogram();
+
+    public RNLocationStats(ReactApplicationContext context) {
+        this.context = context;
+    }
+
+    // Public interface
+
+    /**
+     * Sets how often in milliseconds the stats are sent to JS as a "statsUpdated" event. 0 turns the event off.
+     */
+    public synchronized void setReportInterval(long reportInterval) {
+        reportInterval = Math.max(0, reportInterval);
+        if (reportInterval == this.reportInterval) {
+            return;
+        }
+        this.reportInterval = reportInterval;
+        handler.removeCallbacks(reportRunnable);
+        if (reportInterval > 0) {
+            handler.postDelayed(reportRunnable, reportInterval);
+        }
+    }
+
+    public void reset() {
+        since = System.currentTimeMillis();
+        locationsReceived.set(0);
+        locationsDroppedWhileStopped.set(0);
+        locationsRejected.set(0);
+        locationsEmitted.set(0);
+        locationsJournaled.set(0);
+        batchesEmitted.set(0);
+        providerRegistrations.set(0);
+        receiveLatency.reset();
+        processingTime.reset();
+        deliveryLatency.reset();
+        emitTime.reset();
+    }
+
+    public WritableMap toMap() {
+        WritableMap map = Arguments.createMap();
+        map.putDouble("since", since);
+        map.putDouble("locationsReceived", locationsReceived.get());
+        map.putDouble("locationsDroppedWhileStopped", locationsDroppedWhileStopped.get());
+        map.putDouble("locationsRejected", locationsRejected.get());
+        map.putDouble("locationsEmitted", locationsEmitted.get());
+        map.putDouble("locationsJournaled", locationsJournaled.get());
+        map.putDouble("batchesEmitted", batchesEmitted.get());
+        map.putDouble("providerRegistrations", providerRegistrations.get());
+        map.putMap("receiveLatency", receiveLatency.toMap());
+        map.putMap("processingTime", processingTime.toMap());
+        map.putMap("deliveryLatency", deliveryLatency.toMap());
+        map.putMap("emitTime", emitTime.toMap());
+        return map;
+    }
+
+    // Helpers
+
+    private final Runnable reportRunnable = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (RNLocationStats.this) {
+                if (reportInterval <= 0) {
+                    return;
+                }
+                handler.postDelayed(this, reportInterval);
+            }
+            Utils.emitEvent(context, "statsUpdated", toMap());
+        }
+    };
+}
@@ -0,0 +1,241 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Multiplexes several named location subscriptions, each with their own interval, distance filter and
+ * accuracy, onto the single request a provider can make. The merged request is the least expensive one
+ * which satisfies every subscription, and each dispatched location is then downsampled per subscription
+ * before being sent to JS as a "subscriptionLocationUpdated" event when the dispatcher flushes.
+ *
+ * The settings from configure() take part in the merge as well while the default location updates are running,
+ * or on their own when there are no subscriptions, so the provider is left ready for the default updates.
+ */
+public class RNLocationSubscriptions implements RNLocationDispatcher.Observer {
+    // Ordered from the least to the most expensive
+    private static final String[] PRIORITIES = { "noPower", "lowPower", "balancedPowerAccuracy", "highAccuracy" };
+    private static final int DEFAULT_PRIORITY = 2;
+    private static final int SUBSCRIPTION_BUFFER_CAPACITY = 64;
+    // Locations rarely arrive exactly on the interval, so allow them to be slightly early
+    private static final double INTERVAL_TOLERANCE = 0.9;
+
+    private static class Subscription {
+        private final String id;
+        private final long interval;
+        private final float distanceFilter;
+        private final int priority;
+        private final int fields;
+        private final RNLocationBuffer pendingLocations;
+
+        private boolean hasLastLocation = false;
+        private long lastTime;
+        private double lastLatitude;
+        private double lastLongitude;
+
+        private Subscription(String id, long interval, float distanceFilter, int priority, int fields) {
+            this.id = id;
+            this.interval = interval;
+            this.distanceFilter = distanceFilter;
+            this.priority = priority;
+            this.fields = fields;
+            this.pendingLocations = new RNLocationBuffer(SUBSCRIPTION_BUFFER_CAPACITY);
+        }
+
+        private boolean accepts(Location location) {
+            if (!hasLastLocation) {
+                return true;
+            }
+            if (interval > 0 && location.getTime() - lastTime < interval * INTERVAL_TOLERANCE) {
+                return false;
+            }
+            return distanceFilter <= 0
+                    || Utils.distanceBetween(lastLatitude, lastLongitude, location.getLatitude(), location.getLongitude()) >= distanceFilter;
+        }
+
+        private void accept(Location location) {
+            hasLastLocation = true;
+            lastTime = location.getTime();
+            lastLatitude = location.getLatitude();
+            lastLongitude = location.getLongitude();
+        }
+    }
+
+    private final ReactApplicationContext context;
+    private final Map<String, Subscription> subscriptions = new LinkedHashMap<>();
+
+    // The settings given to configure(), which are used by the default location updates
+    private long baseInterval = -1;
+    private long baseFastestInterval = -1;
+    private float baseDistanceFilter = 0;
+    private int basePriority = -1;
+    private boolean isBaseActive = false;
+
+    public RNLocationSubscriptions(ReactApplicationContext context) {
+        this.context = context;
+    }
+
+    // Public interface
+
+    public synchronized boolean isEmpty() {
+        return subscriptions.isEmpty();
+    }
+
+    /**
+     * Adds or replaces a subscription, throwing an IllegalArgumentException if the options are not valid.
+     */
+    public synchronized void add(String id, ReadableMap options) {
+        long interval = options.hasKey("interval") ? (long) getNumber(options, "interval") : -1;
+        float distanceFilter = options.hasKey("distanceFilter") ? (float) getNumber(options, "distanceFilter") : 0;
+        int priority = parsePriority(options);
+        if (priority == -2) {
+            throw new IllegalArgumentException("desiredAccuracy.android was passed an unknown value");
+        }
+        int fields = RNLocationFields.ALL;
+        if (options.hasKey("fields") && options.getType("fields") != ReadableType.Null) {
+            if (options.getType("fields") != ReadableType.Array) {
+                throw new IllegalArgumentException("fields must be an array");
+            }
+            fields = RNLocationFields.parse(options.getArray("fields"));
+        }
+
+        remove(id);
+        subscriptions.put(id, new Subscription(id, interval, distanceFilter, priority, fields));
+    }
+
+    public synchronized boolean remove(String id) {
+        Subscription subscription = subscriptions.remove(id);
+        if (subscription == null) {
+            return false;
+        }
+
+        // Send anything the subscription is still waiting on
+        emit(subscription);
+        return true;
+    }
+
+    public synchronized void setBaseOptions(ReadableMap options) {
+        if (options.hasKey("interval") && options.getType("interval") == ReadableType.Number) {
+            baseInterval = (long) options.getDouble("interval");
+        }
+        if (options.hasKey("fastestInterval") && options.getType("fastestInterval") == ReadableType.Number) {
+            baseFastestInterval = (long) options.getDouble("fastestInterval");
+        }
+        if (options.hasKey("distanceFilter") && options.getType("distanceFilter") == ReadableType.Number) {
+            baseDistanceFilter = (float) options.getDouble("distanceFilter");
+        }
+        int priority = parsePriority(options);
+        if (priority >= 0) {
+            basePriority = priority;
+        }
+    }
+
+    public synchronized void setBaseActive(boolean isBaseActive) {
+        this.isBaseActive = isBaseActive;
+    }
+
+    /**
+     * The options for the least expensive request which satisfies every subscription, in the same format
+     * as the options passed to configure(). The interval and fastest interval are always given, falling back
+     * to the provider's default interval, as providers keep whatever they were last configured with.
+     */
+    public synchronized WritableMap getMergedOptions(long defaultInterval) {
+        boolean isBaseIncluded = isBaseActive || subscriptions.isEmpty();
+        long interval = isBaseIncluded ? baseInterval : -1;
+        float distanceFilter = isBaseIncluded ? baseDistanceFilter : Float.MAX_VALUE;
+        int priority = isBaseIncluded ? basePriority : -1;
+        for (Subscription subscription : subscriptions.values()) {
+            if (subscription.interval > 0) {
+                interval = interval > 0 ? Math.min(interval, subscription.interval) : subscription.interval;
+            }
+            distanceFilter = Math.min(distanceFilter, subscription.distanceFilter);
+            priority = Math.max(priority, subscription.priority);
+        }
+
+        if (interval <= 0) {
+            interval = defaultInterval;
+        }
+        // Play Services defaults the fastest interval to a sixth of the interval when it is not set
+        long fastestInterval = isBaseIncluded && baseFastestInterval > 0 ? Math.min(baseFastestInterval, interval) : interval / 6;
+
+        WritableMap options = Arguments.createMap();
+        options.putDouble("interval", interval);
+        options.putDouble("fastestInterval", fastestInterval);
+        options.putDouble("distanceFilter", distanceFilter == Float.MAX_VALUE ? 0 : distanceFilter);
+        WritableMap desiredAccuracy = Arguments.createMap();
+        desiredAccuracy.putString("android", PRIORITIES[priority >= 0 ? priority : DEFAULT_PRIORITY]);
+        options.putMap("desiredAccuracy", desiredAccuracy);
+        return options;
+    }
+
+    // Observer
+
+    @Override
+    public synchronized void onLocationDispatched(Location location) {
+        for (Subscription subscription : subscriptions.values()) {
+            if (!subscription.accepts(location)) {
+                continue;
+            }
+            subscription.accept(location);
+            if (subscription.pendingLocations.isFull()) {
+                emit(subscription);
+            }
+            subscription.pendingLocations.add(location, subscription.fields);
+        }
+    }
+
+    @Override
+    public synchronized void onFlush() {
+        for (Subscription subscription : subscriptions.values()) {
+            emit(subscription);
+        }
+    }
+
+    // Helpers
+
+    private void emit(Subscription subscription) {
+        if (subscription.pendingLocations.isEmpty()) {
+            return;
+        }
+
+        WritableMap event = Arguments.createMap();
+        event.putString("id", subscription.id);
+        event.putArray("locations", subscription.pendingLocations.drain());
+        Utils.emitEvent(context, "subscriptionLocationUpdated", event);
+    }
+
+    private static double getNumber(ReadableMap options, String key) {
+        if (options.getType(key) != ReadableType.Number) {
+            throw new IllegalArgumentException(key + " must be a number");
+        }
+        return options.getDouble(key);
+    }
+
+    /**
+     * Returns the index of desiredAccuracy.android in PRIORITIES, -1 if it was not given or -2 if it is unknown.
+     */
+    private static int parsePriority(ReadableMap options) {
+        if (!options.hasKey("desiredAccuracy") || options.getType("desiredAccuracy") != ReadableType.Map) {
+            return -1;
+        }
+        ReadableMap desiredAccuracy = options.getMap("desiredAccuracy");
+        if (!desiredAccuracy.hasKey("android") || desiredAccuracy.getType("android") != ReadableType.String) {
+            return -1;
+        }
+        String desiredAccuracyAndroid = desiredAccuracy.getString("android");
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            if (PRIORITIES[i].equals(desiredAccuracyAndroid)) {
+                return i;
+            }
+        }
+        return -2;
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.reactnativecommunity.location;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.location.Location;
+import android.location.LocationManager;
+import android.util.Log;
+
+import com.google.android.gms.location.LocationResult;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Receives the location updates requested by RNLocationService and appends them to the journal. This runs
+ * without a React context, so the JS runtime is only started when a batch is handed to the headless task.
+ */
+public class RNLocationUpdatesReceiver extends BroadcastReceiver {
+    public static final String ACTION_LOCATION_UPDATES = "com.github.reactnativecommunity.location.LOCATION_UPDATES";
+    private static final String TAG = "RNLocationUpdates";
+
+    // Keys for the batch which is waiting to be handed to the headless task
+    private static final String PENDING_TASK_COUNT = "pendingTaskCount";
+    private static final String PENDING_TASK_FROM = "pendingTaskFrom";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (!ACTION_LOCATION_UPDATES.equals(intent.getAction())) {
+            return;
+        }
+
+        List<Location> locations = getLocations(intent);
+        if (locations.isEmpty()) {
+            return;
+        }
+
+        RNLocationJournal journal = RNLocationJournal.getInstance(context);
+        try {
+            for (Location location : locations) {
+                journal.append(location);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Could not write background locations to the journal", e);
+            return;
+        }
+
+        RNBackgroundTrackingOptions options = RNBackgroundTrackingOptions.load(context);
+        if (options.isHeadlessTaskEnabled) {
+            updateHeadlessTask(context, options, locations);
+        }
+    }
+
+    // Helpers
+
+    private static List<Location> getLocations(Intent intent) {
+        if (Utils.hasFusedLocationProvider() && LocationResult.hasResult(intent)) {
+            return LocationResult.extractResult(intent).getLocations();
+        }
+        if (intent.hasExtra(LocationManager.KEY_LOCATION_CHANGED)) {
+            Location location = intent.getParcelableExtra(LocationManager.KEY_LOCATION_CHANGED);
+            if (location != null) {
+                return Collections.singletonList(location);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Counts the locations towards the current batch, and starts the headless task with the time range
+     * of the batch once it is full. The task then reads the locations back from the journal.
+     */
+    private static void updateHeadlessTask(Context context, RNBackgroundTrackingOptions options, List<Location> locations) {
+        SharedPreferences preferences = RNBackgroundTrackingOptions.getPreferences(context);
+        int count = preferences.getInt(PENDING_TASK_COUNT, 0);
+        long from = count > 0 ? preferences.getLong(PENDING_TASK_FROM, 0) : locations.get(0).getTime();
+        long to = locations.get(locations.size() - 1).getTime();
+        count += locations.size();
+
+        if (count < options.headlessTaskBatchSize) {
+            preferences.edit()
+                    .putInt(PENDING_TASK_COUNT, count)
+                    .putLong(PENDING_TASK_FROM, from)
+                    .apply();
+            return;
+        }
+
+        preferences.edit()
+                .putInt(PENDING_TASK_COUNT, 0)
+                .apply();
+        RNLocationHeadlessTaskService.start(context, from, to, count);
+    }
+}
@@ -0,0 +1,522 @@
+package com.github.reactnativecommunity.location;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.SharedPreferences;
+import android.location.Location;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Uploads journaled locations to a server without going through JS. Locations are read from the journal after
+ * the sequence number of the last acknowledged one, which is kept in shared preferences. Sequence numbers
+ * follow the order locations were journaled in, so locations which share a timestamp with an acknowledged one
+ * are still uploaded. This means locations collected by background tracking are uploaded as well, and nothing
+ * is lost if the app is killed mid upload.
+ *
+ * Acknowledged locations are left in the journal, as it is shared with getJournaledLocations and the headless
+ * task, which may not have read them yet. JS truncates the journal with the "to" of an acknowledgement once
+ * nothing else needs the locations.
+ *
+ * Each batch is encoded with RNLocationCodec, gzipped and sent in a single POST. A batch is sent once batchSize
+ * locations are waiting or interval has passed since the last upload. Failed uploads are retried with
+ * exponential backoff and jitter. While there is no suitable network, nothing is attempted until connectivity
+ * changes. Progress, acknowledgements and failures are sent to JS as "uploadUpdated" events.
+ *
+ * The HTTP requests block, so they run on a thread of their own. The thread is only started once uploads are
+ * first configured. All of the state is only touched on that thread.
+ */
+public class RNLocationUploader implements RNLocationDispatcher.Observer {
+    private static final String PREFERENCES_NAME = "RNLocationUploader";
+    private static final String CONTENT_TYPE = "application/octet-stream";
+    private static final String ENCODING = "rnlocation-delta-varint-" + RNLocationCodec.VERSION;
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 5000;
+    private static final long DEFAULT_INTERVAL = 60000;
+    private static final long DEFAULT_RETRY_DELAY = 5000;
+    private static final long DEFAULT_MAX_RETRY_DELAY = 15 * 60 * 1000;
+    private static final int CONNECT_TIMEOUT = 15000;
+    private static final int READ_TIMEOUT = 30000;
+
+    private static class Options {
+        private @Nullable String url = null;
+        private Map<String, String> headers = new HashMap<>();
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private long interval = DEFAULT_INTERVAL;
+        private long retryDelay = DEFAULT_RETRY_DELAY;
+        private long maxRetryDelay = DEFAULT_MAX_RETRY_DELAY;
+        private boolean unmeteredOnly = false;
+    }
+
+    private final ReactApplicationContext context;
+    private final RNLocationJournal journal;
+    // Started by the first upload configuration, and guarded by this
+    private @Nullable Handler handler;
+    private final Random random = new Random();
+
+    // Only touched on the upload thread
+    private Options options = new Options();
+    // The sequence number of the first location which has not been acknowledged, or -1 until it is read
+    private long uploadedSequence = -1;
+    private long lastUploadTime = SystemClock.elapsedRealtime();
+    private long nextRetryDelay = DEFAULT_RETRY_DELAY;
+    private long retryAt = 0;
+    private boolean isFlushRequested = false;
+    private boolean isReceiverRegistered = false;
+
+    public RNLocationUploader(ReactApplicationContext context, RNLocationJournal journal) {
+        this.context = context;
+        this.journal = journal;
+    }
+
+    // Public interface
+
+    /**
+     * Applies the upload option. The journal flag is only used to warn that foreground locations will not be
+     * uploaded without it.
+     */
+    public void configure(ReadableMap map, boolean isJournalEnabled) {
+        if (!map.hasKey("upload")) {
+            return;
+        }
+        final Options newOptions = new Options();
+        if (map.getType("upload") == ReadableType.Map) {
+            ReadableMap upload = map.getMap("upload");
+            if (upload.hasKey("url") && upload.getType("url") == ReadableType.String) {
+                newOptions.url = upload.getString("url");
+            } else {
+                Utils.emitWarning(context, "upload.url must be a string", "401");
+                return;
+            }
+            if (upload.hasKey("headers")) {
+                if (upload.getType("headers") == ReadableType.Map) {
+                    ReadableMap headers = upload.getMap("headers");
+                    ReadableMapKeySetIterator iterator = headers.keySetIterator();
+                    while (iterator.hasNextKey()) {
+                        String name = iterator.nextKey();
+                        if (headers.getType(name) == ReadableType.String) {
+                            newOptions.headers.put(name, headers.getString(name));
+                        } else {
+                            Utils.emitWarning(context, "upload.headers." + name + " must be a string", "401");
+                        }
+                    }
+                } else {
+                    Utils.emitWarning(context, "upload.headers must be an object", "401");
+                }
+            }
+            if (upload.hasKey("batchSize")) {
+                if (upload.getType("batchSize") == ReadableType.Number) {
+                    newOptions.batchSize = Math.min(MAX_BATCH_SIZE, Math.max(1, upload.getInt("batchSize")));
+                } else {
+                    Utils.emitWarning(context, "upload.batchSize must be a number", "401");
+                }
+            }
+            if (upload.hasKey("interval")) {
+                if (upload.getType("interval") == ReadableType.Number) {
+                    newOptions.interval = Math.max(0, (long) upload.getDouble("interval"));
+                } else {
+                    Utils.emitWarning(context, "upload.interval must be a number", "401");
+                }
+            }
+            if (upload.hasKey("retryDelay")) {
+                if (upload.getType("retryDelay") == ReadableType.Number) {
+                    newOptions.retryDelay = Math.max(100, (long) upload.getDouble("retryDelay"));
+                } else {
+                    Utils.emitWarning(context, "upload.retryDelay must be a number", "401");
+                }
+            }
+            if (upload.hasKey("maxRetryDelay")) {
+                if (upload.getType("maxRetryDelay") == ReadableType.Number) {
+                    newOptions.maxRetryDelay = Math.max(newOptions.retryDelay, (long) upload.getDouble("maxRetryDelay"));
+                } else {
+                    Utils.emitWarning(context, "upload.maxRetryDelay must be a number", "401");
+                }
+            }
+            if (upload.hasKey("unmeteredOnly")) {
+                if (upload.getType("unmeteredOnly") == ReadableType.Boolean) {
+                    newOptions.unmeteredOnly = upload.getBoolean("unmeteredOnly");
+                } else {
+                    Utils.emitWarning(context, "upload.unmeteredOnly must be a boolean", "401");
+                }
+            }
+        } else if (map.getType("upload") != ReadableType.Null) {
+            Utils.emitWarning(context, "upload must be an object or null", "401");
+            return;
+        }
+        if (newOptions.url != null && !isJournalEnabled) {
+            Utils.emitWarning(context, "upload is configured without journal, so only the locations collected by background tracking will be uploaded", "401");
+        }
+
+        final Handler handler;
+        if (newOptions.url != null) {
+            handler = startThread();
+        } else {
+            handler = getHandler();
+            if (handler == null) {
+                // Uploads were never started, so there is nothing to stop
+                return;
+            }
+        }
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                options = newOptions;
+                nextRetryDelay = newOptions.retryDelay;
+                retryAt = 0;
+                handler.removeCallbacks(checkRunnable);
+                handler.removeCallbacks(retryRunnable);
+                if (newOptions.url != null) {
+                    registerReceiver();
+                    check();
+                } else {
+                    unregisterReceiver();
+                }
+            }
+        });
+    }
+
+    /**
+     * Uploads everything which is waiting as soon as there is a suitable network, without waiting for the
+     * interval or a retry.
+     */
+    public void flush() {
+        final Handler handler = getHandler();
+        if (handler == null) {
+            return;
+        }
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                isFlushRequested = true;
+                retryAt = 0;
+                check();
+            }
+        });
+    }
+
+    public void destroy() {
+        final Handler handler = getHandler();
+        if (handler == null) {
+            return;
+        }
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                handler.removeCallbacks(checkRunnable);
+                handler.removeCallbacks(retryRunnable);
+                unregisterReceiver();
+                handler.getLooper().quit();
+            }
+        });
+    }
+
+    // Observer
+
+    @Override
+    public void onLocationDispatched(Location location) {}
+
+    @Override
+    public void onFlush() {
+        // The journal is written before the batch is flushed, so there may be more to upload
+        Handler handler = getHandler();
+        if (handler != null) {
+            handler.post(checkRunnable);
+        }
+    }
+
+    // Helpers
+
+    private synchronized Handler startThread() {
+        if (handler == null) {
+            HandlerThread thread = new HandlerThread("RNLocationUploader");
+            thread.start();
+            handler = new Handler(thread.getLooper());
+        }
+        return handler;
+    }
+
+    private synchronized @Nullable Handler getHandler() {
+        return handler;
+    }
+
+    private final Runnable checkRunnable = new Runnable() {
+        @Override
+        public void run() {
+            check();
+        }
+    };
+
+    /**
+     * Decides whether to upload now, later, or not at all.
+     */
+    private void check() {
+        if (options.url == null) {
+            return;
+        }
+        long now = SystemClock.elapsedRealtime();
+        if (retryAt > now) {
+            // A retry is already scheduled
+            return;
+        }
+        if (!hasSuitableNetwork()) {
+            // The connectivity receiver checks again once the network changes
+            return;
+        }
+
+        long start;
+        int pending;
+        try {
+            start = getUploadStart();
+            pending = (int) (journal.getEndSequence() - start);
+        } catch (IOException e) {
+            Utils.emitWarning(context, "Could not read the location journal for uploading. Detail: " + e.getLocalizedMessage(), "500");
+            return;
+        }
+        if (pending == 0) {
+            isFlushRequested = false;
+            return;
+        }
+
+        long sinceLastUpload = now - lastUploadTime;
+        if (isFlushRequested || pending >= options.batchSize || sinceLastUpload >= options.interval) {
+            upload(start, pending);
+        } else {
+            handler.removeCallbacks(checkRunnable);
+            handler.postDelayed(checkRunnable, options.interval - sinceLastUpload);
+        }
+    }
+
+    /**
+     * Returns the sequence number to upload from, skipping anything which has been truncated since.
+     */
+    private long getUploadStart() throws IOException {
+        if (uploadedSequence < 0) {
+            SharedPreferences preferences = getPreferences();
+            if (preferences.contains("uploadedSequence")) {
+                uploadedSequence = preferences.getLong("uploadedSequence", 0);
+            } else if (preferences.contains("uploadedUntil")) {
+                // Older versions kept the timestamp of the last acknowledged location instead
+                uploadedSequence = journal.sequenceAfter(preferences.getLong("uploadedUntil", Long.MIN_VALUE));
+            } else {
+                uploadedSequence = 0;
+            }
+        }
+        if (uploadedSequence > journal.getEndSequence()) {
+            // The journal was deleted or could not be read and has started again, so all of it is new
+            uploadedSequence = journal.getFirstSequence();
+        }
+        return Math.max(uploadedSequence, journal.getFirstSequence());
+    }
+
+    private void upload(long start, int pending) {
+        List<Location> locations;
+        try {
+            locations = journal.readLocationsFrom(start, options.batchSize);
+        } catch (IOException e) {
+            Utils.emitWarning(context, "Could not read the location journal for uploading. Detail: " + e.getLocalizedMessage(), "500");
+            return;
+        }
+        if (locations.isEmpty()) {
+            return;
+        }
+        long from = locations.get(0).getTime();
+        long to = locations.get(locations.size() - 1).getTime();
+
+        byte[] payload;
+        try {
+            payload = gzip(RNLocationCodec.encode(locations));
+        } catch (IOException e) {
+            Utils.emitWarning(context, "Could not compress the locations for uploading. Detail: " + e.getLocalizedMessage(), "500");
+            return;
+        }
+
+        WritableMap progress = Arguments.createMap();
+        progress.putString("type", "progress");
+        progress.putInt("count", locations.size());
+        progress.putInt("bytes", payload.length);
+        progress.putInt("pending", pending);
+        Utils.emitEvent(context, "uploadUpdated", progress);
+
+        int status = 0;
+        String message = null;
+        try {
+            status = post(payload, locations.size());
+        } catch (IOException e) {
+            message = e.getLocalizedMessage();
+        }
+
+        if (status >= 200 && status < 300) {
+            onUploaded(start + locations.size(), locations.size(), from, to, status, pending - locations.size());
+        } else {
+            onUploadFailed(status, message != null ? message : "The server responded with " + status);
+        }
+    }
+
+    private void onUploaded(long end, int count, long from, long to, int status, int remaining) {
+        uploadedSequence = end;
+        getPreferences().edit().putLong("uploadedSequence", uploadedSequence).remove("uploadedUntil").apply();
+        lastUploadTime = SystemClock.elapsedRealtime();
+        nextRetryDelay = options.retryDelay;
+
+        WritableMap acknowledgement = Arguments.createMap();
+        acknowledgement.putString("type", "acknowledged");
+        acknowledgement.putInt("count", count);
+        acknowledgement.putDouble("from", from);
+        acknowledgement.putDouble("to", to);
+        acknowledgement.putInt("status", status);
+        acknowledgement.putInt("pending", remaining);
+        Utils.emitEvent(context, "uploadUpdated", acknowledgement);
+
+        // Carry on with the next batch, or wait for the interval
+        handler.post(checkRunnable);
+    }
+
+    private void onUploadFailed(int status, String message) {
+        // Jitter the delay so that many devices do not retry against the server at the same moment
+        long delay = nextRetryDelay / 2 + (long) (random.nextDouble() * nextRetryDelay / 2);
+        nextRetryDelay = Math.min(options.maxRetryDelay, nextRetryDelay * 2);
+        retryAt = SystemClock.elapsedRealtime() + delay;
+        handler.removeCallbacks(checkRunnable);
+        handler.postDelayed(retryRunnable, delay);
+
+        WritableMap failure = Arguments.createMap();
+        failure.putString("type", "failed");
+        failure.putInt("status", status);
+        failure.putString("message", message);
+        failure.putDouble("retryIn", delay);
+        Utils.emitEvent(context, "uploadUpdated", failure);
+    }
+
+    private final Runnable retryRunnable = new Runnable() {
+        @Override
+        public void run() {
+            retryAt = 0;
+            check();
+        }
+    };
+
+    private int post(byte[] payload, int count) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(options.url).openConnection();
+        try {
+            connection.setConnectTimeout(CONNECT_TIMEOUT);
+            connection.setReadTimeout(READ_TIMEOUT);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(payload.length);
+            connection.setRequestProperty("Content-Type", CONTENT_TYPE);
+            connection.setRequestProperty("Content-Encoding", "gzip");
+            connection.setRequestProperty("X-Location-Encoding", ENCODING);
+            connection.setRequestProperty("X-Location-Count", String.valueOf(count));
+            for (Map.Entry<String, String> header : options.headers.entrySet()) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+
+            OutputStream output = connection.getOutputStream();
+            try {
+                output.write(payload);
+            } finally {
+                output.close();
+            }
+
+            int status = connection.getResponseCode();
+            // Read the response so that the connection can be reused
+            InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if (input != null) {
+                byte[] discard = new byte[1024];
+                while (input.read(discard) != -1) {
+                    // Discard the body
+                }
+                input.close();
+            }
+            return status;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 2 + 32);
+        GZIPOutputStream gzip = new GZIPOutputStream(output);
+        gzip.write(data);
+        gzip.close();
+        return output.toByteArray();
+    }
+
+    private boolean hasSuitableNetwork() {
+        ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) {
+            return true;
+        }
+        try {
+            NetworkInfo network = connectivityManager.getActiveNetworkInfo();
+            if (network == null || !network.isConnected()) {
+                return false;
+            }
+            return !options.unmeteredOnly || !connectivityManager.isActiveNetworkMetered();
+        } catch (SecurityException e) {
+            // The app has not added ACCESS_NETWORK_STATE, so try anyway and let failures back off
+            return true;
+        }
+    }
+
+    private void registerReceiver() {
+        if (isReceiverRegistered) {
+            return;
+        }
+        context.registerReceiver(connectivityReceiver, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION), null, handler);
+        isReceiverRegistered = true;
+    }
+
+    private void unregisterReceiver() {
+        if (!isReceiverRegistered) {
+            return;
+        }
+        context.unregisterReceiver(connectivityReceiver);
+        isReceiverRegistered = false;
+    }
+
+    private final BroadcastReceiver connectivityReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            // Delivered on the upload thread. A new network is worth trying straight away, rather than
+            // waiting out a backoff which was caused by the old one.
+            if (hasSuitableNetwork() && retryAt > 0) {
+                handler.removeCallbacks(retryRunnable);
+                retryAt = 0;
+                nextRetryDelay = options.retryDelay;
+            }
+            check();
+        }
+    };
+
+    private SharedPreferences getPreferences() {
+        return context.getApplicationContext().getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,296 @@
+package com.github.reactnativecommunity.location;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.hardware.TriggerEvent;
+import android.hardware.TriggerEventListener;
+import android.location.Location;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+
+import javax.annotation.Nullable;
+
+/**
+ * Pauses location updates while the device is still. The device is taken to be still once it has stayed
+ * within stillRadius of the same place for stillTimeout, which includes not getting any locations at all.
+ * While paused, location updates are stopped and the motion sensors are watched instead. The significant
+ * motion sensor is used where there is one, as it is a one shot wake up sensor handled in low power
+ * hardware. Otherwise the accelerometer is watched with batching, until its readings move away from
+ * gravity for long enough.
+ *
+ * Entering the paused state needs stillTimeout of evidence, while leaving it only needs motion, so a
+ * single noisy location cannot flip the state back and forth.
+ */
+public class RNMotionGate implements RNLocationDispatcher.Observer {
+    public interface Listener {
+        /**
+         * Called on the main thread when location updates should be stopped or started again.
+         */
+        void onMotionChanged(boolean isStill);
+    }
+
+    private static final long DEFAULT_STILL_TIMEOUT = 5 * 60 * 1000;
+    private static final float DEFAULT_STILL_RADIUS = 50;
+    // Accelerometer fallback, readings further than this from gravity in m/s^2 count as motion
+    private static final float MOTION_THRESHOLD = 1.5f;
+    private static final float MOTION_SMOOTHING = 0.2f;
+    // Let the sensor hub deliver accelerometer readings in batches rather than waking us for each one
+    private static final int ACCELEROMETER_MAX_LATENCY = 5000000;
+
+    private final ReactApplicationContext context;
+    private final Listener listener;
+    private final Handler handler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private boolean isEnabled = false;
+    private long stillTimeout = DEFAULT_STILL_TIMEOUT;
+    private float stillRadius = DEFAULT_STILL_RADIUS;
+
+    private boolean isActive = false;
+    private boolean isStill = false;
+    private @Nullable Location anchor = null;
+    private float motion = 0;
+    private @Nullable SignificantMotionTrigger significantMotionTrigger = null;
+
+    public RNMotionGate(ReactApplicationContext context, RNLocationDispatcher dispatcher, Listener listener) {
+        this.context = context;
+        this.listener = listener;
+        this.handler = new Handler(dispatcher.getLooper());
+    }
+
+    // Public interface
+
+    public synchronized void configure(ReadableMap options) {
+        if (options.hasKey("stillTimeout")) {
+            if (options.getType("stillTimeout") == ReadableType.Number) {
+                stillTimeout = Math.max(0, (long) options.getDouble("stillTimeout"));
+            } else {
+                Utils.emitWarning(context, "stillTimeout must be a number", "401");
+            }
+        }
+        if (options.hasKey("stillRadius")) {
+            if (options.getType("stillRadius") == ReadableType.Number) {
+                stillRadius = (float) Math.max(0, options.getDouble("stillRadius"));
+            } else {
+                Utils.emitWarning(context, "stillRadius must be a number", "401");
+            }
+        }
+        if (options.hasKey("pauseWhenStill")) {
+            if (options.getType("pauseWhenStill") == ReadableType.Boolean) {
+                isEnabled = options.getBoolean("pauseWhenStill");
+            } else {
+                Utils.emitWarning(context, "pauseWhenStill must be a boolean", "401");
+            }
+        }
+
+        // Start again with the new settings, resuming updates if they were paused
+        if (isActive) {
+            boolean wasStill = isStill;
+            stop();
+            start();
+            if (wasStill) {
+                postMotionChanged(false);
+            }
+        }
+    }
+
+    /**
+     * Whether location updates are currently paused because the device is still.
+     */
+    public synchronized boolean isStill() {
+        return isStill;
+    }
+
+    /**
+     * Starts watching for stillness, called when location updates are started.
+     */
+    public synchronized void start() {
+        if (isActive) {
+            return;
+        }
+        isActive = true;
+        if (isEnabled) {
+            anchor = null;
+            scheduleStillCheck();
+        }
+    }
+
+    /**
+     * Stops watching, called when location updates are stopped. Updates are not started again, as they
+     * were not wanted.
+     */
+    public synchronized void stop() {
+        if (!isActive) {
+            return;
+        }
+        isActive = false;
+        handler.removeCallbacks(stillCheckRunnable);
+        stopWatchingMotion();
+        isStill = false;
+        anchor = null;
+    }
+
+    // Observer
+
+    @Override
+    public synchronized void onLocationDispatched(Location location) {
+        if (!isEnabled || !isActive || isStill) {
+            return;
+        }
+
+        // Only movement beyond the accuracy of the fixes counts
+        float radius = Math.max(stillRadius, location.getAccuracy());
+        if (anchor == null || location.distanceTo(anchor) > radius) {
+            anchor = location;
+            scheduleStillCheck();
+        }
+    }
+
+    @Override
+    public void onFlush() {}
+
+    // Helpers
+
+    private void scheduleStillCheck() {
+        handler.removeCallbacks(stillCheckRunnable);
+        handler.postDelayed(stillCheckRunnable, stillTimeout);
+    }
+
+    private final Runnable stillCheckRunnable = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (RNMotionGate.this) {
+                if (!isEnabled || !isActive || isStill) {
+                    return;
+                }
+                if (!startWatchingMotion()) {
+                    // Without a way to tell when we move again, it is not safe to stop updates
+                    return;
+                }
+                isStill = true;
+                postMotionChanged(true);
+            }
+        }
+    };
+
+    private void onMotion() {
+        if (!isStill) {
+            return;
+        }
+        stopWatchingMotion();
+        isStill = false;
+        anchor = null;
+        scheduleStillCheck();
+        postMotionChanged(false);
+    }
+
+    private boolean startWatchingMotion() {
+        SensorManager sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        if (sensorManager == null) {
+            return false;
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Sensor significantMotion = sensorManager.getDefaultSensor(Sensor.TYPE_SIGNIFICANT_MOTION);
+            if (significantMotion != null) {
+                if (significantMotionTrigger == null) {
+                    significantMotionTrigger = new SignificantMotionTrigger(this);
+                }
+                if (significantMotionTrigger.request(sensorManager, significantMotion)) {
+                    return true;
+                }
+            }
+        }
+
+        Sensor accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+        if (accelerometer == null) {
+            return false;
+        }
+        motion = 0;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            return sensorManager.registerListener(accelerometerListener, accelerometer, SensorManager.SENSOR_DELAY_NORMAL, ACCELEROMETER_MAX_LATENCY, handler);
+        }
+        return sensorManager.registerListener(accelerometerListener, accelerometer, SensorManager.SENSOR_DELAY_NORMAL, handler);
+    }
+
+    private void stopWatchingMotion() {
+        SensorManager sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        if (sensorManager == null) {
+            return;
+        }
+        if (significantMotionTrigger != null) {
+            Sensor significantMotion = sensorManager.getDefaultSensor(Sensor.TYPE_SIGNIFICANT_MOTION);
+            if (significantMotion != null) {
+                significantMotionTrigger.cancel(sensorManager, significantMotion);
+            }
+        }
+        sensorManager.unregisterListener(accelerometerListener);
+    }
+
+    private void postMotionChanged(final boolean isStill) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onMotionChanged(isStill);
+            }
+        });
+    }
+
+    private final SensorEventListener accelerometerListener = new SensorEventListener() {
+        @Override
+        public void onSensorChanged(SensorEvent event) {
+            float x = event.values[0];
+            float y = event.values[1];
+            float z = event.values[2];
+            float deviation = Math.abs((float) Math.sqrt(x * x + y * y + z * z) - SensorManager.GRAVITY_EARTH);
+
+            synchronized (RNMotionGate.this) {
+                // Smooth the readings so that a single knock does not count as moving
+                motion = MOTION_SMOOTHING * deviation + (1 - MOTION_SMOOTHING) * motion;
+                if (motion > MOTION_THRESHOLD) {
+                    onMotion();
+                }
+            }
+        }
+
+        @Override
+        public void onAccuracyChanged(Sensor sensor, int accuracy) {}
+    };
+
+    /**
+     * Listens to the significant motion sensor. TriggerEventListener only exists from API 18, so this is kept out
+     * of the gate itself and only created behind a version check, which lets the gate load on older devices.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static class SignificantMotionTrigger {
+        private final TriggerEventListener listener;
+
+        SignificantMotionTrigger(final RNMotionGate gate) {
+            listener = new TriggerEventListener() {
+                @Override
+                public void onTrigger(TriggerEvent event) {
+                    synchronized (gate) {
+                        gate.onMotion();
+                    }
+                }
+            };
+        }
+
+        boolean request(SensorManager sensorManager, Sensor sensor) {
+            return sensorManager.requestTriggerSensor(listener, sensor);
+        }
+
+        void cancel(SensorManager sensorManager, Sensor sensor) {
+            sensorManager.cancelTriggerSensor(listener, sensor);
+        }
+    }
+}
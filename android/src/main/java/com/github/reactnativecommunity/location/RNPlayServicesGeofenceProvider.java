@@ -0,0 +1,245 @@
+package com.github.reactnativecommunity.location;
+
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.support.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.WritableArray;
+import com.google.android.gms.location.Geofence;
+import com.google.android.gms.location.GeofenceStatusCodes;
+import com.google.android.gms.location.GeofencingClient;
+import com.google.android.gms.location.GeofencingEvent;
+import com.google.android.gms.location.GeofencingRequest;
+import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Monitors circular geofences with the Play Services GeofencingClient, which does not need location updates
+ * to be running. Play Services only supports circles, so polygons are handed over to the standard engine.
+ * It also allows at most MAX_GEOFENCES per app, so circles beyond that are handed over to the engine as well.
+ */
+public class RNPlayServicesGeofenceProvider implements RNGeofenceProvider {
+    private static final String ACTION_GEOFENCE_TRANSITION = "com.github.reactnativecommunity.location.GEOFENCE_TRANSITION";
+    private static final int REQUEST_GEOFENCE_TRANSITION = 1235;
+    // PendingIntent.FLAG_MUTABLE and API 31 which added it, as we compile against an older SDK.
+    // Geofencing needs to fill in the intent extras.
+    private static final int FLAG_MUTABLE = 1 << 25;
+    private static final int FLAG_MUTABLE_SDK = 31;
+    // The most geofences GeofencingClient accepts from one app
+    private static final int MAX_GEOFENCES = 100;
+
+    private final ReactApplicationContext context;
+    private final GeofencingClient geofencingClient;
+    private final RNStandardGeofenceProvider polygonProvider;
+
+    private PendingIntent pendingIntent = null;
+    // The geofences registered with Play Services, which count towards MAX_GEOFENCES
+    private final Set<String> registeredIds = new HashSet<>();
+
+    public RNPlayServicesGeofenceProvider(ReactApplicationContext context, RNStandardGeofenceProvider polygonProvider) {
+        this.context = context;
+        this.geofencingClient = LocationServices.getGeofencingClient(context);
+        this.polygonProvider = polygonProvider;
+    }
+
+    // Public interface
+
+    @Override
+    public synchronized void addGeofences(final List<RNGeofence> geofences, final Promise promise) {
+        final List<String> ids = new ArrayList<>();
+        for (RNGeofence geofence : geofences) {
+            ids.add(geofence.id);
+        }
+        // Replacing a registered geofence does not take up another slot
+        Set<String> otherRegisteredIds = new HashSet<>(registeredIds);
+        otherRegisteredIds.removeAll(ids);
+        int available = MAX_GEOFENCES - otherRegisteredIds.size();
+
+        List<Geofence> circles = new ArrayList<>();
+        final List<String> circleIds = new ArrayList<>();
+        List<RNGeofence> engineGeofences = new ArrayList<>();
+        List<String> engineIds = new ArrayList<>();
+        for (RNGeofence geofence : geofences) {
+            if (geofence.isCircle() && circles.size() < available) {
+                circles.add(toPlayServicesGeofence(geofence));
+                circleIds.add(geofence.id);
+            } else {
+                engineGeofences.add(geofence);
+                engineIds.add(geofence.id);
+            }
+        }
+
+        // A geofence may have changed shape, so make sure it is only monitored in one place. The previous
+        // state is kept so it can be restored if Play Services does not accept the circles.
+        final List<RNGeofence> previousEngineGeofences = polygonProvider.get(ids);
+        final Set<String> previousRegisteredIds = new HashSet<>(registeredIds);
+        polygonProvider.remove(ids);
+        polygonProvider.add(engineGeofences);
+        registeredIds.removeAll(engineIds);
+        registeredIds.addAll(circleIds);
+        final List<String> movedIds = new ArrayList<>(engineIds);
+        movedIds.retainAll(previousRegisteredIds);
+        if (!movedIds.isEmpty()) {
+            geofencingClient.removeGeofences(movedIds);
+        }
+
+        if (circles.isEmpty()) {
+            promise.resolve(null);
+            return;
+        }
+
+        GeofencingRequest request = new GeofencingRequest.Builder()
+                .setInitialTrigger(GeofencingRequest.INITIAL_TRIGGER_ENTER)
+                .addGeofences(circles)
+                .build();
+        Task<Void> task;
+        try {
+            task = geofencingClient.addGeofences(request, getPendingIntent());
+        } catch (SecurityException e) {
+            rollBack(ids, movedIds, previousEngineGeofences, circleIds, previousRegisteredIds);
+            promise.reject("403", "Attempted to add geofences without location permissions", e);
+            return;
+        }
+        task.addOnSuccessListener(new OnSuccessListener<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                promise.resolve(null);
+            }
+        });
+        task.addOnFailureListener(new OnFailureListener() {
+            @Override
+            public void onFailure(@NonNull Exception e) {
+                rollBack(ids, movedIds, previousEngineGeofences, circleIds, previousRegisteredIds);
+                promise.reject("500", "Error adding geofences", e);
+            }
+        });
+    }
+
+    @Override
+    public synchronized void removeGeofences(List<String> ids, Promise promise) {
+        polygonProvider.remove(ids);
+        registeredIds.removeAll(ids);
+        handleTask(geofencingClient.removeGeofences(ids), promise, "Error removing geofences");
+    }
+
+    @Override
+    public synchronized void removeAllGeofences(Promise promise) {
+        polygonProvider.clear();
+        registeredIds.clear();
+        handleTask(geofencingClient.removeGeofences(getPendingIntent()), promise, "Error removing geofences");
+    }
+
+    // Helpers
+
+    /**
+     * Puts the engine back the way it was before a failed addGeofences. Play Services registers all of the
+     * circles or none of them, so the registered geofences they were replacing are still in place. Geofences
+     * which were moved off Play Services stay in the engine, as they are no longer monitored anywhere else.
+     */
+    private synchronized void rollBack(List<String> ids, List<String> movedIds, List<RNGeofence> previousEngineGeofences, List<String> circleIds, Set<String> previousRegisteredIds) {
+        List<String> restoredIds = new ArrayList<>(ids);
+        restoredIds.removeAll(movedIds);
+        polygonProvider.remove(restoredIds);
+        polygonProvider.add(previousEngineGeofences);
+
+        registeredIds.removeAll(circleIds);
+        for (String id : circleIds) {
+            if (previousRegisteredIds.contains(id)) {
+                registeredIds.add(id);
+            }
+        }
+    }
+
+    private Geofence toPlayServicesGeofence(RNGeofence geofence) {
+        int transitionTypes = Geofence.GEOFENCE_TRANSITION_ENTER | Geofence.GEOFENCE_TRANSITION_EXIT;
+        Geofence.Builder builder = new Geofence.Builder()
+                .setRequestId(geofence.id)
+                .setCircularRegion(geofence.latitude, geofence.longitude, geofence.radius)
+                .setExpirationDuration(Geofence.NEVER_EXPIRE);
+        if (geofence.dwellTime > 0) {
+            transitionTypes |= Geofence.GEOFENCE_TRANSITION_DWELL;
+            builder.setLoiteringDelay((int) Math.min(Integer.MAX_VALUE, geofence.dwellTime));
+        }
+        return builder.setTransitionTypes(transitionTypes).build();
+    }
+
+    private void handleTask(Task<Void> task, final Promise promise, final String errorMessage) {
+        task.addOnSuccessListener(new OnSuccessListener<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                promise.resolve(null);
+            }
+        });
+        task.addOnFailureListener(new OnFailureListener() {
+            @Override
+            public void onFailure(@NonNull Exception e) {
+                promise.reject("500", errorMessage, e);
+            }
+        });
+    }
+
+    private synchronized PendingIntent getPendingIntent() {
+        if (pendingIntent != null) {
+            return pendingIntent;
+        }
+
+        context.registerReceiver(geofenceReceiver, new IntentFilter(ACTION_GEOFENCE_TRANSITION));
+
+        int flags = PendingIntent.FLAG_UPDATE_CURRENT;
+        if (Build.VERSION.SDK_INT >= FLAG_MUTABLE_SDK) {
+            flags |= FLAG_MUTABLE;
+        }
+        Intent intent = new Intent(ACTION_GEOFENCE_TRANSITION).setPackage(context.getPackageName());
+        pendingIntent = PendingIntent.getBroadcast(context, REQUEST_GEOFENCE_TRANSITION, intent, flags);
+        return pendingIntent;
+    }
+
+    private final BroadcastReceiver geofenceReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context receiverContext, Intent intent) {
+            GeofencingEvent event = GeofencingEvent.fromIntent(intent);
+            if (event == null) {
+                return;
+            }
+            if (event.hasError()) {
+                Utils.emitWarning(context, "Geofencing error: " + GeofenceStatusCodes.getStatusCodeString(event.getErrorCode()), "500");
+                return;
+            }
+
+            String transition;
+            switch (event.getGeofenceTransition()) {
+                case Geofence.GEOFENCE_TRANSITION_ENTER:
+                    transition = RNGeofence.TRANSITION_ENTER;
+                    break;
+                case Geofence.GEOFENCE_TRANSITION_EXIT:
+                    transition = RNGeofence.TRANSITION_EXIT;
+                    break;
+                case Geofence.GEOFENCE_TRANSITION_DWELL:
+                    transition = RNGeofence.TRANSITION_DWELL;
+                    break;
+                default:
+                    return;
+            }
+
+            WritableArray transitions = Arguments.createArray();
+            for (Geofence geofence : event.getTriggeringGeofences()) {
+                transitions.pushMap(RNGeofence.transitionToMap(geofence.getRequestId(), transition, event.getTriggeringLocation()));
+            }
+            Utils.emitEvent(context, "geofenceTransition", transitions);
+        }
+    };
+}
@@ -6,15 +6,16 @@ import android.content.Intent;
 import android.content.IntentSender;
 import android.content.pm.PackageManager;
 import android.location.Location;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.v4.app.ActivityCompat;
 
-import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.ReadableType;
-import com.facebook.react.bridge.WritableArray;
 import com.google.android.gms.common.api.ResolvableApiException;
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationCallback;
@@ -28,24 +29,33 @@ import com.google.android.gms.tasks.OnFailureListener;
 import com.google.android.gms.tasks.OnSuccessListener;
 import com.google.android.gms.tasks.Task;
 
-import java.lang.ref.WeakReference;
+import javax.annotation.Nullable;
 
 public class RNPlayServicesLocationProvider implements RNLocationProvider {
+    // The interval of a LocationRequest which has not been given one
+    public static final long DEFAULT_INTERVAL = 60 * 60 * 1000;
     private static final int REQUEST_CHECK_SETTINGS = 1234;
+    // How long a successful settings check is trusted for the same priority
+    private static final long SETTINGS_CHECK_TTL = 60000;
 
     private final ReactApplicationContext context;
+    private final RNLocationDispatcher dispatcher;
     private final FusedLocationProviderClient locationProvider;
     private final SettingsClient locationSettingsClient;
 
     private LocationRequest locationRequest = new LocationRequest();
-    private boolean isUpdatingLocation = false;
+    // Read by the location callback on the dispatcher thread
+    private volatile boolean isUpdatingLocation = false;
+    private boolean isRegistered = false;
+    private boolean isRequestChanged = false;
+    private int checkedPriority = -1;
+    private long checkedTime = 0;
 
-    private WeakReference<Activity> pendingConfigureActivity = null;
-    private ReadableMap pendingConfigureOptions = null;
     private Promise pendingConfigurePromise = null;
 
-    public RNPlayServicesLocationProvider(Activity activity, ReactApplicationContext context) {
+    public RNPlayServicesLocationProvider(Activity activity, ReactApplicationContext context, RNLocationDispatcher dispatcher) {
         this.context = context;
+        this.dispatcher = dispatcher;
         if (activity != null) {
             locationProvider = LocationServices.getFusedLocationProviderClient(activity);
             locationSettingsClient = LocationServices.getSettingsClient(activity);
@@ -58,15 +68,17 @@ public class RNPlayServicesLocationProvider implements RNLocationProvider {
     // Public interface
 
     @Override
-    public void configure(final Activity activity, final ReadableMap options, final Promise promise) {
+    public void configure(@Nullable final Activity activity, final ReadableMap options, final Promise promise) {
         boolean hasChanges = false;
 
         // Distance filter
         if (options.hasKey("distanceFilter")) {
             if (options.getType("distanceFilter") == ReadableType.Number) {
                 Double distanceFilter = options.getDouble("distanceFilter");
-                locationRequest.setSmallestDisplacement(distanceFilter.floatValue());
-                hasChanges = true;
+                if (distanceFilter.floatValue() != locationRequest.getSmallestDisplacement()) {
+                    locationRequest.setSmallestDisplacement(distanceFilter.floatValue());
+                    hasChanges = true;
+                }
             } else {
                 Utils.emitWarning(context, "distanceFilter must be a number", "401");
             }
@@ -79,21 +91,22 @@ public class RNPlayServicesLocationProvider implements RNLocationProvider {
                 if (desiredAccuracy.hasKey("android")) {
                     if (desiredAccuracy.getType("android") == ReadableType.String) {
                         String desiredAccuracyAndroid = desiredAccuracy.getString("android");
+                        int priority = -1;
                         if (desiredAccuracyAndroid.equals("balancedPowerAccuracy")) {
-                            locationRequest.setPriority(LocationRequest.PRIORITY_BALANCED_POWER_ACCURACY);
-                            hasChanges = true;
+                            priority = LocationRequest.PRIORITY_BALANCED_POWER_ACCURACY;
                         } else if (desiredAccuracyAndroid.equals("highAccuracy")) {
-                            locationRequest.setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY);
-                            hasChanges = true;
+                            priority = LocationRequest.PRIORITY_HIGH_ACCURACY;
                         } else if (desiredAccuracyAndroid.equals("lowPower")) {
-                            locationRequest.setPriority(LocationRequest.PRIORITY_LOW_POWER);
-                            hasChanges = true;
+                            priority = LocationRequest.PRIORITY_LOW_POWER;
                         } else if (desiredAccuracyAndroid.equals("noPower")) {
-                            locationRequest.setPriority(LocationRequest.PRIORITY_NO_POWER);
-                            hasChanges = true;
+                            priority = LocationRequest.PRIORITY_NO_POWER;
                         } else {
                             Utils.emitWarning(context, "desiredAccuracy.android was passed an unknown value: " + desiredAccuracyAndroid, "401");
                         }
+                        if (priority != -1 && priority != locationRequest.getPriority()) {
+                            locationRequest.setPriority(priority);
+                            hasChanges = true;
+                        }
                     } else {
                         Utils.emitWarning(context, "desiredAccuracy.android must be a string", "401");
                     }
@@ -107,8 +120,10 @@ public class RNPlayServicesLocationProvider implements RNLocationProvider {
         if (options.hasKey("interval")) {
             if (options.getType("interval") == ReadableType.Number) {
                 Double interval = options.getDouble("interval");
-                locationRequest.setInterval(interval.longValue());
-                hasChanges = true;
+                if (interval.longValue() != locationRequest.getInterval()) {
+                    locationRequest.setInterval(interval.longValue());
+                    hasChanges = true;
+                }
             } else {
                 Utils.emitWarning(context, "interval must be a number", "401");
             }
@@ -118,8 +133,10 @@ public class RNPlayServicesLocationProvider implements RNLocationProvider {
         if (options.hasKey("fastestInterval")) {
             if (options.getType("fastestInterval") == ReadableType.Number) {
                 Double fastestInterval = options.getDouble("fastestInterval");
-                locationRequest.setFastestInterval(fastestInterval.longValue());
-                hasChanges = true;
+                if (fastestInterval.longValue() != locationRequest.getFastestInterval()) {
+                    locationRequest.setFastestInterval(fastestInterval.longValue());
+                    hasChanges = true;
+                }
             } else {
                 Utils.emitWarning(context, "fastestInterval must be a number", "401");
             }
@@ -129,8 +146,10 @@ public class RNPlayServicesLocationProvider implements RNLocationProvider {
         if (options.hasKey("maxWaitTime")) {
             if (options.getType("maxWaitTime") == ReadableType.Number) {
                 Double maxWaitTime = options.getDouble("maxWaitTime");
-                locationRequest.setMaxWaitTime(maxWaitTime.longValue());
-                hasChanges = true;
+                if (maxWaitTime.longValue() != locationRequest.getMaxWaitTime()) {
+                    locationRequest.setMaxWaitTime(maxWaitTime.longValue());
+                    hasChanges = true;
+                }
             } else {
                 Utils.emitWarning(context, "maxWaitTime must be a number", "401");
             }
@@ -141,6 +160,15 @@ public class RNPlayServicesLocationProvider implements RNLocationProvider {
             promise.resolve(null);
             return;
         }
+        isRequestChanged = true;
+
+        // The settings only depend on the priority, so skip the check when it recently passed for this one
+        final int priority = locationRequest.getPriority();
+        if (priority == checkedPriority && SystemClock.elapsedRealtime() - checkedTime < SETTINGS_CHECK_TTL) {
+            reSetUpLocationListeners();
+            promise.resolve(null);
+            return;
+        }
 
         // Make the request to change the configuration
         LocationSettingsRequest locationSettingsRequest = new LocationSettingsRequest.Builder()
@@ -152,6 +180,8 @@ public class RNPlayServicesLocationProvider implements RNLocationProvider {
         task.addOnSuccessListener(new OnSuccessListener<LocationSettingsResponse>() {
             @Override
             public void onSuccess(LocationSettingsResponse locationSettingsResponse) {
+                checkedPriority = priority;
+                checkedTime = SystemClock.elapsedRealtime();
                 reSetUpLocationListeners();
                 promise.resolve(null);
             }
@@ -161,13 +191,17 @@ public class RNPlayServicesLocationProvider implements RNLocationProvider {
         task.addOnFailureListener(new OnFailureListener() {
             @Override
             public void onFailure(@NonNull Exception e) {
-                if (e instanceof ResolvableApiException) {
+                checkedPriority = -1;
+                if (e instanceof ResolvableApiException && activity == null) {
+                    // Only a configure call from JS in the foreground may ask the user to change the settings
+                    String message = "The location settings do not satisfy the request, and can only be changed from a configure call while the app is in the foreground";
+                    Utils.emitWarning(context, message, "503");
+                    promise.reject("500", message, e);
+                } else if (e instanceof ResolvableApiException) {
                     // Location settings are not satisfied, but this can be fixed
                     // by showing the user a dialog.
                     try {
                         // Save the settings we're currently trying to use along with the promise
-                        pendingConfigureActivity = new WeakReference<>(activity);
-                        pendingConfigureOptions = options;
                         pendingConfigurePromise = promise;
                         // Show the dialog by calling startResolutionForResult(),
                         // and check the result in onActivityResult().
@@ -196,61 +230,137 @@ public class RNPlayServicesLocationProvider implements RNLocationProvider {
         reSetUpLocationListeners();
     }
 
+    @Override
+    public void getLastKnownLocation(final SingleLocationListener listener) {
+        if (!hasLocationPermission()) {
+            listener.onLocation(null);
+            return;
+        }
+
+        Task<Location> task = locationProvider.getLastLocation();
+        task.addOnSuccessListener(new OnSuccessListener<Location>() {
+            @Override
+            public void onSuccess(Location location) {
+                listener.onLocation(location);
+            }
+        });
+        task.addOnFailureListener(new OnFailureListener() {
+            @Override
+            public void onFailure(@NonNull Exception e) {
+                listener.onLocation(null);
+            }
+        });
+    }
+
+    @Override
+    public void requestSingleLocation(final long timeout, final SingleLocationListener listener) {
+        if (!hasLocationPermission()) {
+            listener.onLocation(null);
+            return;
+        }
+
+        final Handler handler = new Handler(Looper.getMainLooper());
+        final boolean[] isFinished = { false };
+        final LocationCallback singleCallback = new LocationCallback() {
+            @Override
+            public void onLocationResult(LocationResult locationResult) {
+                if (locationResult == null || isFinished[0]) {
+                    return;
+                }
+                isFinished[0] = true;
+                handler.removeCallbacksAndMessages(null);
+                locationProvider.removeLocationUpdates(this);
+                listener.onLocation(locationResult.getLastLocation());
+            }
+        };
+
+        // Use the configured priority, but ask for a single location as soon as possible
+        LocationRequest singleRequest = new LocationRequest()
+                .setPriority(locationRequest.getPriority())
+                .setInterval(0)
+                .setFastestInterval(0)
+                .setNumUpdates(1);
+        locationProvider.requestLocationUpdates(singleRequest, singleCallback, Looper.getMainLooper());
+
+        if (timeout > 0) {
+            handler.postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    if (isFinished[0]) {
+                        return;
+                    }
+                    isFinished[0] = true;
+                    locationProvider.removeLocationUpdates(singleCallback);
+                    listener.onLocation(null);
+                }
+            }, timeout);
+        }
+    }
+
     // Callbacks
 
     public void onActivityResult(int requestCode, int resultCode, Intent data) {
         if (requestCode != REQUEST_CHECK_SETTINGS) return;
 
-        if (resultCode == Activity.RESULT_OK
-                && pendingConfigureActivity != null
-                && pendingConfigureActivity.get() != null
-                && pendingConfigureOptions != null
-                && pendingConfigurePromise != null)
-        {
-            // If the resolution was ok, try to configure again
-            configure(pendingConfigureActivity.get(), pendingConfigureOptions, pendingConfigurePromise);
+        if (resultCode == Activity.RESULT_OK && pendingConfigurePromise != null) {
+            // If the resolution was ok, the settings now satisfy the request which is already set up
+            checkedPriority = locationRequest.getPriority();
+            checkedTime = SystemClock.elapsedRealtime();
+            reSetUpLocationListeners();
+            pendingConfigurePromise.resolve(null);
         } else if (pendingConfigurePromise != null) {
             // If not, we reject the promise
             pendingConfigurePromise.reject("500", "Error configuring react-native-location");
         }
 
         // Cleanup our stored state
-        pendingConfigureActivity = null;
-        pendingConfigureOptions = null;
         pendingConfigurePromise = null;
     }
 
     // Helper methods
 
+    private boolean hasLocationPermission() {
+        int finePermission = ActivityCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION);
+        int coarsePermission = ActivityCompat.checkSelfPermission(context, Manifest.permission.ACCESS_COARSE_LOCATION);
+        return finePermission == PackageManager.PERMISSION_GRANTED || coarsePermission == PackageManager.PERMISSION_GRANTED;
+    }
+
+    /**
+     * Brings the registration in line with the current request, only calling into Play Services when the
+     * request has changed since it was registered or updates have been started or stopped.
+     */
     private void reSetUpLocationListeners() {
         if (isUpdatingLocation) {
-            int finePermission = ActivityCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION);
-            int coarsePermission = ActivityCompat.checkSelfPermission(context, Manifest.permission.ACCESS_COARSE_LOCATION);
-            if (finePermission != PackageManager.PERMISSION_GRANTED && coarsePermission != PackageManager.PERMISSION_GRANTED) {
+            if (isRegistered && !isRequestChanged) {
+                return;
+            }
+            if (!hasLocationPermission()) {
                 Utils.emitWarning(context, "Attempted to start updating the location without location permissions", "403");
                 return;
             }
-            locationProvider.requestLocationUpdates(locationRequest, locationCallback, null);
-        } else {
+            locationProvider.requestLocationUpdates(locationRequest, locationCallback, dispatcher.getLooper());
+            dispatcher.getStats().providerRegistrations.incrementAndGet();
+            isRegistered = true;
+            isRequestChanged = false;
+        } else if (isRegistered) {
             locationProvider.removeLocationUpdates(locationCallback);
+            isRegistered = false;
         }
     }
 
     private LocationCallback locationCallback = new LocationCallback() {
         @Override
         public void onLocationResult(LocationResult locationResult) {
-            if (locationResult == null || !isUpdatingLocation) {
+            if (locationResult == null) {
                 return;
             }
-
-            // Map the locations to maps
-            WritableArray results = Arguments.createArray();
-            for (Location location : locationResult.getLocations()) {
-                results.pushMap(Utils.locationToMap(location));
+            if (!isUpdatingLocation) {
+                dispatcher.getStats().locationsDroppedWhileStopped.addAndGet(locationResult.getLocations().size());
+                return;
             }
 
-            // Emit the event
-            Utils.emitEvent(context, "locationUpdated", results);
+            // Hand the locations over to be batched and emitted
+            dispatcher.dispatch(locationResult.getLocations());
         }
     };
 
@@ -0,0 +1,218 @@
+package com.github.reactnativecommunity.location;
+
+import android.app.Activity;
+import android.location.Location;
+import android.os.Handler;
+import android.os.SystemClock;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Replays a recorded track instead of using the device location, for testing without GPS. The track is read
+ * from a GPX file or a location journal, and is replayed at a speed multiplier on the dispatcher thread. The times
+ * of the replayed locations are shifted to start now and are scaled by the speed multiplier.
+ */
+public class RNReplayLocationProvider implements RNLocationProvider {
+    private static final long TICK_INTERVAL = 10;
+    // Fixes due in the same tick are dispatched together, which bounds the size of a single burst
+    private static final int MAX_FIXES_PER_TICK = 512;
+
+    private final ReactApplicationContext context;
+    private final RNLocationDispatcher dispatcher;
+
+    private @Nullable RNReplayTrack track = null;
+    private double speed = 1;
+    private boolean isLooping = false;
+
+    private final Handler handler;
+    private boolean isPlaying = false;
+    private @Nullable Location lastLocation = null;
+    private int nextIndex = 0;
+    private long playbackStartElapsed;
+    private long playbackStartTime;
+    private long trackStartTime;
+
+    public RNReplayLocationProvider(ReactApplicationContext context, RNLocationDispatcher dispatcher) {
+        this.context = context;
+        this.dispatcher = dispatcher;
+        this.handler = new Handler(dispatcher.getLooper());
+    }
+
+    // Public interface
+
+    @Override
+    public synchronized void configure(Activity activity, ReadableMap options, Promise promise) {
+        if (!options.hasKey("replay")) {
+            promise.resolve(null);
+            return;
+        }
+        if (options.getType("replay") != ReadableType.Map) {
+            promise.reject("401", "replay must be an object");
+            return;
+        }
+        ReadableMap replay = options.getMap("replay");
+
+        // Playback settings
+        if (replay.hasKey("speed")) {
+            if (replay.getType("speed") != ReadableType.Number || replay.getDouble("speed") <= 0) {
+                promise.reject("401", "replay.speed must be a positive number");
+                return;
+            }
+            speed = replay.getDouble("speed");
+        }
+        if (replay.hasKey("loop")) {
+            if (replay.getType("loop") != ReadableType.Boolean) {
+                promise.reject("401", "replay.loop must be a boolean");
+                return;
+            }
+            isLooping = replay.getBoolean("loop");
+        }
+
+        // Track
+        try {
+            track = loadTrack(replay);
+        } catch (IllegalArgumentException e) {
+            promise.reject("401", e.getMessage());
+            return;
+        } catch (IOException e) {
+            promise.reject("500", "Error loading the replay track", e);
+            return;
+        }
+        nextIndex = 0;
+        if (isPlaying) {
+            restartPlayback();
+        }
+        promise.resolve(null);
+    }
+
+    @Override
+    public synchronized void startUpdatingLocation() {
+        if (isPlaying) {
+            return;
+        }
+        if (track == null || track.size() == 0) {
+            Utils.emitWarning(context, "There is no track to replay. Pass a replay file to configure.", "503");
+            return;
+        }
+
+        isPlaying = true;
+        restartPlayback();
+    }
+
+    @Override
+    public synchronized void stopUpdatingLocation() {
+        if (!isPlaying) {
+            return;
+        }
+        isPlaying = false;
+        handler.removeCallbacks(tickRunnable);
+    }
+
+    @Override
+    public synchronized void getLastKnownLocation(SingleLocationListener listener) {
+        listener.onLocation(lastLocation);
+    }
+
+    @Override
+    public synchronized void requestSingleLocation(long timeout, SingleLocationListener listener) {
+        // There is no device to ask, so the best we can do is the fix which was replayed last
+        listener.onLocation(lastLocation);
+    }
+
+    // Helpers
+
+    private RNReplayTrack loadTrack(ReadableMap replay) throws IOException {
+        if (!replay.hasKey("file")) {
+            // Replay what this app has recorded
+            return RNReplayTrack.fromLocations(RNLocationJournal.getInstance(context).readLocations(Long.MIN_VALUE, Long.MAX_VALUE, 0));
+        }
+        if (replay.getType("file") != ReadableType.String) {
+            throw new IllegalArgumentException("replay.file must be a string");
+        }
+        String path = replay.getString("file");
+        File file = new File(path.startsWith("file://") ? path.substring("file://".length()) : path);
+
+        String format = path.toLowerCase().endsWith(".gpx") ? "gpx" : "journal";
+        if (replay.hasKey("format")) {
+            if (replay.getType("format") != ReadableType.String) {
+                throw new IllegalArgumentException("replay.format must be a string");
+            }
+            format = replay.getString("format");
+        }
+        switch (format) {
+            case "gpx":
+                return RNReplayTrack.fromGpx(file);
+            case "journal":
+                // The live journal is read through the shared instance rather than mapped a second time
+                RNLocationJournal journal = RNLocationJournal.getInstance(context);
+                if (file.getCanonicalFile().equals(journal.getFile().getCanonicalFile())) {
+                    return RNReplayTrack.fromLocations(journal.readLocations(Long.MIN_VALUE, Long.MAX_VALUE, 0));
+                }
+                return RNReplayTrack.fromJournal(file);
+            case "compact":
+                return RNReplayTrack.fromCompact(file);
+            default:
+                throw new IllegalArgumentException("replay.format was passed an unknown value: " + format);
+        }
+    }
+
+    private void restartPlayback() {
+        if (track == null || track.size() == 0) {
+            return;
+        }
+        if (nextIndex >= track.size()) {
+            nextIndex = 0;
+        }
+        playbackStartElapsed = SystemClock.elapsedRealtime();
+        playbackStartTime = System.currentTimeMillis();
+        trackStartTime = track.getTime(nextIndex);
+        handler.removeCallbacks(tickRunnable);
+        handler.post(tickRunnable);
+    }
+
+    private final Runnable tickRunnable = new Runnable() {
+        @Override
+        public void run() {
+            List<Location> due = new ArrayList<>();
+            synchronized (RNReplayLocationProvider.this) {
+                if (!isPlaying || track == null) {
+                    return;
+                }
+
+                // Find every fix which is due by now on the scaled track clock
+                long trackElapsed = (long) ((SystemClock.elapsedRealtime() - playbackStartElapsed) * speed);
+                while (nextIndex < track.size() && due.size() < MAX_FIXES_PER_TICK
+                        && track.getTime(nextIndex) - trackStartTime <= trackElapsed) {
+                    long offset = (long) ((track.getTime(nextIndex) - trackStartTime) / speed);
+                    due.add(track.toLocation(nextIndex, playbackStartTime + offset));
+                    nextIndex++;
+                }
+                if (!due.isEmpty()) {
+                    lastLocation = due.get(due.size() - 1);
+                }
+
+                if (nextIndex < track.size()) {
+                    handler.postDelayed(this, TICK_INTERVAL);
+                } else if (isLooping) {
+                    nextIndex = 0;
+                    restartPlayback();
+                }
+            }
+
+            // Dispatch outside of our lock, as the dispatcher calls back into observers
+            if (!due.isEmpty()) {
+                dispatcher.dispatch(due);
+            }
+        }
+    };
+}
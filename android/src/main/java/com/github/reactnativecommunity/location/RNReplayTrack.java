@@ -0,0 +1,256 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+/**
+ * A recorded track which can be replayed by RNReplayLocationProvider. The fixes are kept in primitive arrays
+ * so that large tracks can be replayed at high rates without holding a Location object per fix.
+ */
+public class RNReplayTrack {
+    private static final String PROVIDER_NAME = "replay";
+    // GPX does not record accuracy, so assume a good GPS fix
+    private static final float GPX_ACCURACY = 5;
+    // GPX points without a time are replayed one second apart
+    private static final long GPX_DEFAULT_SPACING = 1000;
+
+    private int size = 0;
+    private long[] times = new long[256];
+    private double[] latitudes = new double[256];
+    private double[] longitudes = new double[256];
+    private double[] altitudes = new double[256];
+    private float[] accuracies = new float[256];
+    private float[] speeds = new float[256];
+    private float[] bearings = new float[256];
+
+    // Public interface
+
+    public int size() {
+        return size;
+    }
+
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    /**
+     * Creates the location for the given fix, with its time replaced by the given one.
+     */
+    public Location toLocation(int index, long time) {
+        Location location = new Location(PROVIDER_NAME);
+        location.setTime(time);
+        location.setLatitude(latitudes[index]);
+        location.setLongitude(longitudes[index]);
+        location.setAltitude(altitudes[index]);
+        location.setAccuracy(accuracies[index]);
+        if (speeds[index] >= 0) {
+            location.setSpeed(speeds[index]);
+        }
+        if (bearings[index] >= 0) {
+            location.setBearing(bearings[index]);
+        }
+        return location;
+    }
+
+    public static RNReplayTrack fromLocations(List<Location> locations) {
+        RNReplayTrack track = new RNReplayTrack();
+        for (Location location : locations) {
+            track.add(
+                    location.getTime(),
+                    location.getLatitude(),
+                    location.getLongitude(),
+                    location.getAltitude(),
+                    location.getAccuracy(),
+                    location.hasSpeed() ? location.getSpeed() : -1,
+                    location.hasBearing() ? location.getBearing() : -1
+            );
+        }
+        return track;
+    }
+
+    /**
+     * Reads a journal file without writing to it, throwing an IllegalArgumentException if it is not a journal.
+     */
+    public static RNReplayTrack fromJournal(File file) throws IOException {
+        return fromLocations(RNLocationJournal.readFile(file));
+    }
+
+    /**
+     * Reads a file in the compact encoding of RNLocationCodec, such as the body of a native upload. The file
+     * may be gzipped.
+     */
+    public static RNReplayTrack fromCompact(File file) throws IOException {
+        byte[] data = readFully(new FileInputStream(file));
+        if (data.length >= 2 && (data[0] & 0xFF) == 0x1F && (data[1] & 0xFF) == 0x8B) {
+            data = readFully(new GZIPInputStream(new ByteArrayInputStream(data)));
+        }
+        return fromLocations(RNLocationCodec.decode(data));
+    }
+
+    /**
+     * Reads the track points, route points and waypoints of a GPX file, in the order they appear.
+     */
+    public static RNReplayTrack fromGpx(File file) throws IOException {
+        final RNReplayTrack track = new RNReplayTrack();
+        try {
+            SAXParserFactory.newInstance().newSAXParser().parse(file, new DefaultHandler() {
+                private boolean isInPoint = false;
+                private double latitude;
+                private double longitude;
+                private double altitude;
+                private long time;
+                private final StringBuilder text = new StringBuilder();
+
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+                    String name = localName(qName);
+                    text.setLength(0);
+                    if (name.equals("trkpt") || name.equals("rtept") || name.equals("wpt")) {
+                        String latitudeValue = attributes.getValue("lat");
+                        String longitudeValue = attributes.getValue("lon");
+                        if (latitudeValue == null || longitudeValue == null) {
+                            throw new SAXException("GPX point is missing its lat or lon attribute");
+                        }
+                        isInPoint = true;
+                        latitude = Double.parseDouble(latitudeValue);
+                        longitude = Double.parseDouble(longitudeValue);
+                        altitude = 0;
+                        time = track.size > 0 ? track.times[track.size - 1] + GPX_DEFAULT_SPACING : 0;
+                    }
+                }
+
+                @Override
+                public void characters(char[] ch, int start, int length) {
+                    if (isInPoint) {
+                        text.append(ch, start, length);
+                    }
+                }
+
+                @Override
+                public void endElement(String uri, String localName, String qName) throws SAXException {
+                    if (!isInPoint) {
+                        return;
+                    }
+                    String name = localName(qName);
+                    switch (name) {
+                        case "ele":
+                            altitude = Double.parseDouble(text.toString().trim());
+                            break;
+                        case "time":
+                            time = parseTime(text.toString().trim());
+                            break;
+                        case "trkpt":
+                        case "rtept":
+                        case "wpt":
+                            track.add(time, latitude, longitude, altitude, GPX_ACCURACY, -1, -1);
+                            isInPoint = false;
+                            break;
+                    }
+                }
+            });
+        } catch (SAXException | ParserConfigurationException | NumberFormatException e) {
+            throw new IOException("Could not parse the GPX file: " + e.getLocalizedMessage(), e);
+        }
+        return track;
+    }
+
+    // Helpers
+
+    private static byte[] readFully(InputStream input) throws IOException {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } finally {
+            input.close();
+        }
+    }
+
+    private void add(long time, double latitude, double longitude, double altitude, float accuracy, float speed, float bearing) {
+        if (size == times.length) {
+            int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            altitudes = Arrays.copyOf(altitudes, capacity);
+            accuracies = Arrays.copyOf(accuracies, capacity);
+            speeds = Arrays.copyOf(speeds, capacity);
+            bearings = Arrays.copyOf(bearings, capacity);
+        }
+        times[size] = time;
+        latitudes[size] = latitude;
+        longitudes[size] = longitude;
+        altitudes[size] = altitude;
+        accuracies[size] = accuracy;
+        speeds[size] = speed;
+        bearings[size] = bearing;
+        size++;
+    }
+
+    private static String localName(String qName) {
+        int colon = qName.indexOf(':');
+        return colon >= 0 ? qName.substring(colon + 1) : qName;
+    }
+
+    /**
+     * Parses an ISO 8601 time such as 2019-01-01T12:00:00.500Z or 2019-01-01T12:00:00+01:00.
+     */
+    private static long parseTime(String value) throws SAXException {
+        if (value.length() < 19) {
+            throw new SAXException("GPX time is not valid: " + value);
+        }
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        long time;
+        try {
+            time = format.parse(value.substring(0, 19)).getTime();
+        } catch (ParseException e) {
+            throw new SAXException("GPX time is not valid: " + value);
+        }
+
+        // Fractional seconds
+        int index = 19;
+        if (index < value.length() && value.charAt(index) == '.') {
+            int start = ++index;
+            while (index < value.length() && Character.isDigit(value.charAt(index))) {
+                index++;
+            }
+            String fraction = (value.substring(start, index) + "000").substring(0, 3);
+            time += Integer.parseInt(fraction);
+        }
+
+        // Time zone offset
+        if (index < value.length() && (value.charAt(index) == '+' || value.charAt(index) == '-')) {
+            String offset = value.substring(index + 1).replace(":", "");
+            if (offset.length() >= 4) {
+                long offsetMillis = (Integer.parseInt(offset.substring(0, 2)) * 60L + Integer.parseInt(offset.substring(2, 4))) * 60000L;
+                time += value.charAt(index) == '+' ? -offsetMillis : offsetMillis;
+            }
+        }
+        return time;
+    }
+}
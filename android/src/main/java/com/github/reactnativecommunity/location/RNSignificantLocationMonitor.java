@@ -0,0 +1,108 @@
+package com.github.reactnativecommunity.location;
+
+import android.content.Context;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Bundle;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.WritableArray;
+
+import javax.annotation.Nullable;
+
+/**
+ * The Android counterpart of significant location change monitoring on iOS. Locations are taken from the
+ * passive provider, which sees every fix requested by other apps and the system, including the fused
+ * provider, so this never turns on GPS or the network provider itself. A location is only sent to JS once
+ * it is at least DISTANCE_THRESHOLD from the last one which was sent.
+ */
+public class RNSignificantLocationMonitor {
+    // iOS reports significant changes of around 500m
+    private static final float DISTANCE_THRESHOLD = 500;
+    private static final long MIN_INTERVAL = 60000;
+
+    private final ReactApplicationContext context;
+    private final RNLocationDispatcher dispatcher;
+    private boolean isMonitoring = false;
+    // Written on the dispatcher thread by the listener
+    private @Nullable Location lastSentLocation = null;
+
+    public RNSignificantLocationMonitor(ReactApplicationContext context, RNLocationDispatcher dispatcher) {
+        this.context = context;
+        this.dispatcher = dispatcher;
+    }
+
+    // Public interface
+
+    public synchronized void start() {
+        if (isMonitoring) {
+            return;
+        }
+        LocationManager locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+        if (locationManager == null) {
+            Utils.emitWarning(context, "No location manager is available.", "502");
+            return;
+        }
+
+        try {
+            locationManager.requestLocationUpdates(LocationManager.PASSIVE_PROVIDER, MIN_INTERVAL, DISTANCE_THRESHOLD, locationListener, dispatcher.getLooper());
+            isMonitoring = true;
+        } catch (SecurityException e) {
+            Utils.emitWarning(context, "Attempted to monitor significant location changes without location permissions. Detail: " + e.getLocalizedMessage(), "403");
+            return;
+        }
+
+        // Start from the last known location, as iOS does
+        Location lastLocation = locationManager.getLastKnownLocation(LocationManager.PASSIVE_PROVIDER);
+        if (lastLocation != null) {
+            processLocation(lastLocation);
+        }
+    }
+
+    public synchronized void stop() {
+        if (!isMonitoring) {
+            return;
+        }
+        LocationManager locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+        if (locationManager != null) {
+            locationManager.removeUpdates(locationListener);
+        }
+        isMonitoring = false;
+        lastSentLocation = null;
+    }
+
+    // Helpers
+
+    private synchronized void processLocation(Location location) {
+        if (!isMonitoring) {
+            return;
+        }
+        // The provider distance filter is only a hint, so check it here as well
+        if (lastSentLocation != null && location.distanceTo(lastSentLocation) < DISTANCE_THRESHOLD) {
+            return;
+        }
+        lastSentLocation = location;
+
+        WritableArray results = Arguments.createArray();
+        results.pushMap(Utils.locationToMap(location, dispatcher.getFields()));
+        Utils.emitEvent(context, "locationUpdated", results);
+    }
+
+    private final LocationListener locationListener = new LocationListener() {
+        @Override
+        public void onLocationChanged(Location location) {
+            processLocation(location);
+        }
+
+        @Override
+        public void onStatusChanged(String provider, int status, Bundle extras) {}
+
+        @Override
+        public void onProviderEnabled(String provider) {}
+
+        @Override
+        public void onProviderDisabled(String provider) {}
+    };
+}
@@ -0,0 +1,149 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.WritableArray;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Geofencing engine which evaluates the dispatched locations against a spatial index of geofences. Only
+ * the enter, exit and dwell transitions are sent to JS. As it relies on the dispatched locations, it only
+ * works while location updates are running.
+ */
+public class RNStandardGeofenceProvider implements RNGeofenceProvider, RNLocationDispatcher.Observer {
+    private final ReactApplicationContext context;
+    private final RNGeofenceIndex index = new RNGeofenceIndex();
+
+    // The geofences we are currently inside, along with the time we entered them
+    private final Map<String, Long> enteredTimes = new HashMap<>();
+    private final Set<String> dwelledIds = new HashSet<>();
+
+    // Reused between locations to avoid allocating for every location
+    private final List<RNGeofence> containing = new ArrayList<>();
+
+    public RNStandardGeofenceProvider(ReactApplicationContext context) {
+        this.context = context;
+    }
+
+    // Public interface
+
+    @Override
+    public void addGeofences(List<RNGeofence> geofences, Promise promise) {
+        add(geofences);
+        promise.resolve(null);
+    }
+
+    @Override
+    public void removeGeofences(List<String> ids, Promise promise) {
+        remove(ids);
+        promise.resolve(null);
+    }
+
+    @Override
+    public void removeAllGeofences(Promise promise) {
+        clear();
+        promise.resolve(null);
+    }
+
+    public synchronized void add(List<RNGeofence> geofences) {
+        for (RNGeofence geofence : geofences) {
+            index.add(geofence);
+        }
+    }
+
+    public synchronized void remove(List<String> ids) {
+        for (String id : ids) {
+            index.remove(id);
+            enteredTimes.remove(id);
+            dwelledIds.remove(id);
+        }
+    }
+
+    /**
+     * Returns the geofences with the given ids which are being monitored.
+     */
+    public synchronized List<RNGeofence> get(List<String> ids) {
+        List<RNGeofence> geofences = new ArrayList<>();
+        for (String id : ids) {
+            RNGeofence geofence = index.get(id);
+            if (geofence != null) {
+                geofences.add(geofence);
+            }
+        }
+        return geofences;
+    }
+
+    public synchronized void clear() {
+        index.clear();
+        enteredTimes.clear();
+        dwelledIds.clear();
+    }
+
+    // Observer
+
+    @Override
+    public synchronized void onLocationDispatched(Location location) {
+        if (index.size() == 0) {
+            return;
+        }
+
+        containing.clear();
+        index.findContaining(location.getLatitude(), location.getLongitude(), containing);
+        WritableArray transitions = null;
+
+        // Exits
+        Iterator<String> enteredIds = enteredTimes.keySet().iterator();
+        while (enteredIds.hasNext()) {
+            String id = enteredIds.next();
+            if (!containing.contains(index.get(id))) {
+                enteredIds.remove();
+                dwelledIds.remove(id);
+                transitions = addTransition(transitions, id, RNGeofence.TRANSITION_EXIT, location);
+            }
+        }
+
+        // Enters and dwells
+        for (int i = 0; i < containing.size(); i++) {
+            RNGeofence geofence = containing.get(i);
+            Long enteredTime = enteredTimes.get(geofence.id);
+            if (enteredTime == null) {
+                enteredTimes.put(geofence.id, location.getTime());
+                transitions = addTransition(transitions, geofence.id, RNGeofence.TRANSITION_ENTER, location);
+            } else if (geofence.dwellTime > 0
+                    && !dwelledIds.contains(geofence.id)
+                    && location.getTime() - enteredTime >= geofence.dwellTime) {
+                dwelledIds.add(geofence.id);
+                transitions = addTransition(transitions, geofence.id, RNGeofence.TRANSITION_DWELL, location);
+            }
+        }
+
+        if (transitions != null) {
+            Utils.emitEvent(context, "geofenceTransition", transitions);
+        }
+    }
+
+    @Override
+    public void onFlush() {
+        // Transitions are sent as soon as they happen
+    }
+
+    // Helpers
+
+    private static WritableArray addTransition(WritableArray transitions, String id, String transition, Location location) {
+        if (transitions == null) {
+            transitions = Arguments.createArray();
+        }
+        transitions.pushMap(RNGeofence.transitionToMap(id, transition, location));
+        return transitions;
+    }
+}
@@ -7,28 +7,53 @@ import android.location.LocationListener;
 import android.location.LocationManager;
 import android.location.LocationProvider;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 
-import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.ReadableType;
-import com.facebook.react.bridge.WritableArray;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.annotation.Nullable;
 
 public class RNStandardLocationProvider implements RNLocationProvider {
+    private static final String[] LAST_KNOWN_PROVIDERS = {
+            LocationManager.GPS_PROVIDER,
+            LocationManager.NETWORK_PROVIDER,
+            LocationManager.PASSIVE_PROVIDER
+    };
+    // When fusing providers, a fix this much less accurate than the best one is only used once the best is stale
+    private static final float MAX_ACCURACY_LOSS = 200;
+    private static final long MIN_STALE_AGE = 5000;
+    public static final long DEFAULT_INTERVAL = 1000;
+
     private final ReactApplicationContext context;
-    private LocationOptions options = new LocationOptions();
+    private final RNLocationDispatcher dispatcher;
+    // Replaced as a whole on configure, and read by the listener on the dispatcher thread
+    private volatile LocationOptions options = new LocationOptions();
+    // Guarded by this, as configure, start and stop can be called from different threads
     private @Nullable String watchedProvider;
+    private @Nullable LocationOptions watchedOptions;
+    // The best fix so far when fusing providers, which is read and written on the dispatcher thread
+    private @Nullable Location bestLocation;
 
-    public RNStandardLocationProvider(ReactApplicationContext context) {
+    public RNStandardLocationProvider(ReactApplicationContext context, RNLocationDispatcher dispatcher) {
         this.context = context;
+        this.dispatcher = dispatcher;
     }
 
     @Override
-    public void configure(Activity activity, ReadableMap map, Promise promise) {
-        options = LocationOptions.fromReactMap(context, map);
+    public synchronized void configure(Activity activity, ReadableMap map, Promise promise) {
+        LocationOptions newOptions = LocationOptions.fromReactMap(context, map, options);
+        if (newOptions.isSameOptions(options)) {
+            promise.resolve(null);
+            return;
+        }
+        options = newOptions;
 
         if (watchedProvider != null) {
             setupListening();
@@ -37,18 +62,88 @@ public class RNStandardLocationProvider implements RNLocationProvider {
     }
 
     @Override
-    public void startUpdatingLocation() {
+    public synchronized void startUpdatingLocation() {
         setupListening();
     }
 
     @Override
-    public void stopUpdatingLocation() {
+    public synchronized void stopUpdatingLocation() {
         LocationManager locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
         if (locationManager == null) {
             return;
         }
         locationManager.removeUpdates(locationListener);
         watchedProvider = null;
+        watchedOptions = null;
+        resetBestLocation();
+    }
+
+    @Override
+    public void getLastKnownLocation(SingleLocationListener listener) {
+        LocationManager locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+        if (locationManager == null) {
+            listener.onLocation(null);
+            return;
+        }
+        listener.onLocation(getMostRecentLocation(locationManager));
+    }
+
+    @Override
+    public void requestSingleLocation(final long timeout, final SingleLocationListener listener) {
+        final LocationManager locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+        if (locationManager == null) {
+            listener.onLocation(null);
+            return;
+        }
+        String provider = getProvider(locationManager, options.highAccuracy);
+        if (provider == null) {
+            listener.onLocation(null);
+            return;
+        }
+
+        final Handler handler = new Handler(Looper.getMainLooper());
+        final boolean[] isFinished = { false };
+        final LocationListener singleListener = new LocationListener() {
+            @Override
+            public void onLocationChanged(Location location) {
+                if (isFinished[0]) {
+                    return;
+                }
+                isFinished[0] = true;
+                handler.removeCallbacksAndMessages(null);
+                listener.onLocation(location);
+            }
+
+            @Override
+            public void onStatusChanged(String provider, int status, Bundle extras) {}
+
+            @Override
+            public void onProviderEnabled(String provider) {}
+
+            @Override
+            public void onProviderDisabled(String provider) {}
+        };
+
+        try {
+            locationManager.requestSingleUpdate(provider, singleListener, Looper.getMainLooper());
+        } catch (SecurityException e) {
+            listener.onLocation(null);
+            return;
+        }
+
+        if (timeout > 0) {
+            handler.postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    if (isFinished[0]) {
+                        return;
+                    }
+                    isFinished[0] = true;
+                    locationManager.removeUpdates(singleListener);
+                    listener.onLocation(null);
+                }
+            }, timeout);
+        }
     }
 
     // Listener
@@ -56,8 +151,10 @@ public class RNStandardLocationProvider implements RNLocationProvider {
     private final LocationListener locationListener = new LocationListener() {
         @Override
         public void onLocationChanged(Location location) {
+            if (options.fuseProviders && !isImprovedLocation(location)) {
+                return;
+            }
             processLocation(location);
-
         }
 
         @Override
@@ -85,15 +182,20 @@ public class RNStandardLocationProvider implements RNLocationProvider {
                 Utils.emitWarning(context, "No location manager is available.", "502");
                 return;
             }
+            if (options.fuseProviders) {
+                setupFusedListening(locationManager);
+                return;
+            }
             String provider = getProvider(locationManager, options.highAccuracy);
             if (provider == null) {
                 Utils.emitWarning(context, "There is no valid location provider available.", "503");
                 return;
             }
-            if (!provider.equals(watchedProvider)) {
+            if (!provider.equals(watchedProvider) || !options.isSameRequest(watchedOptions)) {
                 // Setup the listener
                 locationManager.removeUpdates(locationListener);
-                locationManager.requestLocationUpdates(provider, 1000, options.distanceFilter, locationListener);
+                locationManager.requestLocationUpdates(provider, options.interval, options.distanceFilter, locationListener, dispatcher.getLooper());
+                dispatcher.getStats().providerRegistrations.incrementAndGet();
 
                 // Get the last known location
                 Location lastLocation = locationManager.getLastKnownLocation(provider);
@@ -102,11 +204,90 @@ public class RNStandardLocationProvider implements RNLocationProvider {
                 }
             }
             watchedProvider = provider;
+            watchedOptions = options;
         } catch (SecurityException e) {
             Utils.emitWarning(context, "Attempted to start updating the location without location permissions. Detail: " + e.getLocalizedMessage(), "403");
         }
     }
 
+    /**
+     * Listens to every enabled provider at once, so there is no gap while switching between them, and starts
+     * from the most recent cached fix. Only the fixes which improve on the best so far are dispatched.
+     */
+    private void setupFusedListening(LocationManager locationManager) {
+        List<String> providers = new ArrayList<>();
+        for (String provider : LAST_KNOWN_PROVIDERS) {
+            if (provider.equals(LocationManager.PASSIVE_PROVIDER) || locationManager.isProviderEnabled(provider)) {
+                providers.add(provider);
+            }
+        }
+        String providerKey = providers.toString();
+        if (providerKey.equals(watchedProvider) && options.isSameRequest(watchedOptions)) {
+            return;
+        }
+
+        locationManager.removeUpdates(locationListener);
+        resetBestLocation();
+        for (String provider : providers) {
+            locationManager.requestLocationUpdates(provider, options.interval, options.distanceFilter, locationListener, dispatcher.getLooper());
+            dispatcher.getStats().providerRegistrations.incrementAndGet();
+        }
+        watchedProvider = providerKey;
+        watchedOptions = options;
+
+        Location lastLocation = getMostRecentLocation(locationManager);
+        if (lastLocation != null && isImprovedLocation(lastLocation)) {
+            processLocation(lastLocation);
+        }
+    }
+
+    /**
+     * Decides whether a fix from one of the fused providers should replace the best one so far. Newer fixes
+     * win unless they are much less accurate and come from a different provider, in which case they only win
+     * once the best fix is stale. Older fixes never win, so the dispatched track stays in order.
+     */
+    private synchronized boolean isImprovedLocation(Location location) {
+        if (bestLocation == null) {
+            bestLocation = location;
+            return true;
+        }
+
+        long timeDelta = location.getTime() - bestLocation.getTime();
+        float accuracyDelta = location.getAccuracy() - bestLocation.getAccuracy();
+        boolean isImproved;
+        if (timeDelta <= 0) {
+            isImproved = false;
+        } else if (timeDelta > Math.max(options.interval * 2, MIN_STALE_AGE) || accuracyDelta <= 0) {
+            isImproved = true;
+        } else {
+            isImproved = accuracyDelta <= MAX_ACCURACY_LOSS && location.getProvider().equals(bestLocation.getProvider());
+        }
+        if (isImproved) {
+            bestLocation = location;
+        }
+        return isImproved;
+    }
+
+    private synchronized void resetBestLocation() {
+        bestLocation = null;
+    }
+
+    @Nullable
+    private Location getMostRecentLocation(LocationManager locationManager) {
+        Location mostRecentLocation = null;
+        try {
+            for (String provider : LAST_KNOWN_PROVIDERS) {
+                Location location = locationManager.getLastKnownLocation(provider);
+                if (location != null && (mostRecentLocation == null || location.getTime() > mostRecentLocation.getTime())) {
+                    mostRecentLocation = location;
+                }
+            }
+        } catch (SecurityException | IllegalArgumentException e) {
+            // Ignore the error and use what we have
+        }
+        return mostRecentLocation;
+    }
+
     @Nullable
     private String getProvider(LocationManager locationManager, boolean highAccuracy) {
         String provider =
@@ -123,12 +304,8 @@ public class RNStandardLocationProvider implements RNLocationProvider {
     }
 
     private void processLocation(Location location) {
-        // Convert the location to a map and wrap it in an array
-        WritableArray results = Arguments.createArray();
-        results.pushMap(Utils.locationToMap(location));
-
-        // Emit the event
-        Utils.emitEvent(context, "locationUpdated", results);
+        // Hand the location over to be batched and emitted
+        dispatcher.dispatch(location);
     }
 
     private static class LocationOptions {
@@ -136,20 +313,43 @@ public class RNStandardLocationProvider implements RNLocationProvider {
 
         private final boolean highAccuracy;
         private final float distanceFilter;
+        private final long interval;
+        private final boolean fuseProviders;
 
         private LocationOptions() {
             this.highAccuracy = false;
             this.distanceFilter = RCT_DEFAULT_LOCATION_ACCURACY;
+            this.interval = DEFAULT_INTERVAL;
+            this.fuseProviders = false;
         }
 
-        private LocationOptions(boolean highAccuracy, float distanceFilter) {
+        private LocationOptions(boolean highAccuracy, float distanceFilter, long interval, boolean fuseProviders) {
             this.highAccuracy = highAccuracy;
             this.distanceFilter = distanceFilter;
+            this.interval = interval;
+            this.fuseProviders = fuseProviders;
         }
 
-        private static LocationOptions fromReactMap(ReactApplicationContext context, ReadableMap map) {
-            boolean highAccuracy = false;
-            float distanceFilter = RCT_DEFAULT_LOCATION_ACCURACY;
+        private boolean isSameRequest(@Nullable LocationOptions other) {
+            return other != null
+                    && distanceFilter == other.distanceFilter
+                    && interval == other.interval
+                    && fuseProviders == other.fuseProviders;
+        }
+
+        private boolean isSameOptions(@Nullable LocationOptions other) {
+            return isSameRequest(other) && highAccuracy == other.highAccuracy;
+        }
+
+        /**
+         * Every option is kept from the previous options unless it is given, so that a configure call which
+         * only changes other settings, such as the journal, leaves the active request alone.
+         */
+        private static LocationOptions fromReactMap(ReactApplicationContext context, ReadableMap map, LocationOptions previous) {
+            boolean highAccuracy = previous.highAccuracy;
+            float distanceFilter = previous.distanceFilter;
+            long interval = previous.interval;
+            boolean fuseProviders = previous.fuseProviders;
 
             // Priority (accuracy)
             if (map.hasKey("desiredAccuracy")) {
@@ -190,7 +390,25 @@ public class RNStandardLocationProvider implements RNLocationProvider {
                 }
             }
 
-            return new LocationOptions(highAccuracy, distanceFilter);
+            // Interval
+            if (map.hasKey("interval")) {
+                if (map.getType("interval") == ReadableType.Number) {
+                    interval = (long) map.getDouble("interval");
+                } else {
+                    Utils.emitWarning(context, "interval must be a number", "401");
+                }
+            }
+
+            // Fuse providers
+            if (map.hasKey("fuseProviders")) {
+                if (map.getType("fuseProviders") == ReadableType.Boolean) {
+                    fuseProviders = map.getBoolean("fuseProviders");
+                } else {
+                    Utils.emitWarning(context, "fuseProviders must be a boolean", "401");
+                }
+            }
+
+            return new LocationOptions(highAccuracy, distanceFilter, interval, fuseProviders);
         }
     }
 }
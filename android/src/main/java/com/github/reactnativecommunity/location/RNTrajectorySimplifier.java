@@ -0,0 +1,138 @@
+package com.github.reactnativecommunity.location;
+
+import android.location.Location;
+
+import javax.annotation.Nullable;
+
+/**
+ * Streaming trajectory simplification using an opening window. The last kept location is the anchor, and
+ * the locations since then are held in a window. A new location extends the window as long as every held
+ * location stays within the tolerance of the straight line from the anchor to it. Otherwise the previous
+ * location is kept and becomes the new anchor.
+ *
+ * This gives a result close to Douglas-Peucker without needing the whole track, at the cost of holding back
+ * the most recent location until the next one shows whether it is needed.
+ *
+ * This class is not thread safe, callers are expected to synchronize access to it.
+ */
+public class RNTrajectorySimplifier {
+    // Bounds the work done per location, the candidate is kept whenever the window fills up
+    private static final int MAX_WINDOW_SIZE = 64;
+    private static final double METERS_PER_DEGREE = Math.toRadians(1) * 6371008.8;
+
+    private final double[] windowLatitudes = new double[MAX_WINDOW_SIZE];
+    private final double[] windowLongitudes = new double[MAX_WINDOW_SIZE];
+    private int windowSize = 0;
+
+    private float tolerance = 0;
+    private boolean hasAnchor = false;
+    private double anchorLatitude;
+    private double anchorLongitude;
+    private @Nullable Location candidate = null;
+
+    // Public interface
+
+    public boolean isEnabled() {
+        return tolerance > 0;
+    }
+
+    public float getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Sets the maximum distance in meters that a dropped location may be from the simplified track. Any held
+     * location should be taken with drain() first, as changing the tolerance starts a new track.
+     */
+    public void setTolerance(float tolerance) {
+        this.tolerance = Math.max(0, tolerance);
+        reset();
+    }
+
+    /**
+     * Adds a location to the track and returns the location which should be kept as a result, if any.
+     */
+    public @Nullable Location offer(Location location) {
+        if (!hasAnchor) {
+            setAnchor(location);
+            return location;
+        }
+
+        if (candidate == null) {
+            candidate = location;
+            return null;
+        }
+
+        // The candidate joins the window, then every point in it is checked against the new segment
+        Location kept = null;
+        if (windowSize == MAX_WINDOW_SIZE || !isWithinTolerance(candidate, location)) {
+            kept = candidate;
+            setAnchor(candidate);
+        } else {
+            windowLatitudes[windowSize] = candidate.getLatitude();
+            windowLongitudes[windowSize] = candidate.getLongitude();
+            windowSize++;
+        }
+        candidate = location;
+        return kept;
+    }
+
+    /**
+     * Returns the location which is being held back, if there is one, and keeps it as the end of the track.
+     */
+    public @Nullable Location drain() {
+        Location held = candidate;
+        if (held != null) {
+            setAnchor(held);
+        }
+        return held;
+    }
+
+    public void reset() {
+        hasAnchor = false;
+        candidate = null;
+        windowSize = 0;
+    }
+
+    // Helpers
+
+    private void setAnchor(Location location) {
+        hasAnchor = true;
+        anchorLatitude = location.getLatitude();
+        anchorLongitude = location.getLongitude();
+        candidate = null;
+        windowSize = 0;
+    }
+
+    /**
+     * Checks the candidate and the window against the segment from the anchor to the end location, using an
+     * equirectangular projection around the anchor which is accurate enough over the length of a window.
+     */
+    private boolean isWithinTolerance(Location candidate, Location end) {
+        double longitudeScale = Math.cos(Math.toRadians(anchorLatitude));
+        double endX = (end.getLongitude() - anchorLongitude) * longitudeScale * METERS_PER_DEGREE;
+        double endY = (end.getLatitude() - anchorLatitude) * METERS_PER_DEGREE;
+        double lengthSquared = endX * endX + endY * endY;
+
+        if (!isWithinTolerance(candidate.getLatitude(), candidate.getLongitude(), longitudeScale, endX, endY, lengthSquared)) {
+            return false;
+        }
+        for (int i = 0; i < windowSize; i++) {
+            if (!isWithinTolerance(windowLatitudes[i], windowLongitudes[i], longitudeScale, endX, endY, lengthSquared)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isWithinTolerance(double latitude, double longitude, double longitudeScale, double endX, double endY, double lengthSquared) {
+        double x = (longitude - anchorLongitude) * longitudeScale * METERS_PER_DEGREE;
+        double y = (latitude - anchorLatitude) * METERS_PER_DEGREE;
+
+        // Distance to the closest point on the segment
+        double t = lengthSquared > 0 ? Math.max(0, Math.min(1, (x * endX + y * endY) / lengthSquared)) : 0;
+        double dx = x - t * endX;
+        double dy = y - t * endY;
+        return dx * dx + dy * dy <= (double) tolerance * tolerance;
+    }
+}
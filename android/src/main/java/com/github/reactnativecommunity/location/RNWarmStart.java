@@ -0,0 +1,240 @@
+package com.github.reactnativecommunity.location;
+
+import android.content.Context;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Bundle;
+import android.os.Handler;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+
+import javax.annotation.Nullable;
+
+/**
+ * Gets a location on screen while a high accuracy request waits for its first fix, which can take tens of
+ * seconds from a cold GPS. When updates start, the provider's cached fix is dispatched straight away if it is
+ * recent enough, and the network provider is asked for coarse fixes alongside the configured request, at the
+ * same interval and distance filter. The coarse request is stopped as soon as the first fix from the
+ * configured request arrives, or after COARSE_TIMEOUT.
+ *
+ * Every location sent to JS while this is enabled is tagged with the tier it came from. The warm start
+ * locations are dispatched on the dispatcher thread without holding the lock here, as the dispatcher calls
+ * back into this class while holding its own lock.
+ */
+public class RNWarmStart implements RNLocationDispatcher.Observer {
+    private static final long DEFAULT_MAX_AGE = 5 * 60 * 1000;
+    // Give up on the configured request getting a fix after this long and rely on it alone
+    private static final long COARSE_TIMEOUT = 60000;
+
+    private final ReactApplicationContext context;
+    private final RNLocationDispatcher dispatcher;
+    private final Handler handler;
+
+    private boolean isEnabled = false;
+    private long maxAge = DEFAULT_MAX_AGE;
+
+    private boolean isActive = false;
+    private boolean isCoarseActive = false;
+    // Counts the starts, so a cached fix which arrives after updates were stopped or restarted is ignored
+    private int generation = 0;
+
+    public RNWarmStart(ReactApplicationContext context, RNLocationDispatcher dispatcher) {
+        this.context = context;
+        this.dispatcher = dispatcher;
+        this.handler = new Handler(dispatcher.getLooper());
+    }
+
+    // Public interface
+
+    public synchronized void configure(ReadableMap options) {
+        if (options.hasKey("warmStart")) {
+            if (options.getType("warmStart") == ReadableType.Boolean) {
+                isEnabled = options.getBoolean("warmStart");
+                if (!isEnabled) {
+                    stop();
+                }
+            } else {
+                Utils.emitWarning(context, "warmStart must be a boolean", "401");
+            }
+        }
+        if (options.hasKey("warmStartMaxAge")) {
+            if (options.getType("warmStartMaxAge") == ReadableType.Number) {
+                maxAge = Math.max(0, (long) options.getDouble("warmStartMaxAge"));
+            } else {
+                Utils.emitWarning(context, "warmStartMaxAge must be a number", "401");
+            }
+        }
+    }
+
+    public synchronized boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Serves the cached fix and, for high accuracy requests, starts the coarse request. Called when the
+     * provider is started with the options it was configured with, and the interval it uses by default.
+     */
+    public synchronized void start(RNLocationProvider provider, ReadableMap providerOptions, long defaultInterval) {
+        if (!isEnabled || isActive) {
+            return;
+        }
+        isActive = true;
+        final int startGeneration = ++generation;
+
+        provider.getLastKnownLocation(new RNLocationProvider.SingleLocationListener() {
+            @Override
+            public void onLocation(@Nullable final Location location) {
+                if (location == null) {
+                    return;
+                }
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        dispatchLastKnownLocation(location, startGeneration);
+                    }
+                });
+            }
+        });
+
+        if (isHighAccuracyRequest(providerOptions)) {
+            startCoarseRequest(getInterval(providerOptions, defaultInterval), getDistanceFilter(providerOptions));
+        }
+    }
+
+    /**
+     * Stops the coarse request, called when the provider is stopped.
+     */
+    public synchronized void stop() {
+        if (!isActive) {
+            return;
+        }
+        isActive = false;
+        generation++;
+        stopCoarseRequest();
+    }
+
+    // Observer
+
+    @Override
+    public void onLocationDispatched(Location location) {
+        // Called with the dispatcher lock held, so the tier can be read before taking the lock here
+        if (dispatcher.getCurrentTier() != RNLocationDispatcher.TIER_PRECISE) {
+            return;
+        }
+        synchronized (this) {
+            if (isCoarseActive) {
+                stopCoarseRequest();
+            }
+        }
+    }
+
+    @Override
+    public void onFlush() {}
+
+    // Helpers
+
+    private void dispatchLastKnownLocation(Location location, int startGeneration) {
+        synchronized (this) {
+            if (startGeneration != generation) {
+                return;
+            }
+        }
+        if (System.currentTimeMillis() - location.getTime() > maxAge) {
+            return;
+        }
+        // Anything we have already sent is at least as good, and going back in time would confuse the observers
+        Location lastLocation = dispatcher.getLastLocation();
+        if (lastLocation != null && lastLocation.getTime() >= location.getTime()) {
+            return;
+        }
+        dispatcher.dispatch(location, RNLocationDispatcher.TIER_LAST_KNOWN);
+    }
+
+    /**
+     * Whether the provider was asked for high accuracy, so a cold start may take a while to get its first fix.
+     */
+    private static boolean isHighAccuracyRequest(ReadableMap options) {
+        if (!options.hasKey("desiredAccuracy") || options.getType("desiredAccuracy") != ReadableType.Map) {
+            return false;
+        }
+        ReadableMap desiredAccuracy = options.getMap("desiredAccuracy");
+        return desiredAccuracy.hasKey("android")
+                && desiredAccuracy.getType("android") == ReadableType.String
+                && "highAccuracy".equals(desiredAccuracy.getString("android"));
+    }
+
+    private static long getInterval(ReadableMap options, long defaultInterval) {
+        if (options.hasKey("interval") && options.getType("interval") == ReadableType.Number) {
+            return Math.max(0, (long) options.getDouble("interval"));
+        }
+        return defaultInterval;
+    }
+
+    private static float getDistanceFilter(ReadableMap options) {
+        if (options.hasKey("distanceFilter") && options.getType("distanceFilter") == ReadableType.Number) {
+            return Math.max(0, (float) options.getDouble("distanceFilter"));
+        }
+        return 0;
+    }
+
+    private void startCoarseRequest(long interval, float distanceFilter) {
+        LocationManager locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+        if (locationManager == null || !locationManager.isProviderEnabled(LocationManager.NETWORK_PROVIDER)) {
+            return;
+        }
+        try {
+            locationManager.requestLocationUpdates(LocationManager.NETWORK_PROVIDER, interval, distanceFilter, coarseListener, dispatcher.getLooper());
+        } catch (SecurityException e) {
+            // Without permission there is nothing to warm up with, and the configured request will warn about it
+            return;
+        }
+        dispatcher.getStats().providerRegistrations.incrementAndGet();
+        isCoarseActive = true;
+        handler.postDelayed(coarseTimeoutRunnable, COARSE_TIMEOUT);
+    }
+
+    private void stopCoarseRequest() {
+        if (!isCoarseActive) {
+            return;
+        }
+        isCoarseActive = false;
+        handler.removeCallbacks(coarseTimeoutRunnable);
+        LocationManager locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+        if (locationManager != null) {
+            locationManager.removeUpdates(coarseListener);
+        }
+    }
+
+    private final Runnable coarseTimeoutRunnable = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (RNWarmStart.this) {
+                stopCoarseRequest();
+            }
+        }
+    };
+
+    private final LocationListener coarseListener = new LocationListener() {
+        @Override
+        public void onLocationChanged(Location location) {
+            synchronized (RNWarmStart.this) {
+                if (!isCoarseActive) {
+                    return;
+                }
+            }
+            dispatcher.dispatch(location, RNLocationDispatcher.TIER_COARSE);
+        }
+
+        @Override
+        public void onStatusChanged(String provider, int status, Bundle extras) {}
+
+        @Override
+        public void onProviderEnabled(String provider) {}
+
+        @Override
+        public void onProviderDisabled(String provider) {}
+    };
+}
@@ -10,6 +10,8 @@ import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.modules.core.RCTNativeAppEventEmitter;
 
 public class Utils {
+    private static final double EARTH_RADIUS_METERS = 6371008.8;
+
     public static void emitWarning(ReactApplicationContext context, String message, String type) {
         WritableMap error = Arguments.createMap();
         error.putString("message", message);
@@ -25,35 +27,76 @@ public class Utils {
     }
 
     public static WritableMap locationToMap(Location location) {
+        return locationToMap(location, RNLocationFields.ALL);
+    }
+
+    /**
+     * Converts only the fields in the given RNLocationFields mask, without calling the getters of the rest.
+     */
+    public static WritableMap locationToMap(Location location, int fields) {
         WritableMap map = Arguments.createMap();
 
-        map.putDouble("latitude", location.getLatitude());
-        map.putDouble("longitude", location.getLongitude());
-        map.putDouble("accuracy", location.getAccuracy());
-        map.putDouble("altitude", location.getAltitude());
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            map.putDouble("altitudeAccuracy", location.getVerticalAccuracyMeters());
-        } else {
-            map.putDouble("altitudeAccuracy", 0.0);
+        if ((fields & RNLocationFields.LATITUDE) != 0) {
+            map.putDouble("latitude", location.getLatitude());
+        }
+        if ((fields & RNLocationFields.LONGITUDE) != 0) {
+            map.putDouble("longitude", location.getLongitude());
+        }
+        if ((fields & RNLocationFields.ACCURACY) != 0) {
+            map.putDouble("accuracy", location.getAccuracy());
+        }
+        if ((fields & RNLocationFields.ALTITUDE) != 0) {
+            map.putDouble("altitude", location.getAltitude());
+        }
+        if ((fields & RNLocationFields.ALTITUDE_ACCURACY) != 0) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                map.putDouble("altitudeAccuracy", location.getVerticalAccuracyMeters());
+            } else {
+                map.putDouble("altitudeAccuracy", 0.0);
+            }
         }
-        map.putDouble("course", location.getBearing());
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            map.putDouble("courseAccuracy", location.getBearingAccuracyDegrees());
-        } else {
-            map.putDouble("courseAccuracy", 0.0);
+        if ((fields & RNLocationFields.COURSE) != 0) {
+            map.putDouble("course", location.getBearing());
         }
-        map.putDouble("speed", location.getSpeed());
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            map.putDouble("speedAccuracy", location.getSpeedAccuracyMetersPerSecond());
-        } else {
-            map.putDouble("speedAccuracy", 0.0);
+        if ((fields & RNLocationFields.COURSE_ACCURACY) != 0) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                map.putDouble("courseAccuracy", location.getBearingAccuracyDegrees());
+            } else {
+                map.putDouble("courseAccuracy", 0.0);
+            }
+        }
+        if ((fields & RNLocationFields.SPEED) != 0) {
+            map.putDouble("speed", location.getSpeed());
+        }
+        if ((fields & RNLocationFields.SPEED_ACCURACY) != 0) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                map.putDouble("speedAccuracy", location.getSpeedAccuracyMetersPerSecond());
+            } else {
+                map.putDouble("speedAccuracy", 0.0);
+            }
+        }
+        if ((fields & RNLocationFields.TIMESTAMP) != 0) {
+            map.putDouble("timestamp", location.getTime());
+        }
+        if ((fields & RNLocationFields.FROM_MOCK_PROVIDER) != 0) {
+            map.putBoolean("fromMockProvider", location.isFromMockProvider());
         }
-        map.putDouble("timestamp", location.getTime());
-        map.putBoolean("fromMockProvider", location.isFromMockProvider());
 
         return map;
     }
 
+    /**
+     * Haversine distance in meters. Unlike Location.distanceBetween this does not allocate.
+     */
+    public static double distanceBetween(double startLatitude, double startLongitude, double endLatitude, double endLongitude) {
+        double latitudeDelta = Math.toRadians(endLatitude - startLatitude);
+        double longitudeDelta = Math.toRadians(endLongitude - startLongitude);
+        double a = Math.sin(latitudeDelta / 2) * Math.sin(latitudeDelta / 2)
+                + Math.cos(Math.toRadians(startLatitude)) * Math.cos(Math.toRadians(endLatitude))
+                * Math.sin(longitudeDelta / 2) * Math.sin(longitudeDelta / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
     public static boolean hasFusedLocationProvider() {
         try {
             Class.forName("com.google.android.gms.location.FusedLocationProviderClient");
@@ -6,12 +6,26 @@ import {
   Location,
   Heading,
   RNLocationNativeInterface,
-  GetLatestLocationOptions
+  GetLatestLocationOptions,
+  JournalQueryOptions,
+  Geofence,
+  GeofenceTransition,
+  LocationSubscriptionOptions,
+  BackgroundTrackingOptions,
+  LocationStats,
+  UploadEvent,
+  LocationColumns
 } from "./types";
 import NativeInterface from "./lib/nativeInterface";
 import Subscriptions from "./lib/subscriptions";
 import Permissions from "./lib/permissions";
-import { EventEmitter } from "react-native";
+import {
+  columnsToLocations,
+  decodeLocationColumns,
+  emptyLocationColumns
+} from "./lib/columns";
+import { decodeCompactLocations, encodeCompactLocations } from "./lib/codec";
+import { AppRegistry, EventEmitter, Platform } from "react-native";
 import { promiseTimeoutResolveNull } from "./utils";
 
 let {
@@ -126,12 +140,22 @@ export const subscribeToPermissionUpdates = (
 /**
  * Subscribe to location changes with the given listener. Ensure you have the correct permission before calling this method. The location provider will respect the settings you have given it.
  *
+ * On Android you can pass options to give this listener its own interval, distance filter and accuracy. The provider makes a single request which satisfies every listener and the locations are then thinned out for each one. While such listeners exist, listeners without options may receive locations more often than configured.
+ *
  * @param  {LocationCallback} listener The listener which will be called when the user location changes.
+ * @param  {LocationSubscriptionOptions} options Optional settings for this listener only.
  * @returns {Subscription} The subscription function which can be used to unsubscribe.
  */
 export const subscribeToLocationUpdates = (
-  listener: (locations: Location[]) => void
+  listener: (locations: Location[]) => void,
+  options?: LocationSubscriptionOptions
 ): Subscription => {
+  if (options && Platform.OS === "android") {
+    return subscriptions.subscribeToLocationUpdatesWithOptions(
+      listener,
+      options
+    );
+  }
   return subscriptions.subscribeToLocationUpdates(listener);
 };
 
@@ -140,6 +164,8 @@ export const subscribeToLocationUpdates = (
  *
  * This will subscribe to location events for you at the unsubscribe when it gets its first valid location. Usually, this method will return very fast with a possibly out of date location, however, in some circumstances it will not return a location. Therefore, this method has a timeout after which the promise will be resovled with `null` value.
  *
+ * On Android this does not subscribe to location events. Instead, it returns the most recent location which was sent to JS or the last location known to the OS if they are within the `maxAge` and `minAccuracy` limits, and otherwise requests a single new location.
+ *
  * The location provider will respect the settings you have given it, so if you need a location with a certain accuracy, ensure you call `RNLocation.configure` first. If you want *any* location then ensure you call `RNLocation.configure` with no distance filter.
  *
  * @param {GetLatestLocationOptions} options The options to use when getting the location.
@@ -148,6 +174,10 @@ export const subscribeToLocationUpdates = (
 export const getLatestLocation = (
   options: GetLatestLocationOptions = {}
 ): Promise<Location | null> => {
+  if (Platform.OS === "android") {
+    return getLatestLocationAndroid(options);
+  }
+
   const locationPromise = new Promise<Location | null>(resolve => {
     const unsubscribe = subscriptions.subscribeToLocationUpdates(locations => {
       if (locations.length === 0) {
@@ -179,9 +209,34 @@ export const getLatestLocation = (
   return promiseTimeoutResolveNull(timeout, locationPromise);
 };
 
+/**
+ * Get the latest location using the native cache on Android.
+ *
+ * @ignore
+ * @param {GetLatestLocationOptions} options The options to use when getting the location.
+ * @returns {Promise<Location | null>} A Promise which will resolve to the latest location, or to `null` if the timeout is reached.
+ */
+const getLatestLocationAndroid = (
+  options: GetLatestLocationOptions
+): Promise<Location | null> => {
+  // A timeout of 0 tells the native side to wait forever
+  const nativeOptions: { [key: string]: number } = {
+    timeout: options.timeout === null ? 0 : options.timeout || 10000
+  };
+  if (typeof options.maxAge === "number") {
+    nativeOptions.maxAge = options.maxAge;
+  }
+  if (typeof options.minAccuracy === "number") {
+    nativeOptions.minAccuracy = options.minAccuracy;
+  }
+  return nativeInterface.getLatestLocation(nativeOptions);
+};
+
 /**
  * Subscribe to heading changes with the given listener. Ensure you have the correct permission before calling this method. The location provider will respect the settings you have given it.
  *
+ * On Android, the heading comes from the rotation vector sensor and is sent at most 10 times a second.
+ *
  * @param  {LocationCallback} listener The listener which will be called when the heading changes.
  * @returns {Subscription} The subscription function which can be used to unsubscribe.
  */
@@ -198,6 +253,8 @@ export const subscribeToHeadingUpdates = (
  *
  * In most cases, you should call {@link configure} with the correct settings and then use {@link subscribeToLocationUpdates} to subscribe to the location updates. For more details, take a look at [Apple's documentation](https://developer.apple.com/documentation/corelocation/cllocationmanager/1423531-startmonitoringsignificantlocati?language=objc).
  *
+ * On Android, the locations come from the passive provider, so no extra power is used, and are sent once the device has moved at least 500m.
+ *
  * @param  {LocationCallback} listener The listener which will be called when the user location significantly changes.
  * @returns {Subscription} The subscription function which can be used to unsubscribe.
  */
@@ -207,6 +264,278 @@ export const subscribeToSignificantLocationUpdates = (
   return subscriptions.subscribeToSignificantLocationUpdates(listener);
 };
 
+/**
+ * Get the locations which have been written to the on-device journal. Locations are only journaled if you have called {@link configure} with `journal: true`.
+ *
+ * The journal is kept even if the JS runtime is paused or killed, so this can be used to read back the locations which were collected while your app was not listening. Pass `compact: true` to send the locations across the bridge in the compact encoding, which is much smaller. On iOS this always resolves to an empty array.
+ *
+ * @param {JournalQueryOptions} options The time range and limit to use when reading the journal.
+ * @returns {Promise<Location[]>} A Promise which resolves to the journaled locations, oldest first.
+ */
+export const getJournaledLocations = async (
+  options: JournalQueryOptions = {}
+): Promise<Location[]> => {
+  if (Platform.OS !== "android") {
+    return [];
+  }
+  if (options.compact) {
+    const base64 = await nativeInterface.getJournaledLocationsCompact(options);
+    return decodeCompactLocations(base64);
+  }
+  return nativeInterface.getJournaledLocations(options);
+};
+
+/**
+ * Get the locations which have been written to the on-device journal as columns of typed arrays. This is much faster than {@link getJournaledLocations} for large spans of history, as the locations are sent from native code as a single packed buffer and no object is created per location. Use {@link locationColumnsToLocations} to turn part of the result into locations. On iOS this always resolves to empty columns.
+ *
+ * @param {JournalQueryOptions} options The time range and limit to use when reading the journal.
+ * @returns {Promise<LocationColumns>} A Promise which resolves to the journaled locations, oldest first.
+ */
+export const getJournaledLocationColumns = async (
+  options: JournalQueryOptions = {}
+): Promise<LocationColumns> => {
+  if (Platform.OS !== "android") {
+    return emptyLocationColumns();
+  }
+  const base64 = await nativeInterface.getJournaledLocationColumns(options);
+  return decodeLocationColumns(base64);
+};
+
+/**
+ * Convert the locations in the given range of columns into location objects.
+ *
+ * @param {LocationColumns} columns The columns from {@link getJournaledLocationColumns}.
+ * @param {number} start The index of the first location to convert. Defaults to `0`.
+ * @param {number} end The index after the last location to convert. Defaults to the number of locations.
+ * @returns {Location[]} The locations, in the same order as the columns.
+ */
+export const locationColumnsToLocations = (
+  columns: LocationColumns,
+  start = 0,
+  end = columns.count
+): Location[] => {
+  return columnsToLocations(columns, start, end);
+};
+
+/**
+ * Encode locations in the compact encoding used by uploads. The values are rounded to around a centimeter, and to a tenth of a degree for `course` and `courseAccuracy`.
+ *
+ * @param {Location[]} locations The locations to encode.
+ * @returns {Uint8Array} The encoded locations.
+ */
+export const encodeLocations = (locations: Location[]): Uint8Array => {
+  return encodeCompactLocations(locations);
+};
+
+/**
+ * Decode locations from the compact encoding used by uploads. Optional fields which were not encoded are `0`, like in the locations sent by the native module.
+ *
+ * @param {Uint8Array | ArrayBuffer | string} data The encoded locations, as bytes or base64.
+ * @returns {Location[]} The decoded locations.
+ */
+export const decodeLocations = (
+  data: Uint8Array | ArrayBuffer | string
+): Location[] => {
+  return decodeCompactLocations(data);
+};
+
+/**
+ * Remove every location from the journal with a timestamp at or before the given time. This is usually called once the locations have been uploaded. On iOS this always resolves to `0`.
+ *
+ * @param {number} before The time in milliseconds since the epoch to truncate the journal up to (inclusive).
+ * @returns {Promise<number>} A Promise which resolves to the number of locations which were removed.
+ */
+export const truncateJournal = (before: number): Promise<number> => {
+  if (Platform.OS !== "android") {
+    return Promise.resolve(0);
+  }
+  return nativeInterface.truncateJournal(before);
+};
+
+/**
+ * Start monitoring the given geofences. Adding a geofence with the same `id` as an existing one replaces it. Use {@link subscribeToGeofenceTransitions} to be told when the device enters, exits or dwells in them.
+ *
+ * When Google Play Services is available, circular geofences are monitored by it and do not need location updates to be running. Otherwise, and for polygons, geofences are checked against the location updates, so you need to be subscribed to location updates for transitions to be sent. On iOS this does nothing.
+ *
+ * @param {Geofence[]} geofences The geofences to start monitoring.
+ * @returns {Promise<void>} A Promise which resolves when the geofences have been added.
+ */
+export const addGeofences = (geofences: Geofence[]): Promise<void> => {
+  if (Platform.OS !== "android") {
+    return Promise.resolve();
+  }
+  return nativeInterface.addGeofences(geofences);
+};
+
+/**
+ * Stop monitoring the geofences with the given identifiers. On iOS this does nothing.
+ *
+ * @param {string[]} ids The identifiers of the geofences to stop monitoring.
+ * @returns {Promise<void>} A Promise which resolves when the geofences have been removed.
+ */
+export const removeGeofences = (ids: string[]): Promise<void> => {
+  if (Platform.OS !== "android") {
+    return Promise.resolve();
+  }
+  return nativeInterface.removeGeofences(ids);
+};
+
+/**
+ * Stop monitoring every geofence. On iOS this does nothing.
+ *
+ * @returns {Promise<void>} A Promise which resolves when the geofences have been removed.
+ */
+export const removeAllGeofences = (): Promise<void> => {
+  if (Platform.OS !== "android") {
+    return Promise.resolve();
+  }
+  return nativeInterface.removeAllGeofences();
+};
+
+/**
+ * Subscribe to geofence transitions with the given listener. Only the geofences added with {@link addGeofences} are monitored.
+ *
+ * @param {GeofenceTransitionCallback} listener The listener which will be called when the device enters, exits or dwells in a geofence.
+ * @returns {Subscription} The subscription function which can be used to unsubscribe.
+ */
+export const subscribeToGeofenceTransitions = (
+  listener: (transitions: GeofenceTransition[]) => void
+): Subscription => {
+  return subscriptions.subscribeToGeofenceTransitions(listener);
+};
+
+/**
+ * Start collecting locations in the background with a foreground service, which keeps running without the JS runtime and shows a notification while it is active. The locations are written to the journal, which you can read with {@link getJournaledLocations}. If `headlessTask` is enabled, the task registered with {@link registerBackgroundTask} is run for every batch of locations. On iOS this does nothing.
+ *
+ * @param {BackgroundTrackingOptions} options The options to use while tracking in the background.
+ * @returns {Promise<void>} A Promise which resolves when background tracking has been started.
+ */
+export const startBackgroundTracking = (
+  options: BackgroundTrackingOptions = {}
+): Promise<void> => {
+  if (Platform.OS !== "android") {
+    return Promise.resolve();
+  }
+  return nativeInterface.startBackgroundTracking(options);
+};
+
+/**
+ * Stop collecting locations in the background. On iOS this does nothing.
+ *
+ * @returns {Promise<void>} A Promise which resolves when background tracking has been stopped.
+ */
+export const stopBackgroundTracking = (): Promise<void> => {
+  if (Platform.OS !== "android") {
+    return Promise.resolve();
+  }
+  return nativeInterface.stopBackgroundTracking();
+};
+
+/**
+ * Check if the background tracking service is running. On iOS this always resolves to `false`.
+ *
+ * @returns {Promise<boolean>} A Promise which resolves to whether background tracking is running.
+ */
+export const isBackgroundTracking = (): Promise<boolean> => {
+  if (Platform.OS !== "android") {
+    return Promise.resolve(false);
+  }
+  return nativeInterface.isBackgroundTracking();
+};
+
+/**
+ * Register the task which is run for every batch of locations collected by background tracking. This needs to be called from your `index.js`, outside of any component, so that it is registered when the app is started in the background. The locations stay in the journal after the task has run, so call {@link truncateJournal} once you are done with them. On iOS this does nothing.
+ *
+ * @param {BackgroundTaskCallback} task The task which will be called with the batch of locations.
+ * @returns {void}
+ */
+export const registerBackgroundTask = (
+  task: (locations: Location[]) => Promise<void>
+): void => {
+  if (Platform.OS !== "android") {
+    return;
+  }
+  AppRegistry.registerHeadlessTask(
+    "RNLocationBackgroundTask",
+    () => async ({ from, to }: { from: number; to: number }) => {
+      const locations = await getJournaledLocations({ from, to });
+      await task(locations);
+    }
+  );
+};
+
+/**
+ * Get the counters and latencies of the native location pipeline, which can be used to tune the `interval` and batching options. On iOS this always resolves to `null`.
+ *
+ * @returns {Promise<LocationStats | null>} A Promise which resolves to the stats collected since they were started or last reset.
+ */
+export const getStats = (): Promise<LocationStats | null> => {
+  if (Platform.OS !== "android") {
+    return Promise.resolve(null);
+  }
+  return nativeInterface.getStats();
+};
+
+/**
+ * Reset the native location pipeline stats to zero. On iOS this does nothing.
+ *
+ * @returns {Promise<void>} A Promise which resolves when the stats have been reset.
+ */
+export const resetStats = (): Promise<void> => {
+  if (Platform.OS !== "android") {
+    return Promise.resolve();
+  }
+  return nativeInterface.resetStats();
+};
+
+/**
+ * Subscribe to periodic updates of the native location pipeline stats. Updates are only sent once you have called {@link configure} with a `statsInterval`.
+ *
+ * @param {StatsCallback} listener The listener which will be called with the stats.
+ * @returns {Subscription} The subscription function which can be used to unsubscribe.
+ */
+export const subscribeToStatsUpdates = (
+  listener: (stats: LocationStats) => void
+): Subscription => {
+  return subscriptions.subscribeToStatsUpdates(listener);
+};
+
+/**
+ * Upload the journaled locations which are waiting as soon as there is a suitable network, without waiting for the upload `interval` or the next retry. On iOS this does nothing.
+ *
+ * @returns {Promise<void>} A Promise which resolves once the upload has been requested.
+ */
+export const flushUploads = (): Promise<void> => {
+  if (Platform.OS !== "android") {
+    return Promise.resolve();
+  }
+  return nativeInterface.flushUploads();
+};
+
+/**
+ * Subscribe to the progress of native uploads configured with the `upload` option. The listener is called when each batch starts uploading, when the server acknowledges it, and when it fails.
+ *
+ * @param {UploadCallback} listener The listener which will be called with each upload event.
+ * @returns {Subscription} The subscription function which can be used to unsubscribe.
+ */
+export const subscribeToUploadUpdates = (
+  listener: (event: UploadEvent) => void
+): Subscription => {
+  return subscriptions.subscribeToUploadUpdates(listener);
+};
+
+/**
+ * Subscribe to positions predicted between location updates, for animating a map smoothly. Predictions are only made while location updates are running and you have called {@link configure} with a `predictionRate`. Each batch covers the next `predictionBatchInterval`, so the timestamps are in the near future.
+ *
+ * @param {LocationCallback} listener The listener which will be called with each batch of predicted locations.
+ * @returns {Subscription} The subscription function which can be used to unsubscribe.
+ */
+export const subscribeToPredictedLocationUpdates = (
+  listener: (locations: Location[]) => void
+): Subscription => {
+  return subscriptions.subscribeToPredictedLocationUpdates(listener);
+};
+
 export default {
   configure,
   requestPermission,
@@ -217,6 +546,26 @@ export default {
   getLatestLocation,
   subscribeToHeadingUpdates,
   subscribeToSignificantLocationUpdates,
+  getJournaledLocations,
+  truncateJournal,
+  getJournaledLocationColumns,
+  locationColumnsToLocations,
+  encodeLocations,
+  decodeLocations,
+  addGeofences,
+  removeGeofences,
+  removeAllGeofences,
+  subscribeToGeofenceTransitions,
+  startBackgroundTracking,
+  stopBackgroundTracking,
+  isBackgroundTracking,
+  registerBackgroundTask,
+  getStats,
+  resetStats,
+  subscribeToStatsUpdates,
+  subscribeToPredictedLocationUpdates,
+  flushUploads,
+  subscribeToUploadUpdates,
   // Internal use only
   _configureHelpers,
   _nativeInterface: nativeInterface,
@@ -234,3 +583,20 @@ export * from "./types";
  * @callback LocationCallback
  * @param {Location} location The new user location.
  */
+/**
+ * @callback GeofenceTransitionCallback
+ * @param {GeofenceTransition[]} transitions The geofence transitions which happened.
+ */
+/**
+ * @callback StatsCallback
+ * @param {LocationStats} stats The stats collected since they were started or last reset.
+ */
+/**
+ * @callback UploadCallback
+ * @param {UploadEvent} event The upload progress, acknowledgement or failure.
+ */
+/**
+ * @callback BackgroundTaskCallback
+ * @param {Location[]} locations The locations which were collected in the background.
+ * @returns {Promise<void>} A Promise which resolves when the task has finished.
+ */
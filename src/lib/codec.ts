@@ -0,0 +1,169 @@
+import { Location } from "../types";
+import { decodeBase64 } from "./columns";
+
+// Must match RNLocationCodec
+const COMPACT_VERSION = 1;
+
+// Presence bitmask
+const HAS_ACCURACY = 1;
+const HAS_ALTITUDE = 1 << 1;
+const HAS_ALTITUDE_ACCURACY = 1 << 2;
+const HAS_COURSE = 1 << 3;
+const HAS_COURSE_ACCURACY = 1 << 4;
+const HAS_SPEED = 1 << 5;
+const HAS_SPEED_ACCURACY = 1 << 6;
+const FROM_MOCK_PROVIDER = 1 << 7;
+
+// Fixed point scales
+const COORDINATE_SCALE = 1e7;
+const METERS_SCALE = 100;
+const DEGREES_SCALE = 10;
+
+// The optional fields in the order of their bits, with their scales
+const OPTIONAL_FIELDS: [keyof Location, number][] = [
+  ["accuracy", METERS_SCALE],
+  ["altitude", METERS_SCALE],
+  ["altitudeAccuracy", METERS_SCALE],
+  ["course", DEGREES_SCALE],
+  ["courseAccuracy", DEGREES_SCALE],
+  ["speed", METERS_SCALE],
+  ["speedAccuracy", METERS_SCALE]
+];
+
+// Values can be wider than 32 bits, so these use arithmetic rather than bitwise operators
+const zigzag = (value: number): number =>
+  value >= 0 ? value * 2 : -value * 2 - 1;
+
+const unzigzag = (value: number): number =>
+  value % 2 === 0 ? value / 2 : -(value + 1) / 2;
+
+const writeVarint = (bytes: number[], value: number): void => {
+  while (value >= 0x80) {
+    bytes.push((value % 0x80) | 0x80);
+    value = Math.floor(value / 0x80);
+  }
+  bytes.push(value);
+};
+
+/**
+ * Encodes locations in the compact encoding used by native uploads and `RNLocationCodec`.
+ * @ignore
+ */
+export const encodeCompactLocations = (locations: Location[]): Uint8Array => {
+  const bytes: number[] = [];
+  writeVarint(bytes, COMPACT_VERSION);
+  writeVarint(bytes, locations.length);
+
+  let previousTime = 0;
+  let previousLatitude = 0;
+  let previousLongitude = 0;
+  const previous = OPTIONAL_FIELDS.map(() => 0);
+  for (const location of locations) {
+    let mask = 0;
+    const values = OPTIONAL_FIELDS.map(([field, scale], index) => {
+      const value = location[field];
+      if (typeof value !== "number") {
+        return 0;
+      }
+      mask |= 1 << index;
+      return Math.round(value * scale);
+    });
+    if (location.fromMockProvider) {
+      mask |= FROM_MOCK_PROVIDER;
+    }
+    writeVarint(bytes, mask);
+
+    const time = Math.round(location.timestamp);
+    const latitude = Math.round(location.latitude * COORDINATE_SCALE);
+    const longitude = Math.round(location.longitude * COORDINATE_SCALE);
+    writeVarint(bytes, zigzag(time - previousTime));
+    writeVarint(bytes, zigzag(latitude - previousLatitude));
+    writeVarint(bytes, zigzag(longitude - previousLongitude));
+    previousTime = time;
+    previousLatitude = latitude;
+    previousLongitude = longitude;
+
+    for (let field = 0; field < OPTIONAL_FIELDS.length; field++) {
+      if (mask & (1 << field)) {
+        writeVarint(bytes, zigzag(values[field] - previous[field]));
+        previous[field] = values[field];
+      }
+    }
+  }
+  return new Uint8Array(bytes);
+};
+
+/**
+ * Decodes locations in the compact encoding, given as bytes or base64. Like
+ * the locations sent by the native module, every optional field which was
+ * not encoded is zero.
+ * @ignore
+ */
+export const decodeCompactLocations = (
+  data: Uint8Array | ArrayBuffer | string
+): Location[] => {
+  const bytes =
+    typeof data === "string"
+      ? new Uint8Array(decodeBase64(data))
+      : data instanceof Uint8Array
+      ? data
+      : new Uint8Array(data);
+
+  let position = 0;
+  const readVarint = (): number => {
+    let value = 0;
+    let multiplier = 1;
+    for (;;) {
+      if (position >= bytes.length) {
+        throw new Error("The compact location data is truncated");
+      }
+      const byte = bytes[position++];
+      value += (byte & 0x7f) * multiplier;
+      if ((byte & 0x80) === 0) {
+        return value;
+      }
+      multiplier *= 0x80;
+    }
+  };
+
+  const version = readVarint();
+  if (version !== COMPACT_VERSION) {
+    throw new Error(`Unsupported compact location version: ${version}`);
+  }
+  const count = readVarint();
+
+  const locations: Location[] = [];
+  let time = 0;
+  let latitude = 0;
+  let longitude = 0;
+  const values = OPTIONAL_FIELDS.map(() => 0);
+  for (let i = 0; i < count; i++) {
+    const mask = readVarint();
+    time += unzigzag(readVarint());
+    latitude += unzigzag(readVarint());
+    longitude += unzigzag(readVarint());
+    for (let field = 0; field < OPTIONAL_FIELDS.length; field++) {
+      if (mask & (1 << field)) {
+        values[field] += unzigzag(readVarint());
+      }
+    }
+
+    const location: Location = {
+      timestamp: time,
+      latitude: latitude / COORDINATE_SCALE,
+      longitude: longitude / COORDINATE_SCALE,
+      accuracy: mask & HAS_ACCURACY ? values[0] / METERS_SCALE : 0,
+      altitude: mask & HAS_ALTITUDE ? values[1] / METERS_SCALE : 0,
+      altitudeAccuracy:
+        mask & HAS_ALTITUDE_ACCURACY ? values[2] / METERS_SCALE : 0,
+      course: mask & HAS_COURSE ? values[3] / DEGREES_SCALE : 0,
+      courseAccuracy:
+        mask & HAS_COURSE_ACCURACY ? values[4] / DEGREES_SCALE : 0,
+      speed: mask & HAS_SPEED ? values[5] / METERS_SCALE : 0,
+      speedAccuracy: mask & HAS_SPEED_ACCURACY ? values[6] / METERS_SCALE : 0,
+      fromMockProvider: (mask & FROM_MOCK_PROVIDER) !== 0
+    };
+    locations.push(location);
+  }
+  return locations;
+};
@@ -0,0 +1,132 @@
+import { Location, LocationColumns } from "../types";
+
+const BASE64_ALPHABET =
+  "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+const BASE64_LOOKUP = new Uint8Array(128);
+for (let i = 0; i < BASE64_ALPHABET.length; i++) {
+  BASE64_LOOKUP[BASE64_ALPHABET.charCodeAt(i)] = i;
+}
+
+// Must match the layout written by RNLocationJournal.queryColumns
+const COLUMNS_VERSION = 1;
+const COLUMNS_HEADER_SIZE = 8;
+// The header alone, for no locations
+const EMPTY_COLUMNS = "AQAAAAAAAAA=";
+
+/**
+ * Decodes base64 into a new buffer. Not every JS engine React Native runs on has `atob`, and this avoids going through a string.
+ * @ignore
+ */
+export const decodeBase64 = (base64: string): ArrayBuffer => {
+  let length = base64.length;
+  while (length > 0 && base64.charAt(length - 1) === "=") {
+    length--;
+  }
+
+  const bytes = new Uint8Array(Math.floor((length * 3) / 4));
+  let byteIndex = 0;
+  for (let i = 0; i < length; i += 4) {
+    const a = BASE64_LOOKUP[base64.charCodeAt(i)];
+    const b = BASE64_LOOKUP[base64.charCodeAt(i + 1)];
+    const c = i + 2 < length ? BASE64_LOOKUP[base64.charCodeAt(i + 2)] : 0;
+    const d = i + 3 < length ? BASE64_LOOKUP[base64.charCodeAt(i + 3)] : 0;
+    bytes[byteIndex++] = (a << 2) | (b >> 4);
+    if (i + 2 < length) {
+      bytes[byteIndex++] = ((b & 15) << 4) | (c >> 2);
+    }
+    if (i + 3 < length) {
+      bytes[byteIndex++] = ((c & 3) << 6) | d;
+    }
+  }
+  return bytes.buffer;
+};
+
+/**
+ * Decodes the packed columns sent by the native module into typed arrays, which share the decoded buffer rather than copying it.
+ * @ignore
+ */
+export const decodeLocationColumns = (base64: string): LocationColumns => {
+  const buffer = decodeBase64(base64);
+  const header = new DataView(buffer, 0, COLUMNS_HEADER_SIZE);
+  const version = header.getUint32(0, true);
+  if (version !== COLUMNS_VERSION) {
+    throw new Error(`Unsupported location columns version: ${version}`);
+  }
+  const count = header.getUint32(4, true);
+
+  let offset = COLUMNS_HEADER_SIZE;
+  const float64Column = (): Float64Array => {
+    const column = new Float64Array(buffer, offset, count);
+    offset += count * 8;
+    return column;
+  };
+  const float32Column = (): Float32Array => {
+    const column = new Float32Array(buffer, offset, count);
+    offset += count * 4;
+    return column;
+  };
+
+  // The order of the columns is fixed by the layout
+  const timestamp = float64Column();
+  const latitude = float64Column();
+  const longitude = float64Column();
+  const altitude = float64Column();
+  const accuracy = float32Column();
+  const altitudeAccuracy = float32Column();
+  const course = float32Column();
+  const courseAccuracy = float32Column();
+  const speed = float32Column();
+  const speedAccuracy = float32Column();
+  const fromMockProvider = new Uint8Array(buffer, offset, count);
+
+  return {
+    count,
+    timestamp,
+    latitude,
+    longitude,
+    altitude,
+    accuracy,
+    altitudeAccuracy,
+    course,
+    courseAccuracy,
+    speed,
+    speedAccuracy,
+    fromMockProvider
+  };
+};
+
+/**
+ * Columns holding no locations.
+ * @ignore
+ */
+export const emptyLocationColumns = (): LocationColumns => {
+  return decodeLocationColumns(EMPTY_COLUMNS);
+};
+
+/**
+ * Converts columns into location objects, for when only part of a large query needs to be used as locations.
+ * @ignore
+ */
+export const columnsToLocations = (
+  columns: LocationColumns,
+  start = 0,
+  end = columns.count
+): Location[] => {
+  const locations: Location[] = [];
+  for (let i = start; i < end; i++) {
+    locations.push({
+      timestamp: columns.timestamp[i],
+      latitude: columns.latitude[i],
+      longitude: columns.longitude[i],
+      accuracy: columns.accuracy[i],
+      altitude: columns.altitude[i],
+      altitudeAccuracy: columns.altitudeAccuracy[i],
+      course: columns.course[i],
+      courseAccuracy: columns.courseAccuracy[i],
+      speed: columns.speed[i],
+      speedAccuracy: columns.speedAccuracy[i],
+      fromMockProvider: columns.fromMockProvider[i] !== 0
+    });
+  }
+  return locations;
+};
@@ -3,6 +3,10 @@ import {
   Location,
   Subscription,
   Heading,
+  GeofenceTransition,
+  LocationStats,
+  UploadEvent,
+  LocationSubscriptionOptions,
   RNLocationNativeInterface
 } from "../types";
 
@@ -16,6 +20,7 @@ export default class Subscriptions {
   private locationListenerCount = 0;
   private headingListenerCount = 0;
   private significantLocationListenerCount = 0;
+  private locationSubscriptionCount = 0;
 
   public constructor(
     nativeInterface: RNLocationNativeInterface,
@@ -45,6 +50,28 @@ export default class Subscriptions {
     };
   }
 
+  public subscribeToLocationUpdatesWithOptions(
+    listener: (locations: Location[]) => void,
+    options: LocationSubscriptionOptions
+  ): Subscription {
+    this.locationSubscriptionCount += 1;
+    const id = `subscription-${this.locationSubscriptionCount}`;
+    const emitterSubscription = this.eventEmitter.addListener(
+      "subscriptionLocationUpdated",
+      (event: { id: string; locations: Location[] }) => {
+        if (event.id === id) {
+          listener(event.locations);
+        }
+      }
+    );
+    this.nativeInterface.addLocationSubscription(id, options);
+
+    return () => {
+      emitterSubscription.remove();
+      this.nativeInterface.removeLocationSubscription(id);
+    };
+  }
+
   public subscribeToHeadingUpdates(
     listener: (heading: Heading) => void
   ): Subscription {
@@ -84,4 +111,56 @@ export default class Subscriptions {
       }
     };
   }
+
+  public subscribeToGeofenceTransitions(
+    listener: (transitions: GeofenceTransition[]) => void
+  ): Subscription {
+    const emitterSubscription = this.eventEmitter.addListener(
+      "geofenceTransition",
+      listener
+    );
+
+    return () => {
+      emitterSubscription.remove();
+    };
+  }
+
+  public subscribeToPredictedLocationUpdates(
+    listener: (locations: Location[]) => void
+  ): Subscription {
+    const emitterSubscription = this.eventEmitter.addListener(
+      "predictedLocationUpdated",
+      listener
+    );
+
+    return () => {
+      emitterSubscription.remove();
+    };
+  }
+
+  public subscribeToUploadUpdates(
+    listener: (event: UploadEvent) => void
+  ): Subscription {
+    const emitterSubscription = this.eventEmitter.addListener(
+      "uploadUpdated",
+      listener
+    );
+
+    return () => {
+      emitterSubscription.remove();
+    };
+  }
+
+  public subscribeToStatsUpdates(
+    listener: (stats: LocationStats) => void
+  ): Subscription {
+    const emitterSubscription = this.eventEmitter.addListener(
+      "statsUpdated",
+      listener
+    );
+
+    return () => {
+      emitterSubscription.remove();
+    };
+  }
 }
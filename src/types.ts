@@ -24,7 +24,7 @@ export type LocationActivityType =
  * The location provider to use for Android.
  * @platform android
  */
-export type AndroidProvider = "auto" | "playServices" | "standard";
+export type AndroidProvider = "auto" | "playServices" | "standard" | "replay";
 /**
  * The accuracy of the location responses for Android.
  * @platform android
@@ -57,6 +57,23 @@ export type HeadingOrientation =
   | "landscapeLeft"
   | "landscapeRight";
 
+/**
+ * The name of a field of a location, for the `fields` option.
+ */
+export type LocationField =
+  | "timestamp"
+  | "latitude"
+  | "longitude"
+  | "accuracy"
+  | "altitude"
+  | "altitudeAccuracy"
+  | "course"
+  | "courseAccuracy"
+  | "speed"
+  | "speedAccuracy"
+  | "fromMockProvider"
+  | "tier";
+
 export interface Location {
   /**
    * The time that the device was at this location.
@@ -132,11 +149,72 @@ export interface Location {
    * @see [Android Docs](https://developer.android.com/reference/android/location/Location.html#isFromMockProvider())
    */
   fromMockProvider?: boolean;
+  /**
+   * Where the location came from while `warmStart` is on: the cached location from when updates started, the quick coarse request, or the configured request.
+   * @platform android
+   */
+  tier?: "lastKnown" | "coarse" | "precise";
 }
 export interface Heading {
   heading: number;
 }
 
+/**
+ * A region which is monitored for transitions. A geofence is either a circle, given by a `latitude`, `longitude` and `radius`, or a `polygon`.
+ * @platform android
+ */
+export interface Geofence {
+  /**
+   * The unique identifier of the geofence. Adding a geofence with the same identifier as an existing one replaces it.
+   */
+  id: string;
+  /**
+   * The latitude of the center of a circular geofence.
+   */
+  latitude?: number | void;
+  /**
+   * The longitude of the center of a circular geofence.
+   */
+  longitude?: number | void;
+  /**
+   * The radius of a circular geofence, in meters.
+   */
+  radius?: number | void;
+  /**
+   * The vertices of a polygonal geofence. At least 3 points are required.
+   */
+  polygon?: { latitude: number; longitude: number }[] | void;
+  /**
+   * The time in milliseconds the device needs to stay inside the geofence before a `dwell` transition is sent. Defaults to `0`, which means no `dwell` transitions are sent.
+   */
+  dwellTime?: number | void;
+}
+
+/**
+ * The type of geofence transition.
+ * @platform android
+ */
+export type GeofenceTransitionType = "enter" | "exit" | "dwell";
+
+/**
+ * A transition of the device into, out of, or dwelling within a geofence.
+ * @platform android
+ */
+export interface GeofenceTransition {
+  /**
+   * The identifier of the geofence which was transitioned.
+   */
+  id: string;
+  /**
+   * The type of transition.
+   */
+  transition: GeofenceTransitionType;
+  /**
+   * The location which triggered the transition, if it is known.
+   */
+  location: Location | null;
+}
+
 export interface ConfigureOptions {
   /**
    * The minimum distance in meters that the device location needs to change before the location update callback in your app is called. Defaults to `0` for no filtering.
@@ -157,6 +235,11 @@ export interface ConfigureOptions {
    * @platform android
    */
   androidProvider?: AndroidProvider | void;
+  /**
+   * The track to replay when `androidProvider` is set to `replay`.
+   * @platform android
+   */
+  replay?: ReplayOptions | void;
   /**
    * The desired interval for active location updates, in milliseconds.
    * @platform android
@@ -181,6 +264,111 @@ export interface ConfigureOptions {
    * @see [Android Docs](https://developers.google.com/android/reference/com/google/android/gms/location/LocationRequest.html#setMaxWaitTime(long))
    */
   maxWaitTime?: number | void;
+  /**
+   * The number of locations which are buffered natively before they are sent to JS as a single `locationUpdated` event. Defaults to `1`, which sends every location as soon as it arrives.
+   * @platform android
+   */
+  batchSize?: number | void;
+  /**
+   * The maximum time in milliseconds that a location is buffered natively before the batch is sent to JS, even if `batchSize` has not been reached. Defaults to `0`, which means there is no time limit.
+   * @platform android
+   */
+  batchWindow?: number | void;
+  /**
+   * A Boolean value indicating whether every location should also be written to a persistent journal on the device. Journaled locations are kept even if the JS runtime is paused or killed and can be read back with `getJournaledLocations`. Defaults to `false`.
+   * @platform android
+   */
+  journal?: boolean | void;
+  /**
+   * A Boolean value indicating whether locations should be smoothed natively with a Kalman filter. The position and accuracy of each location are replaced with the filtered estimate. Defaults to `false`.
+   * @platform android
+   */
+  smoothing?: boolean | void;
+  /**
+   * Locations with an accuracy radius larger than this, in meters, are dropped natively. Defaults to `0`, which keeps every location.
+   * @platform android
+   */
+  maxAccuracy?: number | void;
+  /**
+   * Locations which would mean moving faster than this, in meters per second, from the last location are dropped natively as outliers. Defaults to `0`, which turns the check off.
+   * @platform android
+   */
+  maxSpeed?: number | void;
+  /**
+   * The maximum distance in meters that a dropped location may be from the track, used to simplify the track before it is sent to JS or journaled. The most recent location is held back until the next one shows whether it is needed. Defaults to `0`, which turns simplification off.
+   * @platform android
+   */
+  simplificationTolerance?: number | void;
+  /**
+   * A Boolean value indicating whether the location request should be retuned from the measured speed of the device. While still, the interval is stretched and the accuracy dropped to `lowPower`. While moving fast, the interval is shortened and the accuracy raised to `highAccuracy`. Defaults to `false`.
+   * @platform android
+   */
+  adaptiveSampling?: boolean | void;
+  /**
+   * A Boolean value indicating whether the `standard` provider should listen to the GPS, network and passive providers together rather than picking one of them. Only the locations which improve on the best one so far are used, which avoids the gap while switching providers and gives a quicker first location. Defaults to `false`.
+   * @platform android
+   */
+  fuseProviders?: boolean | void;
+  /**
+   * A Boolean value indicating whether location and heading updates should be paused while the app is in the background, and resumed when it returns to the foreground. Heading updates are always paused in the background while location updates are not running. Defaults to `false`.
+   * @platform android
+   */
+  pauseInBackground?: boolean | void;
+  /**
+   * A Boolean value indicating whether a recent cached location should be sent as soon as updates start, and whether high accuracy requests should be joined by a quick coarse network request until their first location arrives. Every location is tagged with its `tier` while this is on. Defaults to `false`.
+   * @platform android
+   */
+  warmStart?: boolean | void;
+  /**
+   * How old in milliseconds the cached location can be for `warmStart` to send it. Defaults to `300000`.
+   * @platform android
+   */
+  warmStartMaxAge?: number | void;
+  /**
+   * A Boolean value indicating whether location updates should be paused while the device is still. Updates are paused once the device has stayed within `stillRadius` for `stillTimeout`, and are resumed as soon as the motion sensors detect movement. Defaults to `false`.
+   * @platform android
+   */
+  pauseWhenStill?: boolean | void;
+  /**
+   * How long in milliseconds the device needs to stay in one place before updates are paused by `pauseWhenStill`. Defaults to `300000`.
+   * @platform android
+   */
+  stillTimeout?: number | void;
+  /**
+   * How far in meters the device can move while still counting as being in one place for `pauseWhenStill`. Locations less accurate than this use their accuracy instead. Defaults to `50`.
+   * @platform android
+   */
+  stillRadius?: number | void;
+  /**
+   * How many positions a second to predict between location updates for `subscribeToPredictedLocationUpdates`. Defaults to `0`, which turns predictions off.
+   * @platform android
+   */
+  predictionRate?: number | void;
+  /**
+   * How much time in milliseconds each batch of predicted positions covers. Defaults to `250`.
+   * @platform android
+   */
+  predictionBatchInterval?: number | void;
+  /**
+   * A Boolean value indicating whether predictions should turn with the heading sensor while heading updates are running. Defaults to `false`.
+   * @platform android
+   */
+  predictionUsesHeading?: boolean | void;
+  /**
+   * Only send these fields of each location to JS, which makes location updates cheaper to convert and send at high rates. The other fields are left out of the locations. Pass `null` to send every field again. Defaults to every field.
+   * @platform android
+   */
+  fields?: LocationField[] | null | void;
+  /**
+   * How often in milliseconds the native pipeline stats are sent to listeners added with `subscribeToStatsUpdates`. Defaults to `0`, which turns the updates off.
+   * @platform android
+   */
+  statsInterval?: number | void;
+  /**
+   * Upload journaled locations to a server natively, without going through JS. Requires `journal` to be turned on. Pass `null` to stop uploading.
+   * @platform android
+   */
+  upload?: UploadOptions | null | void;
 
   /**
    * A Boolean value indicating whether the app should receive location updates when suspended. Requires permissions to always access the users location. Defaults to `false`.
@@ -200,7 +388,7 @@ export interface ConfigureOptions {
   } | void;
   /**
    * The minimum angle in degrees that the device heading needs to change before the heading update callback in your app is called. Defaults to `0` for no filtering.
-   * @platform ios
+   * @platform android ios
    */
   headingFilter?: number | void;
   /**
@@ -228,6 +416,300 @@ export interface GetLatestLocationOptions {
    * The amount of time in milliseconds which the `getLatestLocation` method should wait before giving up and returning `null`. To turn off the timeout behaviour, give this option a `null` value. If not specified it will default to 10000ms (10 seconds).
    */
   timeout?: number | null;
+  /**
+   * The maximum age in milliseconds of a cached location which can be returned. If the most recent location is older than this, a new one is requested. If not specified, a cached location of any age can be returned.
+   * @platform android
+   */
+  maxAge?: number | void;
+  /**
+   * The largest accuracy radius in meters of a cached location which can be returned. If the most recent location is less accurate than this, a new one is requested. If not specified, a cached location of any accuracy can be returned.
+   * @platform android
+   */
+  minAccuracy?: number | void;
+}
+
+export interface JournalQueryOptions {
+  /**
+   * Only return locations with a timestamp at or after this time, in milliseconds since the epoch. Defaults to the start of the journal.
+   */
+  from?: number | void;
+  /**
+   * Only return locations with a timestamp at or before this time, in milliseconds since the epoch. Defaults to the end of the journal.
+   */
+  to?: number | void;
+  /**
+   * The maximum number of locations to return. Defaults to no limit.
+   */
+  limit?: number | void;
+  /**
+   * A Boolean value indicating whether `getJournaledLocations` should fetch the locations from native code in the compact encoding and decode them in JS, which is much smaller to send across the bridge. The values are rounded to the precision of the encoding. Defaults to `false`.
+   */
+  compact?: boolean | void;
+}
+
+/**
+ * Locations stored column by column in typed arrays, where the location at index `i` is made up of the `i`th value of each column. This avoids creating an object per location for large spans of history.
+ * @platform android
+ */
+export interface LocationColumns {
+  /**
+   * The number of locations.
+   */
+  count: number;
+  timestamp: Float64Array;
+  latitude: Float64Array;
+  longitude: Float64Array;
+  altitude: Float64Array;
+  accuracy: Float32Array;
+  altitudeAccuracy: Float32Array;
+  course: Float32Array;
+  courseAccuracy: Float32Array;
+  speed: Float32Array;
+  speedAccuracy: Float32Array;
+  /**
+   * `1` if the location came from a mock provider and `0` otherwise.
+   */
+  fromMockProvider: Uint8Array;
+}
+
+export interface BackgroundTrackingOptions {
+  /**
+   * The desired interval in milliseconds between locations. Defaults to `60000`.
+   */
+  interval?: number | void;
+  /**
+   * The minimum distance in meters a device must move before a new location is collected. Defaults to `0`.
+   */
+  distanceFilter?: number | void;
+  /**
+   * The accuracy to request while tracking in the background. Defaults to `balancedPowerAccuracy`.
+   */
+  desiredAccuracy?: {
+    android?: LocationPriorityAndroid | void;
+  } | void;
+  /**
+   * The contents of the notification which is shown while tracking. The `icon` is the name of a drawable resource in your app and defaults to the app icon.
+   */
+  notification?: {
+    title?: string | void;
+    text?: string | void;
+    icon?: string | void;
+  } | void;
+  /**
+   * Whether to run the task registered with `registerBackgroundTask` as locations are collected. Defaults to `false`.
+   */
+  headlessTask?: boolean | void;
+  /**
+   * The number of locations to collect before running the background task. Defaults to `10`.
+   */
+  headlessTaskBatchSize?: number | void;
+}
+
+export interface ReplayOptions {
+  /**
+   * The path of the track to replay. Defaults to the locations in the journal.
+   */
+  file?: string | void;
+  /**
+   * The format of the track file. `compact` files hold locations in the compact encoding, optionally gzipped, such as a file written from `encodeLocations`. Defaults to `gpx` for files ending in `.gpx` and `journal` otherwise.
+   */
+  format?: "gpx" | "journal" | "compact" | void;
+  /**
+   * The speed multiplier to replay the track at. Defaults to `1`.
+   */
+  speed?: number | void;
+  /**
+   * Whether to start the track again once it has finished. Defaults to `false`.
+   */
+  loop?: boolean | void;
+}
+
+export interface UploadOptions {
+  /**
+   * The URL to POST each batch of locations to.
+   */
+  url: string;
+  /**
+   * Extra headers to send with each request, for example for authentication.
+   */
+  headers?: { [name: string]: string } | void;
+  /**
+   * The number of locations to send in each request. A batch is sent as soon as this many locations are waiting. Defaults to `100`.
+   */
+  batchSize?: number | void;
+  /**
+   * The longest time in milliseconds to wait before sending the locations which are waiting, if there are fewer than `batchSize`. Defaults to `60000`.
+   */
+  interval?: number | void;
+  /**
+   * The time in milliseconds to wait before retrying the first failed request. The delay doubles after each failure. Defaults to `5000`.
+   */
+  retryDelay?: number | void;
+  /**
+   * The longest time in milliseconds to wait between retries. Defaults to `900000`.
+   */
+  maxRetryDelay?: number | void;
+  /**
+   * Whether to only upload over unmetered networks, such as Wi-Fi. Defaults to `false`.
+   */
+  unmeteredOnly?: boolean | void;
+}
+
+/**
+ * Sent when a batch of locations starts uploading.
+ */
+export interface UploadProgressEvent {
+  type: "progress";
+  /**
+   * The number of locations in the batch.
+   */
+  count: number;
+  /**
+   * The size of the compressed request body in bytes.
+   */
+  bytes: number;
+  /**
+   * The number of locations waiting to be uploaded, including this batch.
+   */
+  pending: number;
+}
+
+/**
+ * Sent when the server has accepted a batch of locations.
+ */
+export interface UploadAcknowledgedEvent {
+  type: "acknowledged";
+  /**
+   * The number of locations in the batch.
+   */
+  count: number;
+  /**
+   * The timestamp of the first location in the batch.
+   */
+  from: number;
+  /**
+   * The timestamp of the last location in the batch. Everything up to this time has been uploaded.
+   */
+  to: number;
+  /**
+   * The HTTP status the server responded with.
+   */
+  status: number;
+  /**
+   * The number of locations still waiting to be uploaded.
+   */
+  pending: number;
+}
+
+/**
+ * Sent when a batch of locations could not be uploaded.
+ */
+export interface UploadFailedEvent {
+  type: "failed";
+  /**
+   * The HTTP status the server responded with, or `0` if the request did not complete.
+   */
+  status: number;
+  message: string;
+  /**
+   * The time in milliseconds until the batch is retried.
+   */
+  retryIn: number;
+}
+
+export type UploadEvent =
+  | UploadProgressEvent
+  | UploadAcknowledgedEvent
+  | UploadFailedEvent;
+
+/**
+ * A summary of a latency histogram. The durations are in milliseconds, and the percentiles are accurate to within a factor of two.
+ * @platform android
+ */
+export interface LatencyStats {
+  count: number;
+  mean: number;
+  max: number;
+  p50: number;
+  p90: number;
+  p99: number;
+}
+
+/**
+ * Counters and latencies for the native location pipeline.
+ * @platform android
+ */
+export interface LocationStats {
+  /**
+   * The time the stats were started or last reset, in milliseconds since the epoch.
+   */
+  since: number;
+  /**
+   * The number of locations which reached the native pipeline from the provider.
+   */
+  locationsReceived: number;
+  /**
+   * The number of locations which the provider delivered after updates were stopped.
+   */
+  locationsDroppedWhileStopped: number;
+  /**
+   * The number of locations which were dropped by `maxAccuracy` or `maxSpeed`.
+   */
+  locationsRejected: number;
+  /**
+   * The number of locations which were sent to JS as `locationUpdated` events.
+   */
+  locationsEmitted: number;
+  /**
+   * The number of locations which were written to the journal.
+   */
+  locationsJournaled: number;
+  /**
+   * The number of batches which were sent to JS.
+   */
+  batchesEmitted: number;
+  /**
+   * The number of times the location request was registered with the provider.
+   */
+  providerRegistrations: number;
+  /**
+   * How old each location was when it reached the native pipeline.
+   */
+  receiveLatency: LatencyStats;
+  /**
+   * The time spent filtering, simplifying and journaling each delivery from the provider.
+   */
+  processingTime: LatencyStats;
+  /**
+   * The time from each location reaching the native pipeline to it being sent to JS, which includes the time it was batched.
+   */
+  deliveryLatency: LatencyStats;
+  /**
+   * The time spent converting and sending each batch to JS.
+   */
+  emitTime: LatencyStats;
+}
+
+export interface LocationSubscriptionOptions {
+  /**
+   * The desired interval in milliseconds between the locations sent to this listener. Defaults to every location the provider produces.
+   */
+  interval?: number | void;
+  /**
+   * The minimum distance in meters a device must move before a new location is sent to this listener. Defaults to `0`.
+   */
+  distanceFilter?: number | void;
+  /**
+   * The accuracy this listener needs. The provider uses the most accurate value requested by any listener.
+   */
+  desiredAccuracy?: {
+    android?: LocationPriorityAndroid | void;
+  } | void;
+  /**
+   * Only send these fields of each location to this listener. Defaults to every field.
+   * @platform android
+   */
+  fields?: LocationField[] | null | void;
 }
 
 export interface RequestPermissionOptions {
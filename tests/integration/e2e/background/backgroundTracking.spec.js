@@ -0,0 +1,91 @@
+const chai = require("chai");
+const sinon = require("sinon");
+const sinonChai = require("sinon-chai");
+const expect = chai.expect;
+chai.use(sinonChai);
+const sandbox = sinon.createSandbox();
+
+describe("Background tracking", function() {
+  let nativeInterface;
+  let eventEmitter;
+
+  beforeEach(async function() {
+    nativeInterface = sandbox.stub(jet.module._nativeInterface);
+    eventEmitter = sandbox.stub(new jet.rn.NativeEventEmitter(nativeInterface));
+    jet.module._configureHelpers(nativeInterface, eventEmitter);
+  });
+
+  afterEach(function() {
+    sandbox.restore();
+  });
+
+  describe("Android", function() {
+    before(function() {
+      if (jet.rn.Platform.OS !== "android") {
+        this.skip();
+      }
+    });
+
+    it("should correctly pass the options to startBackgroundTracking", async function() {
+      const options = {
+        interval: 60000,
+        distanceFilter: 20,
+        notification: { title: "Tracking" },
+        headlessTask: true,
+        headlessTaskBatchSize: 10
+      };
+      jet.module.startBackgroundTracking(options);
+
+      expect(nativeInterface.startBackgroundTracking).to.have.been.calledWith(
+        options
+      );
+
+      return Promise.resolve();
+    });
+
+    it("should call the native method for stopBackgroundTracking", async function() {
+      jet.module.stopBackgroundTracking();
+
+      expect(nativeInterface.stopBackgroundTracking).to.have.been.called;
+
+      return Promise.resolve();
+    });
+
+    it("should register the headless task with the journaled locations for the batch", async function() {
+      const registerHeadlessTask = sandbox.stub(
+        jet.rn.AppRegistry,
+        "registerHeadlessTask"
+      );
+      const locations = [{ latitude: 1, longitude: 2, timestamp: 1500 }];
+      nativeInterface.getJournaledLocations.resolves(locations);
+      const task = sandbox.stub().resolves();
+
+      jet.module.registerBackgroundTask(task);
+      expect(registerHeadlessTask).to.have.been.calledWith(
+        "RNLocationBackgroundTask"
+      );
+
+      const runTask = registerHeadlessTask.firstCall.args[1]();
+      await runTask({ from: 1000, to: 2000, count: 1 });
+
+      expect(nativeInterface.getJournaledLocations).to.have.been.calledWith({
+        from: 1000,
+        to: 2000
+      });
+      expect(task).to.have.been.calledWith(locations);
+    });
+  });
+
+  describe("iOS", function() {
+    before(function() {
+      if (jet.rn.Platform.OS !== "ios") {
+        this.skip();
+      }
+    });
+
+    it("should resolve isBackgroundTracking to false", async function() {
+      const isTracking = await jet.module.isBackgroundTracking();
+      expect(isTracking).to.equal(false);
+    });
+  });
+});
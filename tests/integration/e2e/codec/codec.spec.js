@@ -0,0 +1,153 @@
+const chai = require("chai");
+const expect = chai.expect;
+
+// Written by RNLocationCodec.encode, so the two implementations are checked against each other
+const JAVA_ENCODED =
+  "AQMrgKCr/vli+IyT6wPbkJgB6AekE5IO+gEr0A/HBNMLY+MBjCr5ASufH6/okq4GwPGdowuclQGPIZ048C4=";
+const JAVA_LOCATIONS = [
+  {
+    timestamp: 1700000000000,
+    latitude: 51.5007292,
+    longitude: -0.1246254,
+    accuracy: 5,
+    altitude: 12.34,
+    course: 90.5,
+    speed: 1.25
+  },
+  {
+    timestamp: 1700000001000,
+    latitude: 51.5007,
+    longitude: -0.1247,
+    accuracy: 4.5,
+    altitude: 11.2,
+    course: 359.9,
+    speed: 0
+  },
+  {
+    timestamp: 1699999999000,
+    latitude: -33.8688,
+    longitude: 151.2093,
+    accuracy: 100,
+    altitude: -10,
+    course: 0,
+    speed: 30
+  }
+];
+
+describe("Codec", function() {
+  it("should round trip every field", function() {
+    const locations = [
+      {
+        timestamp: 1,
+        latitude: -89.9999999,
+        longitude: 179.9999999,
+        accuracy: 3.21,
+        altitude: 0,
+        altitudeAccuracy: 1,
+        course: 0,
+        courseAccuracy: 2.5,
+        speed: 0,
+        speedAccuracy: 0.5,
+        fromMockProvider: true
+      },
+      {
+        timestamp: 0,
+        latitude: 89.9999999,
+        longitude: -179.9999999,
+        accuracy: 1,
+        altitude: -5,
+        altitudeAccuracy: 1,
+        course: 359.9,
+        courseAccuracy: 1,
+        speed: 3.33,
+        speedAccuracy: 0.25,
+        fromMockProvider: false
+      }
+    ];
+
+    const decoded = jet.module.decodeLocations(
+      jet.module.encodeLocations(locations)
+    );
+
+    expect(decoded).to.deep.equal(locations);
+  });
+
+  it("should round values to the precision of the encoding", function() {
+    const [decoded] = jet.module.decodeLocations(
+      jet.module.encodeLocations([
+        {
+          timestamp: 1000.4,
+          latitude: 51.50072924,
+          longitude: -0.12462536,
+          accuracy: 5.004,
+          course: 90.04
+        }
+      ])
+    );
+
+    expect(decoded.timestamp).to.equal(1000);
+    expect(decoded.latitude).to.equal(51.5007292);
+    expect(decoded.longitude).to.equal(-0.1246254);
+    expect(decoded.accuracy).to.equal(5);
+    expect(decoded.course).to.equal(90);
+  });
+
+  it("should zero the optional fields which were not encoded", function() {
+    const [decoded] = jet.module.decodeLocations(
+      jet.module.encodeLocations([
+        { timestamp: 1000, latitude: 1, longitude: 2 }
+      ])
+    );
+
+    expect(decoded).to.deep.equal({
+      timestamp: 1000,
+      latitude: 1,
+      longitude: 2,
+      accuracy: 0,
+      altitude: 0,
+      altitudeAccuracy: 0,
+      course: 0,
+      courseAccuracy: 0,
+      speed: 0,
+      speedAccuracy: 0,
+      fromMockProvider: false
+    });
+  });
+
+  it("should encode no locations", function() {
+    const bytes = jet.module.encodeLocations([]);
+
+    expect(Array.from(bytes)).to.deep.equal([1, 0]);
+    expect(jet.module.decodeLocations(bytes)).to.deep.equal([]);
+  });
+
+  it("should match the native encoding", function() {
+    const bytes = jet.module.encodeLocations(JAVA_LOCATIONS);
+
+    expect(Buffer.from(bytes).toString("base64")).to.equal(JAVA_ENCODED);
+  });
+
+  it("should decode the native encoding from base64 and buffers", function() {
+    const fromBase64 = jet.module.decodeLocations(JAVA_ENCODED);
+    const buffer = new Uint8Array(Buffer.from(JAVA_ENCODED, "base64")).buffer;
+    const fromBuffer = jet.module.decodeLocations(buffer);
+
+    expect(fromBase64).to.deep.equal(fromBuffer);
+    expect(fromBase64).to.have.length(3);
+    expect(fromBase64[2]).to.include(JAVA_LOCATIONS[2]);
+  });
+
+  it("should throw for truncated data", function() {
+    const bytes = jet.module.encodeLocations(JAVA_LOCATIONS);
+
+    expect(() => jet.module.decodeLocations(bytes.slice(0, 10))).to.throw(
+      "The compact location data is truncated"
+    );
+  });
+
+  it("should throw for an unsupported version", function() {
+    expect(() => jet.module.decodeLocations(new Uint8Array([2, 0]))).to.throw(
+      "Unsupported compact location version: 2"
+    );
+  });
+});
@@ -29,4 +29,28 @@ describe("RNLocation.configure", function() {
 
     return Promise.resolve();
   });
+
+  it("should pass the fields to project locations onto", async function() {
+    const options = {
+      fields: ["latitude", "longitude", "timestamp"]
+    };
+    jet.module.configure(options);
+
+    expect(nativeInterface.configure).to.have.been.calledWith(options);
+
+    return Promise.resolve();
+  });
+
+  it("should pass the warm start options", async function() {
+    const options = {
+      desiredAccuracy: { android: "highAccuracy" },
+      warmStart: true,
+      warmStartMaxAge: 60000
+    };
+    jet.module.configure(options);
+
+    expect(nativeInterface.configure).to.have.been.calledWith(options);
+
+    return Promise.resolve();
+  });
 });
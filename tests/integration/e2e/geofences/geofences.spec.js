@@ -0,0 +1,90 @@
+const chai = require("chai");
+const sinon = require("sinon");
+const sinonChai = require("sinon-chai");
+const expect = chai.expect;
+chai.use(sinonChai);
+const sandbox = sinon.createSandbox();
+
+describe("Geofences", function() {
+  let nativeInterface;
+  let eventEmitter;
+
+  beforeEach(async function() {
+    nativeInterface = sandbox.stub(jet.module._nativeInterface);
+    eventEmitter = sandbox.stub(new jet.rn.NativeEventEmitter(nativeInterface));
+    jet.module._configureHelpers(nativeInterface, eventEmitter);
+  });
+
+  afterEach(function() {
+    sandbox.restore();
+  });
+
+  describe("Android", function() {
+    before(function() {
+      if (jet.rn.Platform.OS !== "android") {
+        this.skip();
+      }
+    });
+
+    it("should correctly pass the geofences to addGeofences", async function() {
+      const geofences = [
+        { id: "circle", latitude: 51.5, longitude: -0.14, radius: 200 }
+      ];
+      jet.module.addGeofences(geofences);
+
+      expect(nativeInterface.addGeofences).to.have.been.calledWith(geofences);
+
+      return Promise.resolve();
+    });
+
+    it("should correctly pass the ids to removeGeofences", async function() {
+      jet.module.removeGeofences(["circle"]);
+
+      expect(nativeInterface.removeGeofences).to.have.been.calledWith([
+        "circle"
+      ]);
+
+      return Promise.resolve();
+    });
+
+    it("should call removeAllGeofences", async function() {
+      jet.module.removeAllGeofences();
+
+      expect(nativeInterface.removeAllGeofences).to.have.been.calledOnce;
+
+      return Promise.resolve();
+    });
+  });
+
+  describe("RNLocation.subscribeToGeofenceTransitions", function() {
+    let listener;
+    let removeSpy;
+
+    beforeEach(function() {
+      listener = sandbox.spy();
+      removeSpy = sandbox.spy();
+
+      eventEmitter.addListener.returns({
+        remove: removeSpy
+      });
+    });
+
+    it("should call addListener when subscribed to", async function() {
+      await jet.module.subscribeToGeofenceTransitions(listener);
+      expect(eventEmitter.addListener).to.have.been.calledWith(
+        "geofenceTransition",
+        listener
+      );
+      expect(removeSpy).not.to.have.been.called;
+    });
+
+    it("should call remove when the unsubscribe function is called", async function() {
+      const unsubscribe = await jet.module.subscribeToGeofenceTransitions(
+        listener
+      );
+      unsubscribe();
+
+      expect(removeSpy).to.have.been.called;
+    });
+  });
+});
@@ -0,0 +1,148 @@
+const chai = require("chai");
+const sinon = require("sinon");
+const sinonChai = require("sinon-chai");
+const expect = chai.expect;
+chai.use(sinonChai);
+const sandbox = sinon.createSandbox();
+
+describe("Journal", function() {
+  let nativeInterface;
+  let eventEmitter;
+
+  beforeEach(async function() {
+    nativeInterface = sandbox.stub(jet.module._nativeInterface);
+    eventEmitter = sandbox.stub(new jet.rn.NativeEventEmitter(nativeInterface));
+    jet.module._configureHelpers(nativeInterface, eventEmitter);
+  });
+
+  afterEach(function() {
+    sandbox.restore();
+  });
+
+  describe("Android", function() {
+    before(function() {
+      if (jet.rn.Platform.OS !== "android") {
+        this.skip();
+      }
+    });
+
+    it("should correctly pass the options to getJournaledLocations", async function() {
+      const options = {
+        from: 1000,
+        to: 2000,
+        limit: 10
+      };
+      jet.module.getJournaledLocations(options);
+
+      expect(nativeInterface.getJournaledLocations).to.have.been.calledWith(
+        options
+      );
+
+      return Promise.resolve();
+    });
+
+    it("should decode the columns from getJournaledLocationColumns", async function() {
+      // Version 1 with one location at (51.5, -0.12) and a timestamp of 1000
+      const bytes = new ArrayBuffer(8 + 4 * 8 + 6 * 4 + 1);
+      const view = new DataView(bytes);
+      view.setUint32(0, 1, true);
+      view.setUint32(4, 1, true);
+      view.setFloat64(8, 1000, true);
+      view.setFloat64(16, 51.5, true);
+      view.setFloat64(24, -0.12, true);
+      view.setFloat32(40, 5, true);
+      view.setUint8(64, 1);
+      nativeInterface.getJournaledLocationColumns.resolves(
+        Buffer.from(bytes).toString("base64")
+      );
+
+      const columns = await jet.module.getJournaledLocationColumns({
+        from: 1000
+      });
+
+      expect(nativeInterface.getJournaledLocationColumns).to.have.been.calledWith(
+        { from: 1000 }
+      );
+      expect(columns.count).to.equal(1);
+      expect(columns.latitude[0]).to.equal(51.5);
+      expect(jet.module.locationColumnsToLocations(columns)).to.deep.equal([
+        {
+          timestamp: 1000,
+          latitude: 51.5,
+          longitude: -0.12,
+          accuracy: 5,
+          altitude: 0,
+          altitudeAccuracy: 0,
+          course: 0,
+          courseAccuracy: 0,
+          speed: 0,
+          speedAccuracy: 0,
+          fromMockProvider: true
+        }
+      ]);
+    });
+
+    it("should decode the compact locations from getJournaledLocationsCompact", async function() {
+      const bytes = jet.module.encodeLocations([
+        { timestamp: 1000, latitude: 51.5, longitude: -0.12, accuracy: 5 }
+      ]);
+      nativeInterface.getJournaledLocationsCompact.resolves(
+        Buffer.from(bytes).toString("base64")
+      );
+
+      const locations = await jet.module.getJournaledLocations({
+        from: 1000,
+        compact: true
+      });
+
+      expect(nativeInterface.getJournaledLocationsCompact).to.have.been.calledWith(
+        { from: 1000, compact: true }
+      );
+      expect(nativeInterface.getJournaledLocations).to.not.have.been.called;
+      expect(locations).to.deep.equal([
+        {
+          timestamp: 1000,
+          latitude: 51.5,
+          longitude: -0.12,
+          accuracy: 5,
+          altitude: 0,
+          altitudeAccuracy: 0,
+          course: 0,
+          speed: 0,
+          fromMockProvider: false
+        }
+      ]);
+    });
+
+    it("should correctly pass the timestamp to truncateJournal", async function() {
+      jet.module.truncateJournal(1000);
+
+      expect(nativeInterface.truncateJournal).to.have.been.calledWith(1000);
+
+      return Promise.resolve();
+    });
+  });
+
+  describe("iOS", function() {
+    before(function() {
+      if (jet.rn.Platform.OS !== "ios") {
+        this.skip();
+      }
+    });
+
+    it("should resolve getJournaledLocations to an empty array", async function() {
+      const locations = await jet.module.getJournaledLocations();
+      expect(locations).to.deep.equal([]);
+    });
+
+    it("should resolve getJournaledLocationColumns to empty columns", async function() {
+      const columns = await jet.module.getJournaledLocationColumns();
+      expect(columns.count).to.equal(0);
+    });
+
+    it("should resolve truncateJournal to zero", async function() {
+      const removed = await jet.module.truncateJournal(1000);
+      expect(removed).to.equal(0);
+    });
+  });
+});
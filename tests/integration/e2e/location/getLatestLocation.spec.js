@@ -0,0 +1,52 @@
+const chai = require("chai");
+const sinon = require("sinon");
+const sinonChai = require("sinon-chai");
+const expect = chai.expect;
+chai.use(sinonChai);
+const sandbox = sinon.createSandbox();
+
+describe("RNLocation.getLatestLocation", function() {
+  let nativeInterface;
+  let eventEmitter;
+
+  beforeEach(async function() {
+    nativeInterface = sandbox.stub(jet.module._nativeInterface);
+    eventEmitter = sandbox.stub(new jet.rn.NativeEventEmitter(nativeInterface));
+    jet.module._configureHelpers(nativeInterface, eventEmitter);
+  });
+
+  afterEach(function() {
+    sandbox.restore();
+  });
+
+  describe("Android", function() {
+    before(function() {
+      if (jet.rn.Platform.OS !== "android") {
+        this.skip();
+      }
+    });
+
+    it("should use the native method without subscribing", async function() {
+      jet.module.getLatestLocation({ maxAge: 5000, minAccuracy: 50 });
+
+      expect(nativeInterface.getLatestLocation).to.have.been.calledWith({
+        timeout: 10000,
+        maxAge: 5000,
+        minAccuracy: 50
+      });
+      expect(nativeInterface.startUpdatingLocation).not.to.have.been.called;
+
+      return Promise.resolve();
+    });
+
+    it("should pass a timeout of 0 when the timeout is turned off", async function() {
+      jet.module.getLatestLocation({ timeout: null });
+
+      expect(nativeInterface.getLatestLocation).to.have.been.calledWith({
+        timeout: 0
+      });
+
+      return Promise.resolve();
+    });
+  });
+});
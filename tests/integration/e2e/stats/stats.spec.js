@@ -0,0 +1,88 @@
+const chai = require("chai");
+const sinon = require("sinon");
+const sinonChai = require("sinon-chai");
+const expect = chai.expect;
+chai.use(sinonChai);
+const sandbox = sinon.createSandbox();
+
+describe("Stats", function() {
+  let nativeInterface;
+  let eventEmitter;
+
+  beforeEach(async function() {
+    nativeInterface = sandbox.stub(jet.module._nativeInterface);
+    eventEmitter = sandbox.stub(new jet.rn.NativeEventEmitter(nativeInterface));
+    jet.module._configureHelpers(nativeInterface, eventEmitter);
+  });
+
+  afterEach(function() {
+    sandbox.restore();
+  });
+
+  describe("subscribeToStatsUpdates", function() {
+    let listener;
+    let removeSpy;
+
+    beforeEach(function() {
+      listener = sandbox.spy();
+      removeSpy = sandbox.spy();
+
+      eventEmitter.addListener.returns({
+        remove: removeSpy
+      });
+    });
+
+    it("should call addListener when subscribed to", async function() {
+      await jet.module.subscribeToStatsUpdates(listener);
+      expect(eventEmitter.addListener).to.have.been.calledWith(
+        "statsUpdated",
+        listener
+      );
+      expect(removeSpy).not.to.have.been.called;
+    });
+
+    it("should call remove when the unsubscribe function is called", async function() {
+      const unsubscribe = await jet.module.subscribeToStatsUpdates(listener);
+      unsubscribe();
+
+      expect(removeSpy).to.have.been.called;
+    });
+  });
+
+  describe("Android", function() {
+    before(function() {
+      if (jet.rn.Platform.OS !== "android") {
+        this.skip();
+      }
+    });
+
+    it("should call getStats on the native interface", async function() {
+      jet.module.getStats();
+
+      expect(nativeInterface.getStats).to.have.been.called;
+
+      return Promise.resolve();
+    });
+
+    it("should call resetStats on the native interface", async function() {
+      jet.module.resetStats();
+
+      expect(nativeInterface.resetStats).to.have.been.called;
+
+      return Promise.resolve();
+    });
+  });
+
+  describe("iOS", function() {
+    before(function() {
+      if (jet.rn.Platform.OS !== "ios") {
+        this.skip();
+      }
+    });
+
+    it("should resolve getStats to null", async function() {
+      const stats = await jet.module.getStats();
+      expect(stats).to.equal(null);
+    });
+  });
+});
@@ -79,5 +79,47 @@ describe("Subscriptions", function() {
     });
 
     // TODO: Test calling the listener
+
+    describe("with options on Android", function() {
+      before(function() {
+        if (jet.rn.Platform.OS !== "android") {
+          this.skip();
+        }
+      });
+
+      it("should add and remove a named subscription", async function() {
+        const options = { interval: 60000, distanceFilter: 50 };
+        const unsubscribe = jet.module.subscribeToLocationUpdates(
+          listener,
+          options
+        );
+
+        expect(
+          nativeInterface.addLocationSubscription
+        ).to.have.been.calledWith(sinon.match.string, options);
+        expect(nativeInterface.startUpdatingLocation).not.to.have.been.called;
+
+        const id = nativeInterface.addLocationSubscription.firstCall.args[0];
+        unsubscribe();
+        expect(removeSpy).to.have.been.called;
+        expect(
+          nativeInterface.removeLocationSubscription
+        ).to.have.been.calledWith(id);
+      });
+
+      it("should only pass the locations for its own subscription to the listener", async function() {
+        jet.module.subscribeToLocationUpdates(listener, { interval: 1000 });
+
+        const id = nativeInterface.addLocationSubscription.firstCall.args[0];
+        const handler = eventEmitter.addListener.withArgs(
+          "subscriptionLocationUpdated"
+        ).firstCall.args[1];
+        const locations = [{ latitude: 1, longitude: 2 }];
+        handler({ id: "other", locations: [] });
+        handler({ id, locations });
+
+        expect(listener).to.have.been.calledOnceWith(locations);
+      });
+    });
   });
 });
@@ -0,0 +1,97 @@
+const chai = require("chai");
+const sinon = require("sinon");
+const sinonChai = require("sinon-chai");
+const expect = chai.expect;
+chai.use(sinonChai);
+const sandbox = sinon.createSandbox();
+
+describe("Uploads", function() {
+  let nativeInterface;
+  let eventEmitter;
+
+  beforeEach(async function() {
+    nativeInterface = sandbox.stub(jet.module._nativeInterface);
+    eventEmitter = sandbox.stub(new jet.rn.NativeEventEmitter(nativeInterface));
+    jet.module._configureHelpers(nativeInterface, eventEmitter);
+  });
+
+  afterEach(function() {
+    sandbox.restore();
+  });
+
+  describe("subscribeToUploadUpdates", function() {
+    let listener;
+    let removeSpy;
+
+    beforeEach(function() {
+      listener = sandbox.spy();
+      removeSpy = sandbox.spy();
+
+      eventEmitter.addListener.returns({
+        remove: removeSpy
+      });
+    });
+
+    it("should call addListener when subscribed to", async function() {
+      await jet.module.subscribeToUploadUpdates(listener);
+      expect(eventEmitter.addListener).to.have.been.calledWith(
+        "uploadUpdated",
+        listener
+      );
+      expect(removeSpy).not.to.have.been.called;
+    });
+
+    it("should call remove when the unsubscribe function is called", async function() {
+      const unsubscribe = await jet.module.subscribeToUploadUpdates(listener);
+      unsubscribe();
+
+      expect(removeSpy).to.have.been.called;
+    });
+  });
+
+  describe("Android", function() {
+    before(function() {
+      if (jet.rn.Platform.OS !== "android") {
+        this.skip();
+      }
+    });
+
+    it("should pass the upload options to the native interface", async function() {
+      const options = {
+        journal: true,
+        upload: {
+          url: "http://localhost:8080/locations",
+          headers: { Authorization: "Bearer token" },
+          batchSize: 50
+        }
+      };
+      jet.module.configure(options);
+
+      expect(nativeInterface.configure).to.have.been.calledWith(options);
+
+      return Promise.resolve();
+    });
+
+    it("should call flushUploads on the native interface", async function() {
+      jet.module.flushUploads();
+
+      expect(nativeInterface.flushUploads).to.have.been.called;
+
+      return Promise.resolve();
+    });
+  });
+
+  describe("iOS", function() {
+    before(function() {
+      if (jet.rn.Platform.OS !== "ios") {
+        this.skip();
+      }
+    });
+
+    it("should not call flushUploads on the native interface", async function() {
+      await jet.module.flushUploads();
+
+      expect(nativeInterface.flushUploads).not.to.have.been.called;
+    });
+  });
+});